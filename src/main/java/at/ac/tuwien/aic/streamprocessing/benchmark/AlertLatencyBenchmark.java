@@ -0,0 +1,153 @@
+package at.ac.tuwien.aic.streamprocessing.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.ac.tuwien.aic.streamprocessing.kafka.producer.TaxiEntryKafkaProducer;
+import at.ac.tuwien.aic.streamprocessing.kafka.provider.DataProvider;
+import at.ac.tuwien.aic.streamprocessing.kafka.provider.RateProfile;
+import at.ac.tuwien.aic.streamprocessing.kafka.provider.ReplayPacer;
+import at.ac.tuwien.aic.streamprocessing.kafka.provider.SyntheticFleetProvider;
+import at.ac.tuwien.aic.streamprocessing.kafka.utils.LocalKafkaInstance;
+import at.ac.tuwien.aic.streamprocessing.storm.CoreProcessingTopology;
+import at.ac.tuwien.aic.streamprocessing.storm.OptimizedTridentProcessingTopology;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+
+/**
+ * Measures the event-to-alert latency and the throughput of the {@link CoreProcessingTopology} and the {@link OptimizedTridentProcessingTopology}.
+ *
+ * Each topology runs in a local cluster in turn, a synthetic fleet is produced into its kafka at a constant rate. The latency of a fix is the time from
+ * handing it to the producer until its speed has been checked for speeding, i.e. until an alert would have been sent. It is taken for every fix, not
+ * only for the speeding ones. The fixes sent during the warmup, while the topology starts, are not measured. The throughput counts the fixes processed
+ * until the last fix was sent.
+ *
+ * Usage: [variant=trident,core] [rate=2000] [warmupSeconds=20] [measureSeconds=60] [parallelism=3] [epoch=true] [fleetSize=1000] and further options
+ * of the synthetic fleet as for the DataProvider.
+ */
+public class AlertLatencyBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(AlertLatencyBenchmark.class);
+
+    private static final String TOPIC = "taxi-latency";
+    private static final String DASHBOARD_ADDRESS = "http://127.0.0.1:3000";
+    private static final int DRAIN_SECONDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        Properties options = new Properties();
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.setProperty(option[0], option[1]);
+        }
+
+        List<String> results = new ArrayList<>();
+        for (String variant : options.getProperty("variant", "trident,core").split(",")) {
+            results.add(run(variant.trim(), options));
+        }
+
+        for (String result : results) {
+            logger.info(result);
+        }
+        // the local clusters leave non-daemon threads behind
+        System.exit(0);
+    }
+
+    private static String run(String variant, Properties options) throws Exception {
+        int parallelism = Integer.parseInt(options.getProperty("parallelism", String.valueOf(CoreProcessingTopology.DEFAULT_PARALLELISM)));
+        TimestampMode timestampMode = Boolean.parseBoolean(options.getProperty("epoch")) ? TimestampMode.EPOCH_MILLIS : TimestampMode.FORMATTED;
+
+        LatencyProbe.reset();
+        LatencyProbe probe = new LatencyProbe();
+
+        Runnable stop;
+        LocalKafkaInstance kafka;
+        if (variant.equals("core")) {
+            CoreProcessingTopology topology = new CoreProcessingTopology(TOPIC, DASHBOARD_ADDRESS, parallelism, probe);
+            topology.setTimestampMode(timestampMode);
+            topology.submitLocalCluster();
+            kafka = topology.getKafkaInstance();
+            stop = topology::stop;
+        } else if (variant.equals("trident")) {
+            OptimizedTridentProcessingTopology topology = new OptimizedTridentProcessingTopology(TOPIC, "localhost", 6379, DASHBOARD_ADDRESS, probe, null,
+                    null);
+            Properties configuration = new Properties();
+            configuration.setProperty("parallelism.processing", String.valueOf(parallelism));
+            topology.getConfiguration().apply(configuration);
+            topology.setTimestampMode(timestampMode);
+            topology.submitLocalCluster();
+            kafka = topology.getKafkaInstance();
+            stop = topology::stop;
+        } else {
+            throw new IllegalArgumentException("Unknown variant " + variant + ", expected trident or core");
+        }
+
+        try {
+            LatencyProbe.Recording recording = produce(kafka, options);
+            return report(variant, recording);
+        } finally {
+            stop.run();
+        }
+    }
+
+    private static LatencyProbe.Recording produce(LocalKafkaInstance kafka, Properties options) throws InterruptedException {
+        double rate = Double.parseDouble(options.getProperty("rate", "2000"));
+        long warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getProperty("warmupSeconds", "20")));
+        long measureSeconds = Long.parseLong(options.getProperty("measureSeconds", "60"));
+        long total = (long) (rate * (TimeUnit.NANOSECONDS.toSeconds(warmupNanos) + measureSeconds));
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8, rate * measureSeconds * 2);
+
+        // simulate long enough for the total number of fixes
+        Properties fleetOptions = new Properties();
+        fleetOptions.putAll(options);
+        int fleetSize = Integer.parseInt(options.getProperty("fleetSize", "1000"));
+        int reportInterval = Integer.parseInt(options.getProperty("reportInterval", "5"));
+        fleetOptions.setProperty("fleetSize", String.valueOf(fleetSize));
+        fleetOptions.setProperty("duration", String.valueOf(total * reportInterval / fleetSize + reportInterval));
+        SyntheticFleetProvider fleet = DataProvider.createSyntheticFleet(fleetOptions);
+
+        Properties producerProperties = new Properties();
+        producerProperties.put("bootstrap.servers", kafka.getKafkaConnectString());
+        producerProperties.put("acks", "1");
+        producerProperties.put("key.serializer", "org.apache.kafka.common.serialization.IntegerSerializer");
+        producerProperties.put("value.serializer", "at.ac.tuwien.aic.streamprocessing.model.serialization.TaxiEntrySerializer");
+        TaxiEntryKafkaProducer producer = new TaxiEntryKafkaProducer(TOPIC, producerProperties);
+
+        ReplayPacer pacer = new ReplayPacer(RateProfile.constant(rate));
+        LatencyProbe.Recording[] recording = new LatencyProbe.Recording[1];
+        long start = System.nanoTime();
+        try {
+            producer.produce(() -> fleet.getEntries().limit(total).peek(entry -> {
+                pacer.acquire();
+                if (recording[0] == null && System.nanoTime() - start >= warmupNanos) {
+                    recording[0] = LatencyProbe.startRecording(capacity);
+                }
+                LatencyProbe.sent(entry);
+            }));
+            pacer.finish();
+
+            if (recording[0] == null) {
+                throw new IllegalStateException("The fleet ended during the warmup");
+            }
+            recording[0].endLoad();
+            TimeUnit.SECONDS.sleep(DRAIN_SECONDS);
+        } finally {
+            producer.close();
+        }
+        return recording[0];
+    }
+
+    private static String report(String variant, LatencyProbe.Recording recording) {
+        long[] latencies = recording.getSortedLatencies();
+        if (latencies.length == 0) {
+            return String.format("%-8s no fixes processed", variant);
+        }
+        return String.format("%-8s p50 %9.2f ms, p99 %9.2f ms, max %9.2f ms, %,10.0f fixes/s (%d fixes)", variant, latencies[latencies.length / 2] / 1e6,
+                latencies[(int) (latencies.length * 0.99)] / 1e6, latencies[latencies.length - 1] / 1e6, recording.getThroughput(), latencies.length);
+    }
+}
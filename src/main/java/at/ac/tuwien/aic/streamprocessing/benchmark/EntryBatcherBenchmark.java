@@ -0,0 +1,95 @@
+package at.ac.tuwien.aic.streamprocessing.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.ac.tuwien.aic.streamprocessing.kafka.provider.EntryBatcher;
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
+
+/**
+ * Measures the throughput of building DataProvider batches from a dense time slice, i.e. batches in which all entries share one second.
+ *
+ * Every hundredth entry repeats the taxi of its predecessor, so the duplicate check has work to do. For comparison, the former linear scan over the
+ * batch is measured for the batch sizes up to LINEAR_SCAN_LIMIT, above that it takes minutes per batch.
+ *
+ * Usage: [<batch-size> ...], by default 10000, 100000 and 1000000.
+ */
+public class EntryBatcherBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(EntryBatcherBenchmark.class);
+
+    private static final LocalDateTime SECOND = Timestamp.parse("2008-02-02 13:30:46");
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int ITERATIONS = 10;
+    private static final int LINEAR_SCAN_LIMIT = 10000;
+
+    private static int blackhole;
+
+    public static void main(String[] args) {
+        int[] batchSizes = args.length == 0 ? new int[] { 10000, 100000, 1000000 } : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+
+        for (int batchSize : batchSizes) {
+            List<TaxiEntry> entries = createDenseSlice(batchSize);
+
+            report("hashed", batchSize, measure(() -> new EntryBatcher(entries.iterator()).nextBatch(SECOND).size()));
+            if (batchSize <= LINEAR_SCAN_LIMIT) {
+                report("linear scan", batchSize, measure(() -> linearScanBatch(entries).size()));
+            }
+        }
+
+        logger.debug("Blackhole: " + blackhole);
+    }
+
+    private static List<TaxiEntry> createDenseSlice(int size) {
+        List<TaxiEntry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int taxiId = i % 100 == 99 ? i - 1 : i;
+            entries.add(new TaxiEntry(taxiId, SECOND, 39.9 + i * 1e-7, 116.4 - i * 1e-7));
+        }
+        return entries;
+    }
+
+    private static long[] measure(BatchRun run) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            blackhole += run.batch();
+        }
+
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            blackhole += run.batch();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static void report(String variant, int batchSize, long[] sortedNanos) {
+        long median = sortedNanos[sortedNanos.length / 2];
+        logger.info(String.format("%-12s batch of %8d entries: median %10.3f ms, min %10.3f ms, %,14.0f entries/s", variant, batchSize, median / 1e6,
+                sortedNanos[0] / 1e6, batchSize * 1e9 / median));
+    }
+
+    private static List<TaxiEntry> linearScanBatch(List<TaxiEntry> slice) {
+        // batching as done before the EntryBatcher
+        List<TaxiEntry> entries = new ArrayList<>();
+        for (TaxiEntry entry : slice) {
+            long sameEntryCount = entries.stream().filter(e -> e.getTaxiId() == entry.getTaxiId()).filter(e -> e.getTimestamp().isEqual(entry.getTimestamp()))
+                    .count();
+            if (sameEntryCount == 0) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private interface BatchRun {
+        int batch();
+    }
+}
@@ -0,0 +1,120 @@
+package at.ac.tuwien.aic.streamprocessing.benchmark;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.storm.trident.operation.BaseFilter;
+import org.apache.storm.trident.tuple.TridentTuple;
+
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+
+/**
+ * Measures the time from handing a taxi entry to the producer until the topology passes its tuple through this filter. Only works in a local
+ * cluster, the send times are shared through a static map in the JVM.
+ *
+ * Entries are matched by taxi id and second, which is unique for the DataProvider and the synthetic fleet.
+ */
+public class LatencyProbe extends BaseFilter {
+    private static final Map<Long, Long> SENT = new ConcurrentHashMap<>();
+
+    private static volatile Recording recording;
+
+    /**
+     * Remembers the send time of the given entry.
+     */
+    public static void sent(TaxiEntry entry) {
+        SENT.put(key(entry.getTaxiId(), Timestamp.toEpochSecond(entry.getTimestamp())), System.nanoTime());
+    }
+
+    /**
+     * Starts recording the latencies of the entries sent from now on.
+     *
+     * @param capacity
+     *            the maximum number of latencies to keep
+     * @return the recording
+     */
+    public static Recording startRecording(int capacity) {
+        recording = new Recording(System.nanoTime(), capacity);
+        return recording;
+    }
+
+    /**
+     * Drops the send times and the recording, e.g. between two topologies measured in the same JVM.
+     */
+    public static void reset() {
+        recording = null;
+        SENT.clear();
+    }
+
+    @Override
+    public boolean isKeep(TridentTuple tuple) {
+        long now = System.nanoTime();
+        long epochSecond = TimestampMode.toEpochMillis(tuple.getValueByField("timestamp")) / 1000L;
+        Long sent = SENT.remove(key(tuple.getIntegerByField("id"), epochSecond));
+
+        Recording current = recording;
+        if (sent != null && current != null) {
+            current.record(sent, now);
+        }
+        return true;
+    }
+
+    private static long key(int taxiId, long epochSecond) {
+        return ((long) taxiId << 32) | (epochSecond & 0xffffffffL);
+    }
+
+    public static class Recording {
+        private final long start;
+        private volatile long end = Long.MAX_VALUE;
+
+        private final long[] latencies;
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicLong processedUntilEnd = new AtomicLong();
+
+        private Recording(long start, int capacity) {
+            this.start = start;
+            this.latencies = new long[capacity];
+        }
+
+        private void record(long sentNanos, long nowNanos) {
+            if (sentNanos < start) {
+                return;
+            }
+            if (nowNanos <= end) {
+                processedUntilEnd.incrementAndGet();
+            }
+            int index = count.getAndIncrement();
+            if (index < latencies.length) {
+                latencies[index] = nowNanos - sentNanos;
+            }
+        }
+
+        /**
+         * Marks the end of the load, entries processed afterwards still count for the latency but not for the throughput.
+         */
+        public void endLoad() {
+            end = System.nanoTime();
+        }
+
+        /**
+         * @return the entries per second processed between the start of the recording and the end of the load
+         */
+        public double getThroughput() {
+            return processedUntilEnd.get() * 1e9 / (end - start);
+        }
+
+        /**
+         * @return the recorded latencies in nanoseconds, sorted
+         */
+        public long[] getSortedLatencies() {
+            long[] sorted = Arrays.copyOf(latencies, Math.min(count.get(), latencies.length));
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package at.ac.tuwien.aic.streamprocessing.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.RedisEncoding;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.RedisLayout;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.RedisState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.averageSpeed.AverageSpeedState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.averageSpeed.AverageSpeedStateMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.distance.DistanceState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.distance.DistanceStateMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObject;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObjectMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed.SpeedState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed.SpeedStateMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.util.RedisConnectionPool;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.embedded.RedisServer;
+
+/**
+ * Measures reading and writing the speed states of a Trident batch against an embedded redis, as done by a state query and a partition persist.
+ *
+ * The RedisState in the STRING layout, which uses MGET and MSET, and in the HASH layout, which pipelines HMGET and HMSET, is compared with the former
+ * GET and SET per taxi. The commands per batch are taken from the total_commands_processed of the server, each command of the former access is one
+ * round trip, the commands run by a script are counted as well. MGET and MSET are measured with the binary encoding as well, and the opaque state with its Lua scripts. Finally the memory per taxi of the speed, average speed and distance states is compared for both layouts.
+ *
+ * Usage: [<batch-size> ...], by default 100, 1000 and 10000.
+ */
+public class RedisStateBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(RedisStateBenchmark.class);
+
+    private static final int PORT = 6390;
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int ITERATIONS = 20;
+    private static final int MEMORY_TAXIS = 10000;
+
+    private static int blackhole;
+
+    public static void main(String[] args) throws Exception {
+        int[] batchSizes = args.length == 0 ? new int[] { 100, 1000, 10000 } : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+
+        RedisServer server = RedisServer.builder().port(PORT).setting(RedisLayout.ZIPLIST_VALUE_SETTING).build();
+        server.start();
+        try (Jedis stats = new Jedis("localhost", PORT)) {
+            JedisPool pool = RedisConnectionPool.get("localhost", PORT, null);
+            RedisState<SpeedState> state = createState("speed", pool, new SpeedStateMapper(TimestampMode.EPOCH_MILLIS), RedisLayout.STRING);
+            RedisState<SpeedState> hashState = createState("speed", pool, new SpeedStateMapper(TimestampMode.EPOCH_MILLIS), RedisLayout.HASH);
+            RedisState<SpeedState> binaryState = new RedisState<>("binarySpeed", pool, new SpeedStateMapper(TimestampMode.EPOCH_MILLIS),
+                    RedisState.DEFAULT_CHUNK_SIZE, RedisLayout.STRING, RedisEncoding.BINARY);
+            RedisState<SpeedState> opaqueState = new RedisState<>("opaqueSpeed", pool, new SpeedStateMapper(TimestampMode.EPOCH_MILLIS),
+                    RedisState.DEFAULT_CHUNK_SIZE, RedisLayout.STRING, RedisEncoding.BINARY, true);
+            long[] txid = { 0 };
+
+            for (int batchSize : batchSizes) {
+                List<Integer> ids = ids(batchSize);
+                List<SpeedState> states = new ArrayList<>(batchSize);
+                for (int i = 0; i < batchSize; i++) {
+                    states.add(new SpeedState(1201959046000L + i, 39.9 + i * 1e-6, 116.4 - i * 1e-6, 42.0));
+                }
+                state.setAll(ids, states);
+                hashState.setAll(ids, states);
+                binaryState.setAll(ids, states);
+
+                report("per taxi", batchSize, measure(stats, () -> {
+                    perTaxiSetAll(state, ids, perTaxiGetAll(state, ids));
+                    return ids.size();
+                }));
+                report("mget/mset", batchSize, measure(stats, () -> {
+                    state.setAll(ids, state.getAll(ids));
+                    return ids.size();
+                }));
+                report("mget/mset binary", batchSize, measure(stats, () -> {
+                    binaryState.setAll(ids, binaryState.getAll(ids));
+                    return ids.size();
+                }));
+                report("opaque binary", batchSize, measure(stats, () -> {
+                    txid[0]++;
+                    List<SpeedState> read = opaqueState.getAll(ids, txid[0]);
+                    opaqueState.beginCommit(txid[0]);
+                    opaqueState.setAll(ids, read.contains(null) ? states : read);
+                    opaqueState.commit(txid[0]);
+                    return ids.size();
+                }));
+                report("hmget/hmset", batchSize, measure(stats, () -> {
+                    hashState.setAll(ids, hashState.getAll(ids));
+                    return ids.size();
+                }));
+            }
+
+            for (RedisLayout layout : RedisLayout.values()) {
+                stats.flushDB();
+                long before = usedMemory(stats);
+                List<Integer> ids = ids(MEMORY_TAXIS);
+                List<SpeedState> speeds = new ArrayList<>();
+                List<AverageSpeedState> averageSpeeds = new ArrayList<>();
+                List<DistanceState> distances = new ArrayList<>();
+                for (int i = 0; i < MEMORY_TAXIS; i++) {
+                    speeds.add(new SpeedState(1201959046000L + i, 39.9 + i * 1e-6, 116.4 - i * 1e-6, 42.0));
+                    averageSpeeds.add(new AverageSpeedState(i, 42.0 * i));
+                    distances.add(new DistanceState(39.9 + i * 1e-6, 116.4 - i * 1e-6, 0.1 * i));
+                }
+                createState("speed", pool, new SpeedStateMapper(TimestampMode.EPOCH_MILLIS), layout).setAll(ids, speeds);
+                createState("avgSpeed", pool, new AverageSpeedStateMapper(), layout).setAll(ids, averageSpeeds);
+                createState("distance", pool, new DistanceStateMapper(), layout).setAll(ids, distances);
+                logger.info(String.format("%-6s layout: %6.1f bytes per taxi for speed, average speed and distance", layout,
+                        (usedMemory(stats) - before) / (double) MEMORY_TAXIS));
+            }
+        } finally {
+            RedisConnectionPool.closeAll();
+            server.stop();
+        }
+
+        logger.debug("Blackhole: " + blackhole);
+        // the embedded redis leaves a non-daemon thread behind
+        System.exit(0);
+    }
+
+    private static <T extends StateObject> RedisState<T> createState(String type,
+            JedisPool pool, StateObjectMapper<T> mapper, RedisLayout layout) {
+        return new RedisState<>(type, pool, mapper, RedisState.DEFAULT_CHUNK_SIZE, layout);
+    }
+
+    private static List<Integer> ids(int count) {
+        List<Integer> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(i);
+        }
+        return ids;
+    }
+
+    private static long usedMemory(Jedis stats) {
+        return Long.parseLong(info(stats, "memory", "used_memory"));
+    }
+
+    private static Measurement measure(Jedis stats, BatchRun run) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            blackhole += run.batch();
+        }
+
+        long before = commandsProcessed(stats);
+        blackhole += run.batch();
+        // the INFO which read before is counted as well
+        long commands = commandsProcessed(stats) - before - 1;
+
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            blackhole += run.batch();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return new Measurement(nanos, commands);
+    }
+
+    private static long commandsProcessed(Jedis stats) {
+        return Long.parseLong(info(stats, "stats", "total_commands_processed"));
+    }
+
+    private static String info(Jedis stats, String section, String name) {
+        for (String line : stats.info(section).split("\r?\n")) {
+            if (line.startsWith(name + ":")) {
+                return line.substring(name.length() + 1).trim();
+            }
+        }
+        throw new IllegalStateException("redis did not report " + name);
+    }
+
+    private static void report(String variant, int batchSize, Measurement measurement) {
+        long median = measurement.sortedNanos[measurement.sortedNanos.length / 2];
+        logger.info(String.format("%-16s batch of %6d states: %6d commands, median %9.3f ms, min %9.3f ms, %,12.0f states/s", variant, batchSize,
+                measurement.commands, median / 1e6, measurement.sortedNanos[0] / 1e6, batchSize * 1e9 / median));
+    }
+
+    private static List<SpeedState> perTaxiGetAll(RedisState<SpeedState> state, List<Integer> ids) {
+        // reading as done before MGET
+        List<SpeedState> states = new ArrayList<>(ids.size());
+        try (Jedis jedis = new Jedis("localhost", PORT)) {
+            for (Integer id : ids) {
+                String value = jedis.get("tridentState:speed:" + id);
+                states.add(value == null ? null : state.getMapper().deserializeFromRedis(value));
+            }
+        }
+        return states;
+    }
+
+    private static void perTaxiSetAll(RedisState<SpeedState> state, List<Integer> ids, List<SpeedState> states) {
+        // writing as done before MSET
+        try (Jedis jedis = new Jedis("localhost", PORT)) {
+            for (int i = 0; i < ids.size(); i++) {
+                jedis.set("tridentState:speed:" + ids.get(i), state.getMapper().serializeToRedis(states.get(i)));
+            }
+        }
+    }
+
+    private static class Measurement {
+        private final long[] sortedNanos;
+        private final long commands;
+
+        Measurement(long[] sortedNanos, long commands) {
+            this.sortedNanos = sortedNanos;
+            this.commands = commands;
+        }
+    }
+
+    private interface BatchRun {
+        int batch();
+    }
+}
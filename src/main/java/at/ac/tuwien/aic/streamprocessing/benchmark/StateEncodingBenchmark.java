@@ -0,0 +1,104 @@
+package at.ac.tuwien.aic.streamprocessing.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.averageSpeed.AverageSpeedState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.averageSpeed.AverageSpeedStateMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.distance.DistanceState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.distance.DistanceStateMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObject;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObjectMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed.SpeedState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed.SpeedStateMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.taxi.TaxiState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.taxi.TaxiStateMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+import redis.clients.util.SafeEncoder;
+
+/**
+ * Measures serializing and deserializing the states of a batch in the string and in the binary redis encoding, without redis.
+ *
+ * The string encoding is measured including its UTF-8 conversion, as RedisState sends bytes in both encodings. The size is the mean size of a redis value.
+ *
+ * Usage: [<batch-size> ...], by default 10000 and 100000.
+ */
+public class StateEncodingBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(StateEncodingBenchmark.class);
+
+    private static final int WARMUP_ITERATIONS = 10;
+    private static final int ITERATIONS = 20;
+
+    private static int blackhole;
+
+    public static void main(String[] args) {
+        int[] batchSizes = args.length == 0 ? new int[] { 10000, 100000 } : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+
+        for (int batchSize : batchSizes) {
+            compare("speed", batchSize, new SpeedStateMapper(TimestampMode.EPOCH_MILLIS),
+                    i -> new SpeedState(1201959046000L + i, 39.9 + i * 1e-6, 116.4 - i * 1e-6, 42.0 + i * 1e-3));
+            compare("avgSpeed", batchSize, new AverageSpeedStateMapper(), i -> new AverageSpeedState(i, 42.0 * i + 0.5));
+            compare("distance", batchSize, new DistanceStateMapper(), i -> new DistanceState(39.9 + i * 1e-6, 116.4 - i * 1e-6, 0.1 * i));
+            compare("taxi", batchSize, new TaxiStateMapper(TimestampMode.EPOCH_MILLIS),
+                    i -> new TaxiState(1201959046000L + i, 39.9 + i * 1e-6, 116.4 - i * 1e-6, 42.0 + i * 1e-3, i, 42.0 * i + 0.5, 0.1 * i));
+        }
+
+        logger.debug("Blackhole: " + blackhole);
+    }
+
+    private static <T extends StateObject> void compare(String type, int batchSize, StateObjectMapper<T> mapper, IntFunction<T> state) {
+        List<T> states = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            states.add(state.apply(i));
+        }
+
+        report(type, "string", batchSize, states.stream().mapToInt(s -> SafeEncoder.encode(mapper.serializeToRedis(s)).length).average().getAsDouble(), measure(() -> {
+            int bytes = 0;
+            for (T s : states) {
+                byte[] value = SafeEncoder.encode(mapper.serializeToRedis(s));
+                bytes += value.length;
+                blackhole += mapper.deserializeFromRedis(SafeEncoder.encode(value)).hashCode();
+            }
+            return bytes;
+        }));
+        report(type, "binary", batchSize, states.stream().mapToInt(s -> mapper.serializeToBytes(s).length).average().getAsDouble(), measure(() -> {
+            int bytes = 0;
+            for (T s : states) {
+                byte[] value = mapper.serializeToBytes(s);
+                bytes += value.length;
+                blackhole += mapper.deserializeFromBytes(value).hashCode();
+            }
+            return bytes;
+        }));
+    }
+
+    private static long[] measure(BatchRun run) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            blackhole += run.batch();
+        }
+
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            blackhole += run.batch();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static void report(String type, String encoding, int batchSize, double valueBytes, long[] sortedNanos) {
+        long median = sortedNanos[sortedNanos.length / 2];
+        logger.info(String.format("%-8s %-6s batch of %7d states: %4.1f bytes, median %9.3f ms, min %9.3f ms, %,8.0f ns per round trip of a state", type,
+                encoding, batchSize, valueBytes, median / 1e6, sortedNanos[0] / 1e6, (double) median / batchSize));
+    }
+
+    private interface BatchRun {
+        int batch();
+    }
+}
@@ -10,6 +10,10 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import at.ac.tuwien.aic.streamprocessing.storm.trident.persist.InfoType;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.RedisLayout;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.averageSpeed.AverageSpeedState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.averageSpeed.AverageSpeedStateMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.distance.DistanceStateMapper;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
@@ -29,10 +33,16 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 import redis.clients.jedis.Jedis;
+import redis.clients.util.SafeEncoder;
 
 public class RedisMonitor extends Application {
     private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("#.##");
+    private static final DistanceStateMapper DISTANCE_MAPPER = new DistanceStateMapper();
+    private static final AverageSpeedStateMapper AVERAGE_SPEED_MAPPER = new AverageSpeedStateMapper();
     private static boolean isMonitorForOptimizedTopology = false;
+    private static RedisLayout layout = RedisLayout.STRING;
+    // the states of an opaque topology are hashes with the current state in curr
+    private static boolean opaque = false;
     private static final String REDIS_HOST = "localhost";
     private static final int REDIS_PORT = 6379;
     private static final int INTERVAL = 2000;
@@ -82,19 +92,27 @@ public class RedisMonitor extends Application {
     private List<Integer> getTaxiIds() {
         Set<Integer> ids = new HashSet<>();
 
-        for (String key : jedis.keys("*")) {
-            Integer id = null;
-            if (isKeyForOptimizedTopology(key)) {
-                id = Integer.parseInt(key.split(":")[2]);
-            } else if (isKeyForDefaultTopology(key)) {
-                id = Integer.parseInt(key.split("_")[0]);
-
+        if (layout == RedisLayout.HASH) {
+            for (String key : jedis.keys("tridentState:*")) {
+                if (key.split(":").length == 2) {
+                    jedis.hkeys(key).stream().map(this::getTaxiId).filter(id -> id != null).forEach(ids::add);
+                }
             }
+        } else {
+            for (String key : jedis.keys("*")) {
+                Integer id = null;
+                if (isKeyForOptimizedTopology(key)) {
+                    id = Integer.parseInt(key.split(":")[2]);
+                } else if (isKeyForDefaultTopology(key)) {
+                    id = Integer.parseInt(key.split("_")[0]);
 
-            if (id != null) {
-                ids.add(id);
-            }
+                }
 
+                if (id != null) {
+                    ids.add(id);
+                }
+
+            }
         }
 
         List<Integer> sortedIds = new ArrayList<>(ids);
@@ -103,6 +121,15 @@ public class RedisMonitor extends Application {
         return sortedIds;
     }
 
+    private Integer getTaxiId(String field) {
+        if (isMonitorForOptimizedTopology && (field.startsWith("distance:") || field.startsWith("avgSpeed:"))) {
+            return Integer.parseInt(field.split(":")[1]);
+        } else if (isKeyForDefaultTopology(field)) {
+            return Integer.parseInt(field.split("_")[0]);
+        }
+        return null;
+    }
+
     private boolean isKeyForOptimizedTopology(String key) {
         return isMonitorForOptimizedTopology && (key.startsWith("tridentState:distance:") || key.startsWith("tridentState:avgSpeed:"));
 
@@ -116,10 +143,30 @@ public class RedisMonitor extends Application {
         String distance, averageSpeed;
         if (isMonitorForOptimizedTopology) {
 
-            distance = jedis.get("tridentState:distance:" + id).split(",")[2];
-            String avgSpeedState = jedis.get("tridentState:avgSpeed:" + id);
-            averageSpeed = Double.toString(Double.valueOf(avgSpeedState.split(",")[1]) / Integer.valueOf(avgSpeedState.split(",")[0]));
-
+            // read as bytes, the mappers decode the string and the binary encoding
+            byte[] distanceState, avgSpeedState;
+            if (layout == RedisLayout.HASH) {
+                // one call for both states of the taxi
+                List<byte[]> states = jedis.hmget(SafeEncoder.encode(RedisLayout.hashKey(id)), SafeEncoder.encode(RedisLayout.stateField("distance", id)),
+                        SafeEncoder.encode(RedisLayout.stateField("avgSpeed", id)));
+                distanceState = states.get(0);
+                avgSpeedState = states.get(1);
+            } else if (opaque) {
+                distanceState = jedis.hget(SafeEncoder.encode(RedisLayout.stateKey("distance", id)), SafeEncoder.encode("curr"));
+                avgSpeedState = jedis.hget(SafeEncoder.encode(RedisLayout.stateKey("avgSpeed", id)), SafeEncoder.encode("curr"));
+            } else {
+                distanceState = jedis.get(SafeEncoder.encode(RedisLayout.stateKey("distance", id)));
+                avgSpeedState = jedis.get(SafeEncoder.encode(RedisLayout.stateKey("avgSpeed", id)));
+            }
+            distance = DISTANCE_MAPPER.deserializeFromBytes(distanceState).getDistance().toString();
+            AverageSpeedState avgSpeed = AVERAGE_SPEED_MAPPER.deserializeFromBytes(avgSpeedState);
+            averageSpeed = Double.toString(avgSpeed.getSpeedSum() / avgSpeed.getObservations());
+
+        } else if (layout == RedisLayout.HASH) {
+            List<String> information = jedis.hmget(RedisLayout.hashKey(id), RedisLayout.informationName(InfoType.DISTANCE.getKeyPrefix(), id),
+                    RedisLayout.informationName(InfoType.AVERAGE_SPEED.getKeyPrefix(), id));
+            distance = information.get(0);
+            averageSpeed = information.get(1);
         } else {
             distance = jedis.get(id.toString() + InfoType.DISTANCE.getKeyPrefix());
             averageSpeed = jedis.get(id.toString() + InfoType.AVERAGE_SPEED.getKeyPrefix());
@@ -148,7 +195,15 @@ public class RedisMonitor extends Application {
     }
 
     public static void main(String[] args) {
-        isMonitorForOptimizedTopology = (args.length == 1 && args[0].equals("true"));
+        for (String arg : args) {
+            if (arg.equals("true")) {
+                isMonitorForOptimizedTopology = true;
+            } else if (arg.startsWith("layout=")) {
+                layout = RedisLayout.valueOf(arg.substring("layout=".length()).toUpperCase());
+            } else if (arg.equals("opaque")) {
+                opaque = true;
+            }
+        }
         System.out.println(isMonitorForOptimizedTopology);
         launch(args);
     }
@@ -0,0 +1,135 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.producer;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends records asynchronously through a kafka producer, completing them in a callback which updates the {@link ProducerMetrics}.
+ *
+ * At most maxInFlight records are sent but not yet completed, further sends block until earlier records complete. This applies backpressure to the
+ * caller before the producer's buffer fills up, and bounds the records which are lost if the process dies. The metrics are logged every
+ * REPORT_INTERVAL_SECONDS while records are sent.
+ */
+public class InstrumentedSender<K, V> {
+    private final Logger logger = LoggerFactory.getLogger(InstrumentedSender.class);
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 10000;
+
+    private static final long REPORT_INTERVAL_SECONDS = 5;
+
+    private final Producer<K, V> producer;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final ProducerMetrics metrics = new ProducerMetrics();
+    private final AtomicBoolean errorLogged = new AtomicBoolean();
+
+    private final ScheduledExecutorService reporter;
+    private long reportedRecords;
+    private long reportedBytes;
+    private long reportedErrors;
+    private long reportedLatencyNanos;
+
+    /**
+     * Instantiates a new InstrumentedSender.
+     *
+     * @param producer
+     *            the producer to send the records with, closed together with this sender
+     * @param maxInFlight
+     *            the maximum number of records which are sent but not completed
+     */
+    public InstrumentedSender(Producer<K, V> producer, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("At least one record must be allowed in flight");
+        }
+
+        this.producer = producer;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+
+        this.reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "producer-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(this::report, REPORT_INTERVAL_SECONDS, REPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Sends the given record, blocking while the maximum number of records is in flight.
+     *
+     * @param record
+     *            the record
+     */
+    public void send(ProducerRecord<K, V> record) {
+        inFlight.acquireUninterruptibly();
+
+        long start = System.nanoTime();
+        try {
+            producer.send(record, (metadata, exception) -> {
+                long latency = System.nanoTime() - start;
+                inFlight.release();
+
+                if (exception == null) {
+                    metrics.recordSuccess(latency, Math.max(0, metadata.serializedKeySize()) + Math.max(0, metadata.serializedValueSize()));
+                } else {
+                    metrics.recordError(latency);
+                    if (errorLogged.compareAndSet(false, true)) {
+                        logger.error("Failed to send record, further failures are only counted", exception);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // the callback is not invoked if send fails synchronously, e.g. on serialization errors
+            inFlight.release();
+            metrics.recordError(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    public ProducerMetrics getMetrics() {
+        return metrics;
+    }
+
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    /**
+     * Closes the producer, which completes all records in flight, and logs the total metrics.
+     */
+    public void close() {
+        producer.close();
+        reporter.shutdownNow();
+        logger.info("Producer closed after " + metrics);
+    }
+
+    private synchronized void report() {
+        long records = metrics.getRecords();
+        long bytes = metrics.getBytes();
+        long errors = metrics.getErrors();
+        long latencyNanos = metrics.getLatencyNanos();
+
+        long completed = records - reportedRecords + errors - reportedErrors;
+        if (completed == 0 && getInFlight() == 0) {
+            return;
+        }
+
+        logger.info(String.format("%.1f records/s, %.1f KB/s, %d errors, latency mean %.3f ms, max %.3f ms, %d in flight",
+                (double) (records - reportedRecords) / REPORT_INTERVAL_SECONDS, (bytes - reportedBytes) / 1024.0 / REPORT_INTERVAL_SECONDS,
+                errors - reportedErrors, completed == 0 ? 0 : (latencyNanos - reportedLatencyNanos) / 1e6 / completed, metrics.getMaxLatencyNanos() / 1e6,
+                getInFlight()));
+
+        reportedRecords = records;
+        reportedBytes = bytes;
+        reportedErrors = errors;
+        reportedLatencyNanos = latencyNanos;
+    }
+}
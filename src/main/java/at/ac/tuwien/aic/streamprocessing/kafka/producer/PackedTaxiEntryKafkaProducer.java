@@ -0,0 +1,124 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.producer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.IntegerSerializer;
+import org.apache.kafka.common.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.ac.tuwien.aic.streamprocessing.kafka.provider.TaxiEntryProvider;
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+import at.ac.tuwien.aic.streamprocessing.model.serialization.TaxiEntryPackSerializer;
+
+/**
+ * Producer which packs the taxi entries destined for the same partition into records of up to maxEntriesPerRecord entries.
+ *
+ * Entries are assigned to the partition the configured partitioner would choose for their taxi id, the {@link TaxiIdPartitioner} or otherwise the default
+ * kafka partitioner, so each taxi still ends up in exactly one partition.
+ */
+public class PackedTaxiEntryKafkaProducer implements TaxiEntryProducer {
+    private final Logger logger = LoggerFactory.getLogger(PackedTaxiEntryKafkaProducer.class);
+
+    private final String topic;
+    private final int maxEntriesPerRecord;
+    private final KafkaProducer<Integer, List<TaxiEntry>> producer;
+    private final InstrumentedSender<Integer, List<TaxiEntry>> sender;
+    private final IntegerSerializer keySerializer = new IntegerSerializer();
+    private final boolean taxiIdPartitioner;
+
+    /**
+     * Instantiates a new PackedTaxiEntryKafkaProducer.
+     *
+     * @param topic
+     *            the topic into which the records should be produced.
+     * @param kafkaProperties
+     *            the kafka properties describing the broker, configured serializers are ignored.
+     * @param maxEntriesPerRecord
+     *            the maximum number of entries packed into one record.
+     */
+    public PackedTaxiEntryKafkaProducer(String topic, Properties kafkaProperties, int maxEntriesPerRecord) {
+        this(topic, kafkaProperties, maxEntriesPerRecord, InstrumentedSender.DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Instantiates a new PackedTaxiEntryKafkaProducer.
+     *
+     * @param topic
+     *            the topic into which the records should be produced.
+     * @param kafkaProperties
+     *            the kafka properties describing the broker, configured serializers are ignored.
+     * @param maxEntriesPerRecord
+     *            the maximum number of entries packed into one record.
+     * @param maxInFlight
+     *            the maximum number of records which are sent but not acknowledged.
+     */
+    public PackedTaxiEntryKafkaProducer(String topic, Properties kafkaProperties, int maxEntriesPerRecord, int maxInFlight) {
+        if (maxEntriesPerRecord <= 0) {
+            throw new IllegalArgumentException("A record must hold at least one entry");
+        }
+
+        this.topic = topic;
+        this.maxEntriesPerRecord = maxEntriesPerRecord;
+        this.producer = new KafkaProducer<>(kafkaProperties, new IntegerSerializer(), new TaxiEntryPackSerializer());
+        this.sender = new InstrumentedSender<>(producer, maxInFlight);
+        this.taxiIdPartitioner = TaxiIdPartitioner.class.getName().equals(kafkaProperties.getProperty(ProducerConfig.PARTITIONER_CLASS_CONFIG));
+    }
+
+    @Override
+    public void close() {
+        sender.close();
+    }
+
+    @Override
+    public ProducerMetrics getMetrics() {
+        return sender.getMetrics();
+    }
+
+    /**
+     * Produce the entries supplied by the given provider, packed per partition. The order of the entries within a partition is kept.
+     *
+     * @param provider
+     *            the provider supplying the taxi entries.
+     */
+    @Override
+    public void produce(TaxiEntryProvider provider) {
+        int partitions = producer.partitionsFor(topic).size();
+        Map<Integer, List<TaxiEntry>> packs = new HashMap<>();
+
+        provider.getEntries().forEach(entry -> {
+            int partition = partitionOf(entry.getTaxiId(), partitions);
+            List<TaxiEntry> pack = packs.computeIfAbsent(partition, p -> new ArrayList<>());
+            pack.add(entry);
+
+            if (pack.size() >= maxEntriesPerRecord) {
+                send(partition, pack);
+                packs.remove(partition);
+            }
+        });
+
+        packs.forEach(this::send);
+    }
+
+    private void send(int partition, List<TaxiEntry> pack) {
+        logger.debug("Produce pack of " + pack.size() + " entries into partition " + partition);
+        sender.send(new ProducerRecord<>(topic, partition, null, pack));
+    }
+
+    private int partitionOf(int taxiId, int partitions) {
+        if (taxiIdPartitioner) {
+            return TaxiIdPartitioner.partitionOf(taxiId, partitions);
+        }
+
+        // same as the DefaultPartitioner for records keyed by taxi id
+        byte[] keyBytes = keySerializer.serialize(topic, taxiId);
+        return Utils.toPositive(Utils.murmur2(keyBytes)) % partitions;
+    }
+}
@@ -0,0 +1,79 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.producer;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a producer, updated from the send callbacks of the kafka I/O thread and read by reporters.
+ *
+ * The latency of a record is the time from handing it to the kafka producer until it was acknowledged or failed.
+ */
+public class ProducerMetrics {
+    private final LongAdder records = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Long::max, 0);
+
+    void recordSuccess(long latencyNanos, long bytes) {
+        this.records.increment();
+        this.bytes.add(bytes);
+        record(latencyNanos);
+    }
+
+    void recordError(long latencyNanos) {
+        this.errors.increment();
+        record(latencyNanos);
+    }
+
+    private void record(long latencyNanos) {
+        this.latencyNanos.add(latencyNanos);
+        this.maxLatencyNanos.accumulate(latencyNanos);
+    }
+
+    /**
+     * @return the number of acknowledged records
+     */
+    public long getRecords() {
+        return records.sum();
+    }
+
+    /**
+     * @return the serialized size of the keys and values of the acknowledged records
+     */
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * @return the number of records which could not be sent
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * @return the sum of the latencies of all completed records
+     */
+    public long getLatencyNanos() {
+        return latencyNanos.sum();
+    }
+
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos.get();
+    }
+
+    /**
+     * @return the mean latency of all completed records
+     */
+    public double getMeanLatencyMillis() {
+        long completed = getRecords() + getErrors();
+        return completed == 0 ? 0 : getLatencyNanos() / 1e6 / completed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d records, %d bytes, %d errors, latency mean %.3f ms, max %.3f ms", getRecords(), getBytes(), getErrors(), getMeanLatencyMillis(),
+                getMaxLatencyNanos() / 1e6);
+    }
+}
@@ -11,13 +11,13 @@ import at.ac.tuwien.aic.streamprocessing.kafka.provider.TaxiEntryProvider;
 import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
 
 /**
- * Producer which supplies records of taxi entries into a given kafka topic.
+ * Producer which supplies records of taxi entries into a given kafka topic. Records are sent asynchronously through an {@link InstrumentedSender}.
  */
-public class TaxiEntryKafkaProducer {
+public class TaxiEntryKafkaProducer implements TaxiEntryProducer {
     private final Logger logger = LoggerFactory.getLogger(TaxiEntryKafkaProducer.class);
 
     private String topic;
-    private KafkaProducer<Integer, TaxiEntry> producer;
+    private InstrumentedSender<Integer, TaxiEntry> sender;
 
     /**
      * Instantiates a new TaxiEntryKafkaProducer.
@@ -28,15 +28,35 @@ public class TaxiEntryKafkaProducer {
      *            the kafka properties describing the broker.
      */
     public TaxiEntryKafkaProducer(String topic, Properties kafkaProperties) {
+        this(topic, kafkaProperties, InstrumentedSender.DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Instantiates a new TaxiEntryKafkaProducer.
+     *
+     * @param topic
+     *            the topic into which the records should be produced.
+     * @param kafkaProperties
+     *            the kafka properties describing the broker.
+     * @param maxInFlight
+     *            the maximum number of records which are sent but not acknowledged.
+     */
+    public TaxiEntryKafkaProducer(String topic, Properties kafkaProperties, int maxInFlight) {
         this.topic = topic;
-        this.producer = new KafkaProducer<>(kafkaProperties);
+        this.sender = new InstrumentedSender<>(new KafkaProducer<>(kafkaProperties), maxInFlight);
     }
 
     /**
      * Close the kafka producer.
      */
+    @Override
     public void close() {
-        producer.close();
+        sender.close();
+    }
+
+    @Override
+    public ProducerMetrics getMetrics() {
+        return sender.getMetrics();
     }
 
     /**
@@ -45,11 +65,12 @@ public class TaxiEntryKafkaProducer {
      * @param provider
      *            the provider supplying the taxi entries.
      */
+    @Override
     public void produce(TaxiEntryProvider provider) {
         provider.getEntries().forEach(entry -> {
             logger.debug("Produce " + entry.toString());
             ProducerRecord<Integer, TaxiEntry> record = new ProducerRecord<>(topic, entry.getTaxiId(), entry);
-            producer.send(record);
+            sender.send(record);
         });
     }
 }
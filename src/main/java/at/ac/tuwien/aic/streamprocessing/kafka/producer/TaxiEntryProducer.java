@@ -0,0 +1,29 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.producer;
+
+import at.ac.tuwien.aic.streamprocessing.kafka.provider.TaxiEntryProvider;
+
+/**
+ * Interface for producers which supply taxi entries into a kafka topic.
+ */
+public interface TaxiEntryProducer {
+
+    /**
+     * Produce the taxi entries supplied by the given provider.
+     *
+     * @param provider
+     *            the provider supplying the taxi entries.
+     */
+    void produce(TaxiEntryProvider provider);
+
+    /**
+     * Gets the counters of the records sent so far.
+     *
+     * @return the metrics of this producer
+     */
+    ProducerMetrics getMetrics();
+
+    /**
+     * Close the kafka producer.
+     */
+    void close();
+}
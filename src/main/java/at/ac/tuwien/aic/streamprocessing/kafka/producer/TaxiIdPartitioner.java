@@ -0,0 +1,47 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.producer;
+
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+
+/**
+ * Partitioner for records keyed by taxi id which assigns each taxi to the partition matching the task a Trident fields grouping on the id would choose.
+ *
+ * Storm's fields grouping sends a tuple to task floorMod(31 + id, tasks), the hash of the single element list [id]. The kafka spout hands partition p to
+ * spout task p % tasks. With as many spout tasks as partitions, every taxi thus already is at the task which partitionBy(id) would send it to, and the
+ * topology can skip the repartition (see the "aligned" topology option).
+ */
+public class TaxiIdPartitioner implements Partitioner {
+
+    /**
+     * Gets the partition of the given taxi.
+     *
+     * @param taxiId
+     *            the taxi id
+     * @param partitions
+     *            the number of partitions of the topic
+     * @return the partition, equal to the task index of a fields grouping on the id over as many tasks
+     */
+    public static int partitionOf(int taxiId, int partitions) {
+        return Math.floorMod(31 + taxiId, partitions);
+    }
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes, Cluster cluster) {
+        if (!(key instanceof Integer)) {
+            throw new IllegalArgumentException("Records must be keyed by their Integer taxi id, got " + key);
+        }
+        return partitionOf((Integer) key, cluster.partitionsForTopic(topic).size());
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+
+    }
+
+    @Override
+    public void close() {
+
+    }
+}
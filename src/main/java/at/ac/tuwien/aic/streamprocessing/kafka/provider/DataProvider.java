@@ -4,12 +4,22 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.stream.StreamSupport;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
@@ -18,54 +28,156 @@ import org.apache.storm.utils.Time;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import at.ac.tuwien.aic.streamprocessing.kafka.producer.InstrumentedSender;
+import at.ac.tuwien.aic.streamprocessing.kafka.producer.PackedTaxiEntryKafkaProducer;
 import at.ac.tuwien.aic.streamprocessing.kafka.producer.TaxiEntryKafkaProducer;
+import at.ac.tuwien.aic.streamprocessing.kafka.producer.TaxiEntryProducer;
+import at.ac.tuwien.aic.streamprocessing.kafka.producer.TaxiIdPartitioner;
 import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
 import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
 
 /**
- * Data Provider provides data to Kafka (i.e. TaxiEntry objects) by parsing a CSV file containing sorted entries by timestamp
+ * Data Provider provides data to Kafka (i.e. TaxiEntry objects) by parsing a CSV file containing sorted entries by timestamp, or a directory of raw per-taxi
+ * files which are merged by {@link TaxiDirectoryMerger}, or a simulated fleet
  */
 public class DataProvider {
     private static final Logger logger = LoggerFactory.getLogger(DataProvider.class);
 
-    private static final LocalDateTime REFERENCE_START_TIME = Timestamp.parse("2008-02-02 13:30:45");
+    static final LocalDateTime REFERENCE_START_TIME = Timestamp.parse("2008-02-02 13:30:45");
 
     private static final int KAFKA_PORT = 9092;
     private static final String KAFKA_URI = "localhost:" + KAFKA_PORT;
 
+    public static final String SYNTHETIC_INPUT = "synthetic";
+
+    private static final String DEFAULT_PACK_SIZE = "500";
+    private static final String DEFAULT_MAX_IN_FLIGHT = String.valueOf(InstrumentedSender.DEFAULT_MAX_IN_FLIGHT);
+
     private String topic;
     private int speedFactor;
+    private Properties options;
 
     public DataProvider(String topic, int speedFactor) {
+        this(topic, speedFactor, new Properties());
+    }
+
+    /**
+     * Instantiates a new DataProvider.
+     *
+     * @param topic
+     *            the topic into which the entries are produced
+     * @param speedFactor
+     *            the factor by which the waiting time between two batches is divided
+     * @param options
+     *            additional options, e.g. format=binary to produce the fixed-width binary record format or format=packed (with packSize=n) to pack up to n
+     *            entries into one record, reader=mmap to parse the file through a {@link MappedCsvReader} or threads=n to parse a directory of per-taxi
+     *            files with n threads. rate=profile replays at the target rate of a {@link RateProfile} instead of the speed factor. batchSize,
+     *            lingerMs and compression set the kafka producer's batch.size, linger.ms and compression.type, maxInFlight bounds the records which
+     *            are sent but not acknowledged. If the input is "synthetic", fleetSize, duration, reportInterval, speedingRatio, violationRatio,
+     *            movement and seed configure the {@link SyntheticFleetProvider}. partitioner=taxiId assigns the taxis to partitions with the
+     *            {@link TaxiIdPartitioner}. If the input is a {@link ReplayFile}, from=yyyy-MM-dd HH:mm:ss starts the replay at the given time and
+     *            taxis=1-100,205 restricts it to the given taxis.
+     */
+    public DataProvider(String topic, int speedFactor, Properties options) {
         this.speedFactor = speedFactor;
         this.topic = topic;
+        this.options = options;
     }
 
-    private void provide(Reader reader) {
-        Properties producerProperties = createProducerProperties();
-        TaxiEntryKafkaProducer producer = new TaxiEntryKafkaProducer(topic, producerProperties);
+    private void provide(String filePath) throws IOException {
+        LocalDateTime start = options.containsKey("from") ? parseFrom(options) : REFERENCE_START_TIME;
+        readEntries(filePath, options, entries -> provide(entries, start));
+    }
+
+    /**
+     * Opens the given input and passes its entries to the consumer, closing the input afterwards.
+     *
+     * @param filePath
+     *            a CSV file, a {@link ReplayFile}, a directory of per-taxi files or "synthetic"
+     * @param options
+     *            the options describing how to read the input
+     * @param consumer
+     *            the consumer of the entries, which must not keep the iterator
+     * @throws IOException
+     *             if the input could not be read
+     */
+    static void readEntries(String filePath, Properties options, Consumer<Iterator<TaxiEntry>> consumer) throws IOException {
+        if (filePath.equals(SYNTHETIC_INPUT)) {
+            SyntheticFleetProvider fleet = createSyntheticFleet(options);
+            logger.info("Simulating " + fleet);
+            consumer.accept(fleet.getEntries().iterator());
+            return;
+        }
+
+        Path path = Paths.get(filePath);
+        if (Files.isDirectory(path)) {
+            int threads = Integer.parseInt(options.getProperty("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+            consumer.accept(new TaxiDirectoryMerger(path, threads).merge());
+        } else if (ReplayFile.isReplayFile(path)) {
+            try (ReplayFile replay = ReplayFile.open(path)) {
+                long from = options.containsKey("from") ? replay.seek(Timestamp.toEpochSecond(parseFrom(options))) : 0;
+                IntPredicate taxis = options.containsKey("taxis") ? parseTaxis(options.getProperty("taxis")) : taxiId -> true;
+                logger.info("Replaying " + replay.getRecordCount() + " records from record " + from);
+                consumer.accept(replay.entries(from, taxis));
+            }
+        } else if (options.getProperty("reader", "csv").equals("mmap")) {
+            try (MappedCsvReader reader = new MappedCsvReader(path)) {
+                consumer.accept(reader.entries());
+            }
+        } else {
+            try (Reader reader = new FileReader(filePath)) {
+                CSVParser csv = CSVFormat.EXCEL.parse(reader);
+                consumer.accept(StreamSupport.stream(csv.spliterator(), false).map(DataProvider::parseCsvRecord).filter(Objects::nonNull).iterator());
+            }
+        }
+    }
+
+    private static LocalDateTime parseFrom(Properties options) {
+        // also accept the ISO form, which needs no quoting on the command line
+        return Timestamp.parse(options.getProperty("from").replace('T', ' '));
+    }
+
+    static IntPredicate parseTaxis(String taxis) {
+        // comma separated ids and ranges, e.g. 1-100,205
+        BitSet ids = new BitSet();
+        for (String part : taxis.split(",")) {
+            String[] range = part.trim().split("-", 2);
+            int first = Integer.parseInt(range[0].trim());
+            int last = range.length == 2 ? Integer.parseInt(range[1].trim()) : first;
+            ids.set(first, last + 1);
+        }
+        return taxiId -> taxiId >= 0 && ids.get(taxiId);
+    }
+
+    private void provide(Iterator<TaxiEntry> entryIterator, LocalDateTime start) {
+        TaxiEntryProducer producer = createProducer();
+        ReplayPacer pacer = options.containsKey("rate") ? new ReplayPacer(RateProfile.parse(options.getProperty("rate"))) : null;
 
         try {
-            CSVParser csv = CSVFormat.EXCEL.parse(reader);
+            EntryBatcher batcher = new EntryBatcher(entryIterator);
 
-            LocalDateTime currentBatchStart = REFERENCE_START_TIME;
+            LocalDateTime currentBatchStart = start;
             LocalDateTime nextBatchStart;
-            TaxiEntry last = null;
 
-            Iterator<CSVRecord> recordIterator = csv.iterator();
+            while (batcher.hasNext()) {
+                List<TaxiEntry> batch = batcher.nextBatch(currentBatchStart);
+
+                if (pacer != null) {
+                    // the producer pulls the entries one by one, each is released by the pacer
+                    producer.produce(() -> batch.stream().peek(entry -> pacer.acquire()));
+                    currentBatchStart = batcher.peek() != null ? batcher.peek().getTimestamp() : currentBatchStart;
+                    continue;
+                }
 
-            while (recordIterator.hasNext()) {
-                Batch batch = getNextBatch(recordIterator, last, currentBatchStart);
-                producer.produce(batch.entries::stream);
+                producer.produce(batch::stream);
 
-                if (batch.last != null) {
-                    nextBatchStart = batch.last.getTimestamp();
+                if (batcher.peek() != null) {
+                    nextBatchStart = batcher.peek().getTimestamp();
 
                     // compute wait time between now and next entry
                     long seconds = ChronoUnit.SECONDS.between(currentBatchStart, nextBatchStart);
 
                     currentBatchStart = nextBatchStart;
-                    last = batch.last;
 
                     // simulate waiting for next entry
                     try {
@@ -75,52 +187,45 @@ public class DataProvider {
                     }
                 }
             }
-        } catch (IOException e) {
+        } catch (UncheckedIOException e) {
             logger.error("Filed reading the file!", e);
         } finally {
+            if (pacer != null) {
+                pacer.finish();
+            }
             logger.debug("Closing producer...");
             producer.close();
             logger.debug("Producer closed");
         }
     }
 
-    private Batch getNextBatch(Iterator<CSVRecord> recordIterator, TaxiEntry startEntry, LocalDateTime until) {
-        List<TaxiEntry> entries = new ArrayList<>();
-
-        if (startEntry != null) {
-            entries.add(startEntry);
+    /**
+     * Creates the synthetic fleet described by the options fleetSize, duration, reportInterval, speedingRatio, violationRatio, movement and seed.
+     *
+     * @param options
+     *            the options, missing ones keep their defaults
+     * @return the fleet
+     */
+    public static SyntheticFleetProvider createSyntheticFleet(Properties options) {
+        SyntheticFleetProvider fleet = new SyntheticFleetProvider(Integer.parseInt(options.getProperty("fleetSize", "10000")),
+                Long.parseLong(options.getProperty("duration", "3600")));
+        fleet.withReportInterval(Integer.parseInt(options.getProperty("reportInterval", "5")));
+        if (options.containsKey("speedingRatio")) {
+            fleet.withSpeedingRatio(Double.parseDouble(options.getProperty("speedingRatio")));
         }
-
-        while (recordIterator.hasNext()) {
-            CSVRecord record = recordIterator.next();
-            TaxiEntry entry = parseCsvRecord(record);
-
-            if (entry == null) {
-                // malformed record, ignore
-                continue;
-            }
-
-            if (entry.getTimestamp().isAfter(until)) {
-                // found end of current batch
-                return new Batch(entries, entry);
-            }
-
-            long sameEntryCount = entries.stream().filter(e -> e.getTaxiId() == entry.getTaxiId()).filter(e -> e.getTimestamp().isEqual(entry.getTimestamp()))
-                    .count();
-
-            if (sameEntryCount == 0) {
-                entries.add(entry);
-            } else {
-                // duplicate entries for one taxi at the same moment
-                // disregard it as it will computing meaningful values impossible
-                logger.debug("Filtered same-time entry for taxi " + entry.getTaxiId() + ": " + entry.toString());
-            }
+        if (options.containsKey("violationRatio")) {
+            fleet.withViolationRatio(Double.parseDouble(options.getProperty("violationRatio")));
         }
-
-        return new Batch(entries, null);
+        if (options.containsKey("movement")) {
+            fleet.withMovement(SyntheticFleetProvider.Movement.valueOf(options.getProperty("movement").toUpperCase()));
+        }
+        if (options.containsKey("seed")) {
+            fleet.withSeed(Long.parseLong(options.getProperty("seed")));
+        }
+        return fleet;
     }
 
-    private TaxiEntry parseCsvRecord(CSVRecord record) {
+    private static TaxiEntry parseCsvRecord(CSVRecord record) {
         try {
             Integer taxiId = Integer.parseInt(record.get(0));
             LocalDateTime timestamp = Timestamp.parse(record.get(1));
@@ -134,47 +239,98 @@ public class DataProvider {
         }
     }
 
+    private TaxiEntryProducer createProducer() {
+        Properties producerProperties = createProducerProperties();
+        int maxInFlight = Integer.parseInt(options.getProperty("maxInFlight", DEFAULT_MAX_IN_FLIGHT));
+        if (options.getProperty("format", "java").equals("packed")) {
+            int packSize = Integer.parseInt(options.getProperty("packSize", DEFAULT_PACK_SIZE));
+            return new PackedTaxiEntryKafkaProducer(topic, producerProperties, packSize, maxInFlight);
+        }
+        return new TaxiEntryKafkaProducer(topic, producerProperties, maxInFlight);
+    }
+
     private Properties createProducerProperties() {
         Properties producerProperties = new Properties();
         producerProperties.put("bootstrap.servers", KAFKA_URI);
         producerProperties.put("acks", "1");
         producerProperties.put("key.serializer", "org.apache.kafka.common.serialization.IntegerSerializer");
-        producerProperties.put("value.serializer", "at.ac.tuwien.aic.streamprocessing.model.serialization.TaxiEntrySerializer");
+        if (options.getProperty("format", "java").equals("binary")) {
+            producerProperties.put("value.serializer", "at.ac.tuwien.aic.streamprocessing.model.serialization.TaxiEntryBinarySerializer");
+        } else {
+            producerProperties.put("value.serializer", "at.ac.tuwien.aic.streamprocessing.model.serialization.TaxiEntrySerializer");
+        }
+
+        if (options.getProperty("partitioner", "default").equals("taxiId")) {
+            producerProperties.put("partitioner.class", TaxiIdPartitioner.class.getName());
+        }
+
+        // batching and compression, kafka's defaults apply if not given
+        copyOption("batchSize", producerProperties, "batch.size");
+        copyOption("lingerMs", producerProperties, "linger.ms");
+        copyOption("compression", producerProperties, "compression.type");
         return producerProperties;
     }
 
-    private static class Batch {
-        List<TaxiEntry> entries;
-        TaxiEntry last;
+    private void copyOption(String option, Properties producerProperties, String property) {
+        if (options.containsKey(option)) {
+            producerProperties.put(property, options.getProperty(option));
+        }
+    }
 
-        Batch(List<TaxiEntry> entries, TaxiEntry last) {
-            this.entries = entries;
-            this.last = last;
+    static Properties parseOptions(String[] args, int offset) {
+        Properties options = new Properties();
+        for (int i = offset; i < args.length; i++) {
+            String[] option = args[i].split("=", 2);
+            if (option.length != 2) {
+                logger.warn("Ignoring malformed option '" + args[i] + "', expected <name>=<value>");
+                continue;
+            }
+            options.setProperty(option[0], option[1]);
         }
+        return options;
     }
 
     public static void main(String[] args) throws Exception {
         if (args.length < 3) {
-            logger.error("USAGE: <absolute-path-of-input-data> <topic-name> <speed-factor-to-divide-seconds>");
+            logger.error("USAGE: <absolute-path-of-input-data-file-or-directory>|synthetic <topic-name> <speed-factor-to-divide-seconds> [<option>=<value> ...]");
             return;
         }
 
         String filePath = args[0];
         String topic = args[1];
         int speedFactor = Integer.parseInt(args[2]);
+        Properties options = parseOptions(args, 3);
 
         if (speedFactor <= 0) {
             logger.error("Speed factor should be a positive number");
             return;
         }
 
-        try {
-            Reader reader = new FileReader(filePath);
+        if (options.containsKey("rate")) {
+            try {
+                RateProfile.parse(options.getProperty("rate"));
+            } catch (IllegalArgumentException e) {
+                logger.error(e.getMessage());
+                return;
+            }
+        }
+
+        if (options.containsKey("from")) {
+            try {
+                parseFrom(options);
+            } catch (DateTimeParseException e) {
+                logger.error("Invalid start time, expected yyyy-MM-dd HH:mm:ss: " + e.getParsedString());
+                return;
+            }
+        }
 
-            DataProvider provider = new DataProvider(topic, speedFactor);
-            provider.provide(reader);
-        } catch (FileNotFoundException e1) {
+        try {
+            DataProvider provider = new DataProvider(topic, speedFactor, options);
+            provider.provide(filePath);
+        } catch (FileNotFoundException | NoSuchFileException e1) {
             logger.error("File with the given path could not be found!", e1);
+        } catch (IOException e) {
+            logger.error("Filed reading the file!", e);
         }
     }
 }
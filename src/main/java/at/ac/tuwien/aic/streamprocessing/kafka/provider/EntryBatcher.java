@@ -0,0 +1,88 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.provider;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+import at.ac.tuwien.aic.streamprocessing.model.utils.LongHashSet;
+import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
+
+/**
+ * Splits entries sorted by timestamp into the batches the DataProvider produces at once.
+ *
+ * Duplicate entries for one taxi at the same second are disregarded within a batch, as they would make computing meaningful values impossible. The
+ * duplicates are found through a set of (taxi id, epoch second) keys, so a batch is built in linear time regardless of how many entries share a second.
+ */
+public class EntryBatcher {
+    private final Logger logger = LoggerFactory.getLogger(EntryBatcher.class);
+
+    private final Iterator<TaxiEntry> entries;
+    private final LongHashSet batchKeys = new LongHashSet();
+
+    private TaxiEntry next;
+
+    public EntryBatcher(Iterator<TaxiEntry> entries) {
+        this.entries = entries;
+    }
+
+    public boolean hasNext() {
+        return next != null || entries.hasNext();
+    }
+
+    /**
+     * Gets the first entry after the last batch, which will start the next batch.
+     *
+     * @return the entry or null if the entries are exhausted
+     */
+    public TaxiEntry peek() {
+        return next;
+    }
+
+    /**
+     * Collects the next batch, which consists of the first entry after the previous batch and all following entries up to the given time.
+     *
+     * @param until
+     *            the latest timestamp of the batch, except for its first entry
+     * @return the entries of the batch without duplicates
+     */
+    public List<TaxiEntry> nextBatch(LocalDateTime until) {
+        List<TaxiEntry> batch = new ArrayList<>();
+        batchKeys.clear();
+
+        if (next != null) {
+            add(batch, next);
+            next = null;
+        }
+
+        while (entries.hasNext()) {
+            TaxiEntry entry = entries.next();
+
+            if (entry.getTimestamp().isAfter(until)) {
+                // found end of current batch
+                next = entry;
+                break;
+            }
+
+            add(batch, entry);
+        }
+
+        return batch;
+    }
+
+    private void add(List<TaxiEntry> batch, TaxiEntry entry) {
+        if (batchKeys.add(key(entry))) {
+            batch.add(entry);
+        } else {
+            logger.debug("Filtered same-time entry for taxi {}: {}", entry.getTaxiId(), entry);
+        }
+    }
+
+    private static long key(TaxiEntry entry) {
+        return ((long) entry.getTaxiId() << 32) ^ Timestamp.toEpochSecond(entry.getTimestamp());
+    }
+}
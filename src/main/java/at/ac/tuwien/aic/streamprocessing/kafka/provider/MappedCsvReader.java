@@ -0,0 +1,328 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.provider;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Month;
+import java.time.Year;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
+
+/**
+ * Reader for T-Drive CSV files (id,yyyy-MM-dd HH:mm:ss,longitude,latitude) which memory-maps the file and parses the fields of each line directly from the
+ * mapped bytes into primitives.
+ *
+ * The reader is a cursor: {@link #advance()} moves to the next well-formed line, whose values are then available through the getters. Apart from
+ * malformed lines, which are logged and skipped, reading creates no garbage per line. Files larger than the address space of a single mapping are mapped
+ * region by region.
+ */
+public class MappedCsvReader implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(MappedCsvReader.class);
+
+    private static final int DEFAULT_REGION_SIZE = 256 * 1024 * 1024;
+
+    private static final int FIELD_COUNT = 4;
+
+    // exact powers of ten, quotients of two exact doubles are correctly rounded
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17,
+            1e18 };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int regionSize;
+
+    private MappedByteBuffer region;
+    private long regionStart;
+
+    private final int[] fieldStart = new int[FIELD_COUNT];
+    private final int[] fieldEnd = new int[FIELD_COUNT];
+
+    private int taxiId;
+    private long epochSecond;
+    private double latitude;
+    private double longitude;
+
+    public MappedCsvReader(Path path) throws IOException {
+        this(path, DEFAULT_REGION_SIZE);
+    }
+
+    MappedCsvReader(Path path, int regionSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.regionSize = regionSize;
+
+        map(0);
+    }
+
+    /**
+     * Moves the cursor to the next well-formed line.
+     *
+     * @return false if the end of the file was reached
+     * @throws IOException
+     *             if a region of the file could not be mapped
+     */
+    public boolean advance() throws IOException {
+        while (true) {
+            int lineStart = region.position();
+            int lineEnd = findLineEnd(lineStart);
+
+            if (lineEnd < 0) {
+                if (regionStart + region.limit() >= size) {
+                    if (lineStart == region.limit()) {
+                        return false;
+                    }
+                    // last line without a line break
+                    lineEnd = region.limit();
+                } else if (lineStart == 0) {
+                    throw new IOException("Line at offset " + regionStart + " does not fit into a region of " + regionSize + " bytes");
+                } else {
+                    // line crosses the end of the region, continue with a region starting at the line
+                    map(regionStart + lineStart);
+                    continue;
+                }
+            }
+
+            region.position(lineEnd == region.limit() ? lineEnd : lineEnd + 1);
+
+            int contentEnd = lineEnd;
+            if (contentEnd > lineStart && region.get(contentEnd - 1) == '\r') {
+                contentEnd--;
+            }
+
+            if (contentEnd == lineStart) {
+                continue;
+            }
+
+            try {
+                parseLine(lineStart, contentEnd);
+                return true;
+            } catch (NumberFormatException e) {
+                logger.warn("Failed to parse record '" + text(lineStart, contentEnd) + "'");
+            }
+        }
+    }
+
+    public int getTaxiId() {
+        return taxiId;
+    }
+
+    public long getEpochSecond() {
+        return epochSecond;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Creates a TaxiEntry from the values of the current line.
+     *
+     * @return the current entry
+     */
+    public TaxiEntry toEntry() {
+        return new TaxiEntry(taxiId, Timestamp.fromEpochSecond(epochSecond), latitude, longitude);
+    }
+
+    /**
+     * Gets the remaining lines as entries. The iterator shares the cursor of this reader, errors while mapping the file are thrown as
+     * {@link UncheckedIOException}.
+     *
+     * @return the iterator over the remaining entries
+     */
+    public Iterator<TaxiEntry> entries() {
+        return new Iterator<TaxiEntry>() {
+            private boolean advanced;
+            private boolean available;
+
+            @Override
+            public boolean hasNext() {
+                if (!advanced) {
+                    try {
+                        available = advance();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    advanced = true;
+                }
+                return available;
+            }
+
+            @Override
+            public TaxiEntry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                advanced = false;
+                return toEntry();
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        region = null;
+        channel.close();
+    }
+
+    private void map(long position) throws IOException {
+        long length = Math.min(regionSize, size - position);
+        region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        regionStart = position;
+    }
+
+    private int findLineEnd(int from) {
+        int limit = region.limit();
+        for (int i = from; i < limit; i++) {
+            if (region.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void parseLine(int start, int end) {
+        int field = 0;
+        fieldStart[0] = start;
+        for (int i = start; i < end && field < FIELD_COUNT; i++) {
+            if (region.get(i) == ',') {
+                fieldEnd[field++] = i;
+                if (field < FIELD_COUNT) {
+                    fieldStart[field] = i + 1;
+                }
+            }
+        }
+        if (field < FIELD_COUNT) {
+            if (field < FIELD_COUNT - 1) {
+                throw new NumberFormatException("Expected " + FIELD_COUNT + " fields");
+            }
+            fieldEnd[field] = end;
+        }
+
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            unquote(i);
+        }
+
+        taxiId = parseInt(fieldStart[0], fieldEnd[0]);
+        epochSecond = parseTimestamp(fieldStart[1], fieldEnd[1]);
+        longitude = parseDouble(fieldStart[2], fieldEnd[2]);
+        latitude = parseDouble(fieldStart[3], fieldEnd[3]);
+    }
+
+    private void unquote(int field) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        if (end - start >= 2 && region.get(start) == '"' && region.get(end - 1) == '"') {
+            fieldStart[field] = start + 1;
+            fieldEnd[field] = end - 1;
+        }
+    }
+
+    private int parseInt(int start, int end) {
+        long value = parseLong(start, end);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Integer out of range");
+        }
+        return (int) value;
+    }
+
+    private long parseLong(int start, int end) {
+        boolean negative = start < end && region.get(start) == '-';
+        int i = negative ? start + 1 : start;
+        if (i == end || end - i > 18) {
+            throw new NumberFormatException("Invalid integer");
+        }
+
+        long value = 0;
+        for (; i < end; i++) {
+            value = value * 10 + digit(i);
+        }
+        return negative ? -value : value;
+    }
+
+    private long parseTimestamp(int start, int end) {
+        // yyyy-MM-dd HH:mm:ss
+        if (end - start != 19 || region.get(start + 4) != '-' || region.get(start + 7) != '-' || region.get(start + 10) != ' '
+                || region.get(start + 13) != ':' || region.get(start + 16) != ':') {
+            throw new NumberFormatException("Invalid timestamp");
+        }
+
+        int year = (int) parseLong(start, start + 4);
+        int month = (int) parseLong(start + 5, start + 7);
+        int day = (int) parseLong(start + 8, start + 10);
+        int hour = (int) parseLong(start + 11, start + 13);
+        int minute = (int) parseLong(start + 14, start + 16);
+        int second = (int) parseLong(start + 17, start + 19);
+
+        if (month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year)) || hour > 23 || minute > 59 || second > 59) {
+            throw new NumberFormatException("Invalid timestamp");
+        }
+        return Timestamp.toEpochSecond(year, month, day, hour, minute, second);
+    }
+
+    private double parseDouble(int start, int end) {
+        boolean negative = start < end && region.get(start) == '-';
+        int i = negative ? start + 1 : start;
+
+        long mantissa = 0;
+        int fractionDigits = -1;
+        boolean digits = false;
+        for (; i < end; i++) {
+            byte b = region.get(i);
+            if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            if (b < '0' || b > '9' || mantissa >= MAX_EXACT_MANTISSA) {
+                // exponents, overlong digits etc. are left to the JDK
+                return Double.parseDouble(text(start, end));
+            }
+            mantissa = mantissa * 10 + (b - '0');
+            digits = true;
+            if (fractionDigits >= 0) {
+                fractionDigits++;
+            }
+        }
+
+        if (!digits) {
+            throw new NumberFormatException("Invalid number");
+        }
+        if (mantissa >= MAX_EXACT_MANTISSA || fractionDigits >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(text(start, end));
+        }
+
+        double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private int digit(int index) {
+        byte b = region.get(index);
+        if (b < '0' || b > '9') {
+            throw new NumberFormatException("Invalid digit");
+        }
+        return b - '0';
+    }
+
+    private String text(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = region.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,109 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.provider;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Target replay rate in events per second over the time since the replay started.
+ *
+ * Profiles are given as
+ * <ul>
+ * <li>{@code <rate>}: a constant rate, e.g. 20000</li>
+ * <li>{@code ramp:<from>:<to>:<seconds>}: a linear ramp from one rate to another, holding the final rate afterwards, e.g. ramp:1000:50000:60</li>
+ * <li>{@code steps:<seconds>:<rate>,<rate>,...}: each rate for the given number of seconds, holding the last one afterwards, e.g.
+ * steps:30:1000,5000,10000</li>
+ * </ul>
+ */
+public class RateProfile {
+    private final double[] rates;
+    private final long stepNanos;
+    private final boolean ramp;
+
+    private RateProfile(double[] rates, long stepNanos, boolean ramp) {
+        for (double rate : rates) {
+            if (!(rate > 0)) {
+                throw new IllegalArgumentException("Rates must be positive, got " + rate);
+            }
+        }
+        this.rates = rates;
+        this.stepNanos = stepNanos;
+        this.ramp = ramp;
+    }
+
+    public static RateProfile constant(double rate) {
+        return new RateProfile(new double[] { rate }, 1, false);
+    }
+
+    public static RateProfile ramp(double from, double to, long seconds) {
+        return new RateProfile(new double[] { from, to }, TimeUnit.SECONDS.toNanos(Math.max(1, seconds)), true);
+    }
+
+    public static RateProfile steps(long secondsPerStep, double... rates) {
+        if (rates.length == 0) {
+            throw new IllegalArgumentException("At least one step is required");
+        }
+        return new RateProfile(rates, TimeUnit.SECONDS.toNanos(Math.max(1, secondsPerStep)), false);
+    }
+
+    /**
+     * Parses a profile in one of the forms described at {@link RateProfile}.
+     *
+     * @param profile
+     *            the profile
+     * @return the parsed profile
+     * @throws IllegalArgumentException
+     *             if the profile is malformed
+     */
+    public static RateProfile parse(String profile) {
+        String[] parts = profile.trim().split(":");
+        try {
+            switch (parts[0]) {
+            case "ramp":
+                requireParts(profile, parts, 4);
+                return ramp(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]), Long.parseLong(parts[3]));
+            case "steps":
+                requireParts(profile, parts, 3);
+                return steps(Long.parseLong(parts[1]), Arrays.stream(parts[2].split(",")).mapToDouble(Double::parseDouble).toArray());
+            default:
+                requireParts(profile, parts, 1);
+                return constant(Double.parseDouble(parts[0]));
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed rate profile '" + profile + "'", e);
+        }
+    }
+
+    private static void requireParts(String profile, String[] parts, int count) {
+        if (parts.length != count) {
+            throw new IllegalArgumentException("Malformed rate profile '" + profile + "'");
+        }
+    }
+
+    /**
+     * Gets the target rate at the given time.
+     *
+     * @param elapsedNanos
+     *            the nanoseconds since the replay started
+     * @return the target rate in events per second
+     */
+    public double rateAt(long elapsedNanos) {
+        if (ramp) {
+            double progress = Math.min(1.0, Math.max(0.0, (double) elapsedNanos / stepNanos));
+            return rates[0] + (rates[1] - rates[0]) * progress;
+        }
+        long step = Math.max(0, elapsedNanos / stepNanos);
+        return rates[(int) Math.min(step, rates.length - 1)];
+    }
+
+    @Override
+    public String toString() {
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(stepNanos);
+        if (ramp) {
+            return "ramp from " + rates[0] + " to " + rates[1] + " events/s over " + seconds + "s";
+        }
+        if (rates.length == 1) {
+            return rates[0] + " events/s";
+        }
+        return "steps of " + seconds + "s at " + Arrays.toString(rates) + " events/s";
+    }
+}
@@ -0,0 +1,311 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.provider;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntPredicate;
+
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+import at.ac.tuwien.aic.streamprocessing.model.serialization.TaxiEntryBinaryCodec;
+import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
+
+/**
+ * File of taxi entries sorted by timestamp, for replaying the same data repeatedly without parsing CSV.
+ *
+ * The file consists of a 32 byte header, the entries as fixed-width {@link TaxiEntryBinaryCodec} records and a sparse index holding the timestamp of
+ * every indexInterval-th record. The index is read into memory when the file is opened, the records are memory-mapped region by region. Seeking to a
+ * timestamp is a binary search over the index followed by a binary search within one block of records.
+ */
+public class ReplayFile implements Closeable {
+    public static final int DEFAULT_INDEX_INTERVAL = 1024;
+
+    // "TAXI"
+    private static final int MAGIC = 0x54415849;
+    private static final int FORMAT_VERSION = 1;
+
+    // magic (int), format version (int), record count (long), index interval (int), index size (int), index offset (long)
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = TaxiEntryBinaryCodec.RECORD_SIZE;
+
+    private static final int REGION_RECORDS = 1 << 21;
+    private static final int WRITE_BUFFER_RECORDS = 4096;
+
+    private final FileChannel channel;
+    private final long recordCount;
+    private final int indexInterval;
+    private final long[] index;
+
+    private MappedByteBuffer region;
+    private long regionNumber = -1;
+
+    private ReplayFile(FileChannel channel, long recordCount, int indexInterval, long[] index) {
+        this.channel = channel;
+        this.recordCount = recordCount;
+        this.indexInterval = indexInterval;
+        this.index = index;
+    }
+
+    /**
+     * Writes the given entries into a new replay file.
+     *
+     * @param entries
+     *            the entries, sorted by timestamp
+     * @param path
+     *            the file to create or overwrite
+     * @param indexInterval
+     *            the number of records per index entry
+     * @return the number of written entries
+     * @throws IOException
+     *             if the file could not be written
+     * @throws IllegalArgumentException
+     *             if the entries are not sorted by timestamp
+     */
+    public static long write(Iterator<TaxiEntry> entries, Path path, int indexInterval) throws IOException {
+        if (indexInterval <= 0) {
+            throw new IllegalArgumentException("Index interval must be positive");
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.position(HEADER_SIZE);
+
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_RECORDS * RECORD_SIZE);
+            long[] index = new long[16];
+            int indexSize = 0;
+            long count = 0;
+            long previousSecond = Long.MIN_VALUE;
+
+            while (entries.hasNext()) {
+                TaxiEntry entry = entries.next();
+                long second = Timestamp.toEpochSecond(entry.getTimestamp());
+                if (second < previousSecond) {
+                    throw new IllegalArgumentException("Entries must be sorted by timestamp, " + entry + " follows " + Timestamp.toString(previousSecond));
+                }
+                previousSecond = second;
+
+                if (count % indexInterval == 0) {
+                    if (indexSize == index.length) {
+                        index = Arrays.copyOf(index, indexSize * 2);
+                    }
+                    index[indexSize++] = second;
+                }
+
+                if (!buffer.hasRemaining()) {
+                    writeFully(channel, buffer);
+                }
+                TaxiEntryBinaryCodec.encode(entry, buffer);
+                count++;
+            }
+            writeFully(channel, buffer);
+
+            long indexOffset = channel.position();
+            ByteBuffer indexBuffer = ByteBuffer.allocate(indexSize * 8);
+            indexBuffer.asLongBuffer().put(index, 0, indexSize);
+            // the view does not move the position of the byte buffer
+            indexBuffer.position(indexBuffer.limit());
+            writeFully(channel, indexBuffer);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(count).putInt(indexInterval).putInt(indexSize).putLong(indexOffset);
+            channel.position(0);
+            writeFully(channel, header);
+
+            return count;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Checks whether the given file starts like a replay file.
+     *
+     * @param path
+     *            the file to check
+     * @return true if it is a regular file with the replay file header
+     * @throws IOException
+     *             if the file could not be read
+     */
+    public static boolean isReplayFile(Path path) throws IOException {
+        if (!Files.isRegularFile(path) || Files.size(path) < HEADER_SIZE) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // read until the magic is complete
+            }
+            return magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Opens a replay file and reads its index.
+     *
+     * @param path
+     *            the file
+     * @return the opened file, which has to be closed
+     * @throws IOException
+     *             if the file could not be read or is not a replay file of a supported version
+     */
+    public static ReplayFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = read(channel, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException(path + " is not a replay file");
+            }
+            int version = header.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported replay file version " + version);
+            }
+
+            long recordCount = header.getLong();
+            int indexInterval = header.getInt();
+            int indexSize = header.getInt();
+            long indexOffset = header.getLong();
+
+            long[] index = new long[indexSize];
+            read(channel, indexOffset, indexSize * 8).asLongBuffer().get(index);
+
+            return new ReplayFile(channel, recordCount, indexInterval, index);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of replay file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Finds the first record at or after the given time.
+     *
+     * @param epochSecond
+     *            the time to seek to
+     * @return the index of the record, or the record count if all records are earlier
+     */
+    public long seek(long epochSecond) {
+        // the first block starting at or after the time, the record is in the block before it. Blocks may share a start time, so this is a lower
+        // bound search rather than Arrays.binarySearch
+        int block = 0;
+        int end = index.length;
+        while (block < end) {
+            int middle = (block + end) >>> 1;
+            if (index[middle] < epochSecond) {
+                block = middle + 1;
+            } else {
+                end = middle;
+            }
+        }
+        if (block == 0) {
+            return 0;
+        }
+
+        long low = (long) (block - 1) * indexInterval;
+        long high = Math.min(recordCount, (long) block * indexInterval);
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (secondAt(middle) < epochSecond) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Gets the entries starting at the given record.
+     *
+     * @param from
+     *            the index of the first record, see {@link #seek(long)}
+     * @param taxis
+     *            the taxi ids to include, records of other taxis are skipped without decoding them
+     * @return the iterator over the entries, valid until this file is closed. Errors while mapping the file are thrown as {@link UncheckedIOException}.
+     */
+    public Iterator<TaxiEntry> entries(long from, IntPredicate taxis) {
+        return new Iterator<TaxiEntry>() {
+            private long next = skip(from);
+
+            @Override
+            public boolean hasNext() {
+                return next < recordCount;
+            }
+
+            @Override
+            public TaxiEntry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                TaxiEntry entry = TaxiEntryBinaryCodec.decode(record(next));
+                next = skip(next + 1);
+                return entry;
+            }
+
+            private long skip(long position) {
+                while (position < recordCount && !taxis.test(taxiIdAt(position))) {
+                    position++;
+                }
+                return position;
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        region = null;
+        channel.close();
+    }
+
+    private long secondAt(long record) {
+        ByteBuffer buffer = record(record);
+        return buffer.getLong(buffer.position() + TaxiEntryBinaryCodec.TIMESTAMP_OFFSET);
+    }
+
+    private int taxiIdAt(long record) {
+        ByteBuffer buffer = record(record);
+        return buffer.getInt(buffer.position() + TaxiEntryBinaryCodec.ID_OFFSET);
+    }
+
+    private ByteBuffer record(long record) {
+        long number = record / REGION_RECORDS;
+        if (number != regionNumber) {
+            long first = number * REGION_RECORDS;
+            long size = Math.min(REGION_RECORDS, recordCount - first) * RECORD_SIZE;
+            try {
+                region = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * RECORD_SIZE, size);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            regionNumber = number;
+        }
+        region.position((int) (record - number * REGION_RECORDS) * RECORD_SIZE);
+        return region;
+    }
+}
@@ -0,0 +1,50 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.provider;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Converts any input of the {@link DataProvider} into a {@link ReplayFile}, so that repeated benchmark runs skip the parsing.
+ *
+ * Usage: <input> <output> [<option>=<value> ...] with the options of the DataProvider for reading the input, and indexInterval=n for the number of
+ * records per index entry.
+ */
+public class ReplayFileConverter {
+    private static final Logger logger = LoggerFactory.getLogger(ReplayFileConverter.class);
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            logger.error("USAGE: <absolute-path-of-input-data-file-or-directory>|synthetic <output-file> [<option>=<value> ...]");
+            return;
+        }
+
+        Path output = Paths.get(args[1]);
+        Properties options = DataProvider.parseOptions(args, 2);
+        int indexInterval = Integer.parseInt(options.getProperty("indexInterval", String.valueOf(ReplayFile.DEFAULT_INDEX_INTERVAL)));
+
+        long start = System.nanoTime();
+        try {
+            long[] count = new long[1];
+            DataProvider.readEntries(args[0], options, entries -> {
+                try {
+                    count[0] = ReplayFile.write(entries, output, indexInterval);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            logger.info("Wrote " + count[0] + " entries to " + output + " in " + (System.nanoTime() - start) / 1000000 + " ms");
+        } catch (FileNotFoundException | NoSuchFileException e1) {
+            logger.error("File with the given path could not be found!", e1);
+        } catch (IOException | UncheckedIOException e) {
+            logger.error("Failed converting the file!", e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.provider;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
+
+/**
+ * Provider reading the entries of a {@link ReplayFile}. Only the path is kept, the file is opened by every call of {@link #getEntries()} and closed
+ * together with the returned stream, so instances can be shipped to storm workers.
+ */
+public class ReplayFileProvider implements TaxiEntryProvider, Serializable {
+    private final String path;
+
+    private LocalDateTime from;
+
+    /**
+     * Instantiates a new ReplayFileProvider.
+     *
+     * @param path
+     *            the replay file, which has to be readable wherever the entries are requested
+     */
+    public ReplayFileProvider(String path) {
+        this.path = path;
+    }
+
+    /**
+     * @param from
+     *            the time of the first provided entry, earlier entries are skipped
+     */
+    public ReplayFileProvider withFrom(LocalDateTime from) {
+        this.from = from;
+        return this;
+    }
+
+    @Override
+    public Stream<TaxiEntry> getEntries() {
+        ReplayFile replay;
+        try {
+            replay = ReplayFile.open(Paths.get(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        long first = from == null ? 0 : replay.seek(Timestamp.toEpochSecond(from));
+        Spliterator<TaxiEntry> spliterator = Spliterators.spliteratorUnknownSize(replay.entries(first, taxiId -> true),
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                replay.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Override
+    public String toString() {
+        return path + (from == null ? "" : " from " + Timestamp.toString(from));
+    }
+}
@@ -0,0 +1,75 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.provider;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Paces a replay to the target rate of a {@link RateProfile} and reports the achieved rate.
+ *
+ * The target is re-read from the profile every millisecond and fed into a {@link TokenBucket} allowing a burst of one millisecond. Once per report
+ * interval the target and achieved rate of the interval are logged, {@link #finish()} logs the rate over the whole replay.
+ */
+public class ReplayPacer {
+    private static final Logger logger = LoggerFactory.getLogger(ReplayPacer.class);
+
+    private static final long UPDATE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long REPORT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final RateProfile profile;
+    private final TokenBucket bucket;
+
+    private long start;
+    private long lastUpdate;
+    private long lastReport;
+    private long count;
+    private long countAtLastReport;
+
+    public ReplayPacer(RateProfile profile) {
+        this.profile = profile;
+        this.bucket = new TokenBucket(profile.rateAt(0), UPDATE_NANOS);
+    }
+
+    /**
+     * Waits until the next event is due.
+     */
+    public void acquire() {
+        long now = System.nanoTime();
+        if (count == 0) {
+            start = now;
+            lastUpdate = now;
+            lastReport = now;
+            logger.info("Replaying at " + profile);
+        }
+
+        if (now - lastUpdate >= UPDATE_NANOS) {
+            bucket.setRate(profile.rateAt(now - start));
+            lastUpdate = now;
+        }
+        if (now - lastReport >= REPORT_NANOS) {
+            report(now);
+        }
+
+        bucket.acquire();
+        count++;
+    }
+
+    /**
+     * Logs the achieved rate over the whole replay.
+     */
+    public void finish() {
+        if (count == 0) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        logger.info(String.format("Replayed %d events in %.3fs, achieved %.1f events/s", count, elapsed / 1e9, count * 1e9 / elapsed));
+    }
+
+    private void report(long now) {
+        long events = count - countAtLastReport;
+        logger.info(String.format("target %.1f events/s, achieved %.1f events/s", bucket.getRate(), events * 1e9 / (now - lastReport)));
+        lastReport = now;
+        countAtLastReport = count;
+    }
+}
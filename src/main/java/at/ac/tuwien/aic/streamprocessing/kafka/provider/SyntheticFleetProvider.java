@@ -0,0 +1,282 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.provider;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.util.Constants;
+
+/**
+ * Provider simulating a fleet of taxis driving around the center of the allowed area, for testing with more taxis than the T-Drive data contains.
+ *
+ * Every taxi reports its position once per report interval, the taxis are spread evenly over the seconds of the interval. The entries are generated
+ * lazily in timestamp order, only the current position of each taxi is kept in memory. A share of the taxis drives faster than the speed limit, another
+ * share leaves the allowed area, all others stay within the warning distance. After the last second every taxi emits its stop token.
+ *
+ * The fleet is described by the configuration of this instance only, so every call of {@link #getEntries()} yields the same entries for the same seed.
+ */
+public class SyntheticFleetProvider implements TaxiEntryProvider, Serializable {
+
+    /**
+     * How the taxis move between two reports.
+     */
+    public enum Movement {
+        /**
+         * The heading changes randomly by up to 45 degrees between reports.
+         */
+        RANDOM_WALK,
+        /**
+         * The taxis drive straight to a random destination and pick the next one when they arrive.
+         */
+        ROUTE
+    }
+
+    private static final double KM_PER_DEGREE_LATITUDE = 111.32;
+
+    private static final double MIN_SPEED = 10;
+    private static final double MAX_SPEED = 45;
+    private static final double MIN_SPEEDING_SPEED = Constants.SPEED_LIMIT + 10;
+    private static final double MAX_SPEEDING_SPEED = Constants.SPEED_LIMIT + 50;
+
+    // taxis which stay within the area turn back beyond this distance from the center
+    private static final double INNER_RADIUS = Constants.WARNING_DISTANCE * 0.8;
+    // taxis which leave the area drive out to this distance
+    private static final double OUTER_RADIUS = Constants.PROHIBITED_DISTANCE * 1.5;
+
+    private final int fleetSize;
+    private final long durationSeconds;
+
+    private LocalDateTime start = DataProvider.REFERENCE_START_TIME;
+    private int reportIntervalSeconds = 5;
+    private double speedingRatio = 0.05;
+    private double violationRatio = 0.01;
+    private Movement movement = Movement.RANDOM_WALK;
+    private boolean stopTokens = true;
+    private long seed = 42;
+
+    /**
+     * Instantiates a new SyntheticFleetProvider.
+     *
+     * @param fleetSize
+     *            the number of taxis, with ids 1 to fleetSize
+     * @param durationSeconds
+     *            the simulated time
+     */
+    public SyntheticFleetProvider(int fleetSize, long durationSeconds) {
+        if (fleetSize <= 0 || durationSeconds <= 0) {
+            throw new IllegalArgumentException("Fleet size and duration must be positive");
+        }
+        this.fleetSize = fleetSize;
+        this.durationSeconds = durationSeconds;
+    }
+
+    public SyntheticFleetProvider withStart(LocalDateTime start) {
+        this.start = start;
+        return this;
+    }
+
+    public SyntheticFleetProvider withReportInterval(int seconds) {
+        if (seconds <= 0) {
+            throw new IllegalArgumentException("Report interval must be positive");
+        }
+        this.reportIntervalSeconds = seconds;
+        return this;
+    }
+
+    /**
+     * @param ratio
+     *            the share of taxis driving faster than {@link Constants#SPEED_LIMIT}
+     */
+    public SyntheticFleetProvider withSpeedingRatio(double ratio) {
+        this.speedingRatio = requireRatio(ratio);
+        return this;
+    }
+
+    /**
+     * @param ratio
+     *            the share of taxis leaving the allowed area
+     */
+    public SyntheticFleetProvider withViolationRatio(double ratio) {
+        this.violationRatio = requireRatio(ratio);
+        return this;
+    }
+
+    public SyntheticFleetProvider withMovement(Movement movement) {
+        this.movement = movement;
+        return this;
+    }
+
+    public SyntheticFleetProvider withStopTokens(boolean stopTokens) {
+        this.stopTokens = stopTokens;
+        return this;
+    }
+
+    public SyntheticFleetProvider withSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    private static double requireRatio(double ratio) {
+        if (ratio < 0 || ratio > 1) {
+            throw new IllegalArgumentException("Ratio must be between 0 and 1, got " + ratio);
+        }
+        return ratio;
+    }
+
+    @Override
+    public Stream<TaxiEntry> getEntries() {
+        Spliterator<TaxiEntry> spliterator = Spliterators.spliteratorUnknownSize(new Simulation(),
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    @Override
+    public String toString() {
+        return fleetSize + " taxis for " + durationSeconds + "s reporting every " + reportIntervalSeconds + "s (" + movement + ", " + speedingRatio
+                + " speeding, " + violationRatio + " leaving the area, seed " + seed + ")";
+    }
+
+    /**
+     * The state of one run through the simulated time.
+     */
+    private class Simulation implements Iterator<TaxiEntry> {
+        private final SplittableRandom random = new SplittableRandom(seed);
+
+        // positions and directions in km relative to the area center, speeds in km/h
+        private final double[] x = new double[fleetSize];
+        private final double[] y = new double[fleetSize];
+        private final double[] heading = new double[fleetSize];
+        private final double[] targetX;
+        private final double[] targetY;
+        private final double[] speed = new double[fleetSize];
+        private final boolean[] leaving = new boolean[fleetSize];
+
+        private final double centerLatitude = Constants.ALLOWED_AREA_CENTER_LAT;
+        private final double centerLongitude = Constants.ALLOWED_AREA_CENTER_LONG;
+        private final double kmPerDegreeLongitude = KM_PER_DEGREE_LATITUDE * Math.cos(Math.toRadians(centerLatitude));
+
+        private long second;
+        private int taxi;
+        private boolean stopping;
+
+        Simulation() {
+            boolean route = movement == Movement.ROUTE;
+            targetX = route ? new double[fleetSize] : null;
+            targetY = route ? new double[fleetSize] : null;
+
+            for (int i = 0; i < fleetSize; i++) {
+                double radius = INNER_RADIUS * Math.sqrt(random.nextDouble());
+                double angle = random.nextDouble() * 2 * Math.PI;
+                x[i] = radius * Math.cos(angle);
+                y[i] = radius * Math.sin(angle);
+                heading[i] = random.nextDouble() * 2 * Math.PI;
+
+                boolean speeding = random.nextDouble() < speedingRatio;
+                speed[i] = speeding ? uniform(MIN_SPEEDING_SPEED, MAX_SPEEDING_SPEED) : uniform(MIN_SPEED, MAX_SPEED);
+                leaving[i] = random.nextDouble() < violationRatio;
+
+                if (route) {
+                    pickTarget(i);
+                }
+            }
+
+            taxi = firstReportingTaxi();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return second < durationSeconds || (stopTokens && (!stopping || taxi < fleetSize));
+        }
+
+        @Override
+        public TaxiEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            if (second >= durationSeconds) {
+                if (!stopping) {
+                    stopping = true;
+                    taxi = 0;
+                }
+                int id = taxi++;
+                return new TaxiEntry(id + 1, start.plusSeconds(durationSeconds), Constants.STOP_TOKEN_VALUE, Constants.STOP_TOKEN_VALUE);
+            }
+
+            int id = taxi;
+            move(id);
+            TaxiEntry entry = new TaxiEntry(id + 1, start.plusSeconds(second), centerLatitude + y[id] / KM_PER_DEGREE_LATITUDE,
+                    centerLongitude + x[id] / kmPerDegreeLongitude);
+
+            // taxi i reports in the seconds s with s % interval == i % interval
+            taxi += reportIntervalSeconds;
+            if (taxi >= fleetSize) {
+                second++;
+                taxi = firstReportingTaxi();
+            }
+            return entry;
+        }
+
+        private int firstReportingTaxi() {
+            int first = (int) (second % reportIntervalSeconds);
+            if (first >= fleetSize && second < durationSeconds) {
+                // fewer taxis than seconds in the interval, nobody reports in this second
+                second++;
+                return firstReportingTaxi();
+            }
+            return first;
+        }
+
+        private void move(int i) {
+            if (second < reportIntervalSeconds) {
+                // first report at the initial position
+                return;
+            }
+
+            double distance = speed[i] * reportIntervalSeconds / 3600.0;
+            double fromCenter = Math.hypot(x[i], y[i]);
+
+            if (movement == Movement.ROUTE) {
+                double dx = targetX[i] - x[i];
+                double dy = targetY[i] - y[i];
+                double remaining = Math.hypot(dx, dy);
+                if (remaining <= distance) {
+                    x[i] = targetX[i];
+                    y[i] = targetY[i];
+                    pickTarget(i);
+                    return;
+                }
+                heading[i] = Math.atan2(dy, dx);
+            } else if (leaving[i]) {
+                // drift outwards until far beyond the prohibited distance, then turn back
+                double outwards = Math.atan2(y[i], x[i]);
+                heading[i] = fromCenter < OUTER_RADIUS ? outwards + uniform(-0.5, 0.5) : outwards + Math.PI;
+            } else if (fromCenter > INNER_RADIUS) {
+                heading[i] = Math.atan2(-y[i], -x[i]) + uniform(-0.5, 0.5);
+            } else {
+                heading[i] += uniform(-Math.PI / 4, Math.PI / 4);
+            }
+
+            x[i] += distance * Math.cos(heading[i]);
+            y[i] += distance * Math.sin(heading[i]);
+        }
+
+        private void pickTarget(int i) {
+            double radius = leaving[i] ? uniform(Constants.PROHIBITED_DISTANCE, OUTER_RADIUS) : INNER_RADIUS * Math.sqrt(random.nextDouble());
+            double angle = random.nextDouble() * 2 * Math.PI;
+            targetX[i] = radius * Math.cos(angle);
+            targetY[i] = radius * Math.sin(angle);
+        }
+
+        private double uniform(double from, double to) {
+            return from + random.nextDouble() * (to - from);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.provider;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
+
+/**
+ * Replaces the offline preparation of the raw T-Drive data (merging the per-taxi files, adding the end token and sorting everything by timestamp).
+ *
+ * The *.txt files of a directory, each holding the fixes of one taxi, are parsed in parallel into primitive arrays. The tracks are then merged by
+ * timestamp with a heap, ties are broken by taxi id. After the last fix of a taxi, its end token (one second later at latitude and longitude 360) is
+ * emitted. All fixes are held in memory, about 24 bytes per fix.
+ */
+public class TaxiDirectoryMerger {
+    private static final Logger logger = LoggerFactory.getLogger(TaxiDirectoryMerger.class);
+
+    public static final double END_TOKEN_COORDINATE = 360;
+
+    private static final String FILE_PATTERN = "*.txt";
+
+    private final Path directory;
+    private final int threads;
+
+    /**
+     * Instantiates a new TaxiDirectoryMerger.
+     *
+     * @param directory
+     *            the directory containing the per-taxi files
+     * @param threads
+     *            the number of threads parsing files
+     */
+    public TaxiDirectoryMerger(Path directory, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("At least one thread is required");
+        }
+        this.directory = directory;
+        this.threads = threads;
+    }
+
+    /**
+     * Parses all files and gets the merged entries, including the end token of every taxi.
+     *
+     * @return the entries sorted by timestamp
+     * @throws IOException
+     *             if the directory could not be listed
+     */
+    public Iterator<TaxiEntry> merge() throws IOException {
+        List<Track> tracks = parseAll();
+
+        PriorityQueue<Track> heap = new PriorityQueue<>(Math.max(1, tracks.size()),
+                Comparator.comparingLong(Track::currentSecond).thenComparingInt(track -> track.taxiId));
+        tracks.stream().filter(Track::hasCurrent).forEach(heap::add);
+
+        return new Iterator<TaxiEntry>() {
+            @Override
+            public boolean hasNext() {
+                return !heap.isEmpty();
+            }
+
+            @Override
+            public TaxiEntry next() {
+                Track track = heap.poll();
+                if (track == null) {
+                    throw new NoSuchElementException();
+                }
+
+                TaxiEntry entry = track.current();
+                track.position++;
+                if (track.hasCurrent()) {
+                    heap.add(track);
+                }
+                return entry;
+            }
+        };
+    }
+
+    private List<Track> parseAll() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, FILE_PATTERN)) {
+            stream.forEach(files::add);
+        }
+        logger.info("Parsing " + files.size() + " taxi files in " + directory + " with " + threads + " threads");
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Track>> futures = new ArrayList<>();
+            for (Path file : files) {
+                futures.add(executor.submit(() -> parse(file)));
+            }
+
+            List<Track> tracks = new ArrayList<>();
+            long fixes = 0;
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    Track track = futures.get(i).get();
+                    if (track != null) {
+                        tracks.add(track);
+                        fixes += track.size;
+                    }
+                } catch (ExecutionException e) {
+                    logger.error("Failed to parse " + files.get(i) + ", ignoring it", e.getCause());
+                }
+            }
+            logger.info("Parsed " + fixes + " fixes of " + tracks.size() + " taxis");
+            return tracks;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing " + directory, e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Track parse(Path file) throws IOException {
+        Track track = null;
+        boolean warned = false;
+
+        try (MappedCsvReader reader = new MappedCsvReader(file)) {
+            while (reader.advance()) {
+                if (track == null) {
+                    track = new Track(reader.getTaxiId());
+                } else if (reader.getTaxiId() != track.taxiId) {
+                    if (!warned) {
+                        logger.warn("File " + file + " contains fixes of taxi " + reader.getTaxiId() + " besides " + track.taxiId + ", ignoring them");
+                        warned = true;
+                    }
+                    continue;
+                }
+                track.add(reader.getEpochSecond(), reader.getLatitude(), reader.getLongitude());
+            }
+        }
+
+        if (track != null) {
+            track.sortBySecond();
+            track.addEndToken();
+        }
+        return track;
+    }
+
+    private static class Track {
+        final int taxiId;
+
+        int size;
+        long[] seconds = new long[64];
+        double[] latitudes = new double[64];
+        double[] longitudes = new double[64];
+
+        int position;
+
+        Track(int taxiId) {
+            this.taxiId = taxiId;
+        }
+
+        void add(long second, double latitude, double longitude) {
+            if (size == seconds.length) {
+                seconds = Arrays.copyOf(seconds, size * 2);
+                latitudes = Arrays.copyOf(latitudes, size * 2);
+                longitudes = Arrays.copyOf(longitudes, size * 2);
+            }
+            seconds[size] = second;
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            size++;
+        }
+
+        void addEndToken() {
+            add(seconds[size - 1] + 1, END_TOKEN_COORDINATE, END_TOKEN_COORDINATE);
+        }
+
+        void sortBySecond() {
+            boolean sorted = true;
+            for (int i = 1; i < size && sorted; i++) {
+                sorted = seconds[i - 1] <= seconds[i];
+            }
+            if (sorted) {
+                return;
+            }
+
+            // rarely needed, a stable sort of the indices keeps it simple
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingLong(i -> seconds[i]));
+
+            long[] sortedSeconds = new long[seconds.length];
+            double[] sortedLatitudes = new double[seconds.length];
+            double[] sortedLongitudes = new double[seconds.length];
+            for (int i = 0; i < size; i++) {
+                sortedSeconds[i] = seconds[order[i]];
+                sortedLatitudes[i] = latitudes[order[i]];
+                sortedLongitudes[i] = longitudes[order[i]];
+            }
+            seconds = sortedSeconds;
+            latitudes = sortedLatitudes;
+            longitudes = sortedLongitudes;
+        }
+
+        boolean hasCurrent() {
+            return position < size;
+        }
+
+        long currentSecond() {
+            return seconds[position];
+        }
+
+        TaxiEntry current() {
+            return new TaxiEntry(taxiId, Timestamp.fromEpochSecond(seconds[position]), latitudes[position], longitudes[position]);
+        }
+    }
+}
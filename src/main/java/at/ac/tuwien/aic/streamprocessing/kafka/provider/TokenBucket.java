@@ -0,0 +1,66 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.provider;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Token bucket with nanosecond resolution, implemented as the equivalent virtual scheduling algorithm: instead of counting tokens, the bucket tracks the
+ * time at which the next token becomes available.
+ *
+ * Waits longer than a few microseconds park the thread, the remainder is spun so tokens are handed out close to their due time even at high rates. A
+ * bucket which has been idle accumulates at most burstNanos worth of tokens.
+ *
+ * Instances are not thread-safe.
+ */
+public class TokenBucket {
+    private static final long SPIN_NANOS = 50000;
+
+    private final long burstNanos;
+    private final long origin = System.nanoTime();
+
+    private double nanosPerToken;
+    // relative to origin, so the fractional nanoseconds are not lost
+    private double nextTokenNanos;
+
+    /**
+     * Instantiates a new TokenBucket.
+     *
+     * @param rate
+     *            the tokens per second
+     * @param burstNanos
+     *            the time worth of tokens which can be acquired without waiting after the bucket has been idle
+     */
+    public TokenBucket(double rate, long burstNanos) {
+        this.burstNanos = burstNanos;
+        setRate(rate);
+    }
+
+    public void setRate(double rate) {
+        if (!(rate > 0)) {
+            throw new IllegalArgumentException("Rate must be positive, got " + rate);
+        }
+        this.nanosPerToken = 1e9 / rate;
+    }
+
+    public double getRate() {
+        return 1e9 / nanosPerToken;
+    }
+
+    /**
+     * Takes one token, waiting until it is available.
+     */
+    public void acquire() {
+        long now = System.nanoTime();
+        nextTokenNanos = Math.max(nextTokenNanos, now - origin - burstNanos);
+
+        long due = origin + (long) nextTokenNanos;
+        nextTokenNanos += nanosPerToken;
+
+        long wait = due - now;
+        if (wait > SPIN_NANOS) {
+            LockSupport.parkNanos(wait - SPIN_NANOS);
+        }
+        while (wait > 0) {
+            wait = due - System.nanoTime();
+        }
+    }
+}
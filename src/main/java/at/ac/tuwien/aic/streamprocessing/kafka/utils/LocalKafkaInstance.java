@@ -27,7 +27,7 @@ public class LocalKafkaInstance {
     private final static Logger logger = LoggerFactory.getLogger(LocalKafkaInstance.class);
     private final static String TMP_LOG_PREFIX = "aic-stream";
 
-    private final static int PARTITIONS = 3;
+    public final static int PARTITIONS = 3;
 
     private final int kafka_port;
     private final int zookeeper_port;
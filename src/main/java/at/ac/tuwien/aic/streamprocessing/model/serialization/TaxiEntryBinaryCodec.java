@@ -0,0 +1,90 @@
+package at.ac.tuwien.aic.streamprocessing.model.serialization;
+
+import java.nio.ByteBuffer;
+
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
+
+/**
+ * Fixed-width binary encoding of a single taxi entry.
+ *
+ * A record is 29 bytes (big endian): format version (byte), taxi id (int), timestamp in epoch seconds (long), latitude (double) and longitude (double). The
+ * version byte is never a valid Base64 character, which allows consumers to tell binary records apart from the Java serialization based format.
+ */
+public final class TaxiEntryBinaryCodec {
+    public static final byte VERSION = 1;
+    public static final int RECORD_SIZE = 29;
+
+    public static final int ID_OFFSET = 1;
+    public static final int TIMESTAMP_OFFSET = 5;
+    public static final int LATITUDE_OFFSET = 13;
+    public static final int LONGITUDE_OFFSET = 21;
+
+    private TaxiEntryBinaryCodec() {
+
+    }
+
+    /**
+     * Checks whether the remaining bytes of the given buffer hold a binary encoded taxi entry.
+     *
+     * @param buffer
+     *            the buffer to check, its position is not modified
+     * @return true if the buffer holds a binary record
+     */
+    public static boolean isBinary(ByteBuffer buffer) {
+        return buffer.remaining() == RECORD_SIZE && buffer.get(buffer.position()) == VERSION;
+    }
+
+    /**
+     * Encodes a taxi entry into a new byte[].
+     *
+     * @param entry
+     *            the entry to encode
+     * @return the encoded record
+     */
+    public static byte[] encode(TaxiEntry entry) {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        encode(entry, buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Writes a taxi entry at the current position of the given buffer and advances it by {@link #RECORD_SIZE} bytes.
+     *
+     * @param entry
+     *            the entry to encode
+     * @param target
+     *            the buffer to write to
+     */
+    public static void encode(TaxiEntry entry, ByteBuffer target) {
+        target.put(VERSION);
+        target.putInt(entry.getTaxiId());
+        target.putLong(Timestamp.toEpochSecond(entry.getTimestamp()));
+        target.putDouble(entry.getLatitude());
+        target.putDouble(entry.getLongitude());
+    }
+
+    /**
+     * Decodes the taxi entry starting at the current position of the given buffer. The position of the buffer is not modified.
+     *
+     * @param source
+     *            the buffer to read from
+     * @return the decoded entry
+     * @throws IllegalArgumentException
+     *             if the record was written with an unknown format version
+     */
+    public static TaxiEntry decode(ByteBuffer source) {
+        int offset = source.position();
+        byte version = source.get(offset);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported taxi entry format version " + version);
+        }
+
+        int taxiId = source.getInt(offset + ID_OFFSET);
+        long epochSecond = source.getLong(offset + TIMESTAMP_OFFSET);
+        double latitude = source.getDouble(offset + LATITUDE_OFFSET);
+        double longitude = source.getDouble(offset + LONGITUDE_OFFSET);
+
+        return new TaxiEntry(taxiId, Timestamp.fromEpochSecond(epochSecond), latitude, longitude);
+    }
+}
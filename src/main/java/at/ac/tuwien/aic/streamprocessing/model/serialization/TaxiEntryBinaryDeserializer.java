@@ -0,0 +1,51 @@
+package at.ac.tuwien.aic.streamprocessing.model.serialization;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+
+/**
+ * Deserializer for taxi entries written by {@link TaxiEntryBinarySerializer}.
+ */
+public class TaxiEntryBinaryDeserializer implements Deserializer<TaxiEntry> {
+    private final static Logger logger = LoggerFactory.getLogger(TaxiEntryBinaryDeserializer.class);
+
+    /**
+     * Deserialize a taxi entry.
+     *
+     * @param bytes
+     *            the bytes to deserialize.
+     * @return the corresponding taxi entry or null if the bytes are no valid record
+     */
+    public static TaxiEntry deserialize(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (!TaxiEntryBinaryCodec.isBinary(buffer)) {
+            logger.error("Failed to deserialize TaxiEntry, got " + bytes.length + " bytes which are not a binary record");
+            return null;
+        }
+        return TaxiEntryBinaryCodec.decode(buffer);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+
+    }
+
+    @Override
+    public TaxiEntry deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return deserialize(data);
+    }
+
+    @Override
+    public void close() {
+
+    }
+}
@@ -0,0 +1,38 @@
+package at.ac.tuwien.aic.streamprocessing.model.serialization;
+
+import java.util.Map;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+
+/**
+ * Serializer for taxi entries using the fixed-width format of {@link TaxiEntryBinaryCodec}.
+ */
+public class TaxiEntryBinarySerializer implements Serializer<TaxiEntry> {
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+
+    }
+
+    /**
+     * Serialize taxi entry to byte[].
+     *
+     * @param data
+     *            the entry which to serialize
+     * @return the resulting byte[]
+     */
+    @Override
+    public byte[] serialize(String topic, TaxiEntry data) {
+        if (data == null) {
+            return null;
+        }
+        return TaxiEntryBinaryCodec.encode(data);
+    }
+
+    @Override
+    public void close() {
+
+    }
+}
@@ -0,0 +1,169 @@
+package at.ac.tuwien.aic.streamprocessing.model.serialization;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
+
+/**
+ * Packs many taxi entries into one record.
+ *
+ * A pack starts with the format version (byte) and the number of entries (varint). Each entry is stored as the difference to its predecessor (the first one
+ * to zero) of taxi id, epoch second, latitude and longitude, all as zig-zag encoded varints. Coordinates are stored as fixed-point integers with
+ * {@link #COORDINATE_SCALE} units per degree, i.e. anything beyond the 6th decimal place is rounded.
+ */
+public final class TaxiEntryPackCodec {
+    public static final byte VERSION = 2;
+    public static final double COORDINATE_SCALE = 1e6;
+
+    // version + count + worst case of 4 varints per entry
+    private static final int MAX_HEADER_SIZE = 1 + 5;
+    private static final int MAX_ENTRY_SIZE = 4 * 10;
+
+    private TaxiEntryPackCodec() {
+
+    }
+
+    /**
+     * Receives the entries of a pack one after the other.
+     */
+    public interface EntryVisitor {
+        void visit(int taxiId, long epochSecond, double latitude, double longitude);
+    }
+
+    /**
+     * Checks whether the remaining bytes of the given buffer hold a pack.
+     *
+     * @param buffer
+     *            the buffer to check, its position is not modified
+     * @return true if the buffer holds a pack
+     */
+    public static boolean isPacked(ByteBuffer buffer) {
+        return buffer.remaining() > 1 && buffer.get(buffer.position()) == VERSION;
+    }
+
+    /**
+     * Encodes the given entries into one pack.
+     *
+     * @param entries
+     *            the entries, best ordered by time as this keeps the timestamp deltas small
+     * @return the encoded pack
+     */
+    public static byte[] encode(List<TaxiEntry> entries) {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_HEADER_SIZE + entries.size() * MAX_ENTRY_SIZE);
+        buffer.put(VERSION);
+        writeVarint(buffer, entries.size());
+
+        long previousId = 0;
+        long previousSecond = 0;
+        long previousLatitude = 0;
+        long previousLongitude = 0;
+
+        for (TaxiEntry entry : entries) {
+            long id = entry.getTaxiId();
+            long second = Timestamp.toEpochSecond(entry.getTimestamp());
+            long latitude = toFixedPoint(entry.getLatitude());
+            long longitude = toFixedPoint(entry.getLongitude());
+
+            writeVarint(buffer, zigZag(id - previousId));
+            writeVarint(buffer, zigZag(second - previousSecond));
+            writeVarint(buffer, zigZag(latitude - previousLatitude));
+            writeVarint(buffer, zigZag(longitude - previousLongitude));
+
+            previousId = id;
+            previousSecond = second;
+            previousLatitude = latitude;
+            previousLongitude = longitude;
+        }
+
+        byte[] pack = new byte[buffer.position()];
+        buffer.flip();
+        buffer.get(pack);
+        return pack;
+    }
+
+    /**
+     * Decodes the pack starting at the current position of the given buffer without creating objects per entry. The position of the buffer is not modified.
+     *
+     * @param source
+     *            the buffer to read from
+     * @param visitor
+     *            the visitor receiving the entries in the order they were packed
+     * @throws IllegalArgumentException
+     *             if the buffer does not start with a pack
+     */
+    public static void decode(ByteBuffer source, EntryVisitor visitor) {
+        ByteBuffer buffer = source.duplicate();
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported taxi entry pack version " + version);
+        }
+
+        long count = readVarint(buffer);
+
+        long id = 0;
+        long second = 0;
+        long latitude = 0;
+        long longitude = 0;
+
+        for (long i = 0; i < count; i++) {
+            id += unZigZag(readVarint(buffer));
+            second += unZigZag(readVarint(buffer));
+            latitude += unZigZag(readVarint(buffer));
+            longitude += unZigZag(readVarint(buffer));
+
+            visitor.visit((int) id, second, latitude / COORDINATE_SCALE, longitude / COORDINATE_SCALE);
+        }
+    }
+
+    /**
+     * Decodes the pack starting at the current position of the given buffer.
+     *
+     * @param source
+     *            the buffer to read from
+     * @return the packed entries
+     */
+    public static List<TaxiEntry> decode(ByteBuffer source) {
+        List<TaxiEntry> entries = new ArrayList<>();
+        decode(source, (taxiId, epochSecond, latitude, longitude) -> entries
+                .add(new TaxiEntry(taxiId, Timestamp.fromEpochSecond(epochSecond), latitude, longitude)));
+        return entries;
+    }
+
+    private static long toFixedPoint(double degrees) {
+        return Math.round(degrees * COORDINATE_SCALE);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 63) {
+                throw new IllegalArgumentException("Malformed varint in taxi entry pack");
+            }
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
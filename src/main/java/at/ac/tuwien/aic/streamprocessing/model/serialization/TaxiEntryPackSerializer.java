@@ -0,0 +1,32 @@
+package at.ac.tuwien.aic.streamprocessing.model.serialization;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+
+/**
+ * Serializer for lists of taxi entries using the packed format of {@link TaxiEntryPackCodec}.
+ */
+public class TaxiEntryPackSerializer implements Serializer<List<TaxiEntry>> {
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+
+    }
+
+    @Override
+    public byte[] serialize(String topic, List<TaxiEntry> data) {
+        if (data == null) {
+            return null;
+        }
+        return TaxiEntryPackCodec.encode(data);
+    }
+
+    @Override
+    public void close() {
+
+    }
+}
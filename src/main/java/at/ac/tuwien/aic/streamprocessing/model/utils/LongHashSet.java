@@ -0,0 +1,132 @@
+package at.ac.tuwien.aic.streamprocessing.model.utils;
+
+import java.util.Arrays;
+
+/**
+ * Set of primitive longs using open addressing with linear probing, so adding and looking up keys neither boxes them nor allocates entries.
+ *
+ * Instances are not thread-safe.
+ */
+public class LongHashSet {
+    private static final long EMPTY = 0L;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] table;
+    private int mask;
+    private int size;
+    private boolean containsEmpty;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Instantiates a new LongHashSet.
+     *
+     * @param expectedSize
+     *            the number of keys which can be added without resizing the table
+     */
+    public LongHashSet(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Adds the given key.
+     *
+     * @param key
+     *            the key
+     * @return true if the key was not contained before
+     */
+    public boolean add(long key) {
+        if (key == EMPTY) {
+            if (containsEmpty) {
+                return false;
+            }
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+
+        int index = indexOf(key);
+        if (table[index] == key) {
+            return false;
+        }
+
+        table[index] = key;
+        if (++size > table.length / 2) {
+            rehash(table.length * 2);
+        }
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == EMPTY) {
+            return containsEmpty;
+        }
+        return table[indexOf(key)] == key;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all keys. The table keeps its capacity unless it is much larger than the number of removed keys, in which case it shrinks, so a set which
+     * is reused for batches of varying size is not cleared at the cost of its largest batch.
+     */
+    public void clear() {
+        int capacity = capacityFor(size);
+        if (table.length > capacity * 4) {
+            allocate(capacity);
+        } else if (size > 0) {
+            Arrays.fill(table, EMPTY);
+        }
+        size = 0;
+        containsEmpty = false;
+    }
+
+    private int indexOf(long key) {
+        int index = hash(key) & mask;
+        while (table[index] != EMPTY && table[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = table;
+        allocate(capacity);
+        for (long key : old) {
+            if (key != EMPTY) {
+                table[indexOf(key)] = key;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity / 2 < expectedSize) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+
+    private static int hash(long key) {
+        // finalizer of murmur3, spreads keys which only differ in their upper or lower bits
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
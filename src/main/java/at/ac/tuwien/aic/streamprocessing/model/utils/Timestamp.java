@@ -1,6 +1,7 @@
 package at.ac.tuwien.aic.streamprocessing.model.utils;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 
 public class Timestamp {
@@ -13,4 +14,81 @@ public class Timestamp {
     public static String toString(LocalDateTime dt) {
         return dateTimeFormatter.format(dt);
     }
+
+    /**
+     * Converts the given timestamp to seconds since the epoch. Timestamps carry no zone, so UTC is used in both directions.
+     *
+     * @param dt
+     *            the timestamp
+     * @return the seconds since 1970-01-01 00:00:00
+     */
+    public static long toEpochSecond(LocalDateTime dt) {
+        return dt.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static LocalDateTime fromEpochSecond(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Converts the fields of a timestamp to seconds since the epoch without creating a {@link LocalDateTime}. The fields are not validated.
+     *
+     * @return the seconds since 1970-01-01 00:00:00, equal to toEpochSecond(LocalDateTime.of(year, month, day, hour, minute, second))
+     */
+    public static long toEpochSecond(int year, int month, int day, int hour, int minute, int second) {
+        // days since epoch from civil date, see http://howardhinnant.github.io/date_algorithms.html#days_from_civil
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        long days = era * 146097 + dayOfEra - 719468;
+
+        return days * 86400L + hour * 3600L + minute * 60L + second;
+    }
+
+    /**
+     * Formats seconds since the epoch as "yyyy-MM-dd HH:mm:ss" without going through {@link LocalDateTime} and {@link DateTimeFormatter}.
+     *
+     * @param epochSecond
+     *            the seconds since 1970-01-01 00:00:00, years before 0 or after 9999 are not supported
+     * @return the formatted timestamp, equal to toString(fromEpochSecond(epochSecond))
+     */
+    public static String toString(long epochSecond) {
+        long days = Math.floorDiv(epochSecond, 86400L);
+        int secondOfDay = (int) Math.floorMod(epochSecond, 86400L);
+
+        // civil date from days since epoch, see http://howardhinnant.github.io/date_algorithms.html#civil_from_days
+        long z = days + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+        char[] chars = new char[19];
+        writeDigits(chars, 0, year, 4);
+        chars[4] = '-';
+        writeDigits(chars, 5, month, 2);
+        chars[7] = '-';
+        writeDigits(chars, 8, day, 2);
+        chars[10] = ' ';
+        writeDigits(chars, 11, secondOfDay / 3600, 2);
+        chars[13] = ':';
+        writeDigits(chars, 14, (secondOfDay / 60) % 60, 2);
+        chars[16] = ':';
+        writeDigits(chars, 17, secondOfDay % 60, 2);
+
+        return new String(chars);
+    }
+
+    private static void writeDigits(char[] chars, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
 }
@@ -0,0 +1,209 @@
+package at.ac.tuwien.aic.streamprocessing.storm;
+
+import org.apache.storm.Config;
+import org.apache.storm.LocalCluster;
+import org.apache.storm.generated.StormTopology;
+import org.apache.storm.kafka.KafkaSpout;
+import org.apache.storm.kafka.SpoutConfig;
+import org.apache.storm.kafka.ZkHosts;
+import org.apache.storm.topology.TopologyBuilder;
+import org.apache.storm.trident.operation.BaseFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.ac.tuwien.aic.streamprocessing.kafka.utils.LocalKafkaInstance;
+import at.ac.tuwien.aic.streamprocessing.storm.bolt.FilterBolt;
+import at.ac.tuwien.aic.streamprocessing.storm.bolt.TaxiStateBolt;
+import at.ac.tuwien.aic.streamprocessing.storm.spout.TaxiEntryPackScheme;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.dashboard.DrivingTaxiFilter;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.dashboard.SpeedingNotifier;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.dashboard.optimization.OptimizedAreaLeavingNotifierAndLocationPropagator;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TaxiFields;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+
+/**
+ * The alerting part of the processing on core Storm, which processes each tuple on arrival instead of waiting for a Trident batch:
+ *
+ * <pre>
+ * kafka-spout -> driving-filter -> location
+ *                               -> taxi-state -> speeding
+ * </pre>
+ *
+ * The bolts after the spout are grouped by taxi id and reuse the Trident operators, see {@link FilterBolt} and {@link TaxiStateBolt}. Tuples are
+ * anchored and acked, so a tuple which fails or times out is replayed by the spout (at least once). The fleet statistics and the information for the
+ * RedisMonitor are left to the {@link ProcessingTopology}.
+ */
+public class CoreProcessingTopology {
+    private final Logger logger = LoggerFactory.getLogger(CoreProcessingTopology.class);
+
+    private static final String SPOUT_ID = "kafka-spout";
+
+    public static final int DEFAULT_PARALLELISM = 3;
+    public static final int DEFAULT_MAX_SPOUT_PENDING = 5000;
+
+    private final String topic;
+    private final String dashboardAddress;
+    private final int parallelism;
+    private final BaseFilter speedTupleListener;
+
+    private TimestampMode timestampMode = TimestampMode.FORMATTED;
+    private int maxSpoutPending = DEFAULT_MAX_SPOUT_PENDING;
+
+    private LocalKafkaInstance localKafkaInstance;
+    private LocalCluster cluster;
+
+    private boolean stopped = false;
+
+    public CoreProcessingTopology(String topic, String dashboardAddress, int parallelism) {
+        this(topic, dashboardAddress, parallelism, null);
+    }
+
+    /**
+     * @param speedTupleListener
+     *            optional filter receiving the speed tuples once they were checked for speeding
+     */
+    public CoreProcessingTopology(String topic, String dashboardAddress, int parallelism, BaseFilter speedTupleListener) {
+        this.topic = topic;
+        this.dashboardAddress = dashboardAddress;
+        this.parallelism = parallelism;
+        this.speedTupleListener = speedTupleListener;
+    }
+
+    public StormTopology build() {
+        TopologyBuilder builder = new TopologyBuilder();
+
+        builder.setSpout(SPOUT_ID, buildKafkaSpout(), LocalKafkaInstance.PARTITIONS);
+
+        // drop stop tokens and notify the dashboard of them
+        builder.setBolt("driving-filter", new FilterBolt(new DrivingTaxiFilter(dashboardAddress), TaxiFields.BASE_FIELDS), parallelism)
+                .fieldsGrouping(SPOUT_ID, TaxiFields.ID_ONLY_FIELDS);
+
+        // notify dashboard of occurring area violations and propagate location information
+        builder.setBolt("location", new FilterBolt(new OptimizedAreaLeavingNotifierAndLocationPropagator(dashboardAddress), TaxiFields.BASE_FIELDS),
+                parallelism).fieldsGrouping("driving-filter", TaxiFields.ID_ONLY_FIELDS);
+
+        builder.setBolt("taxi-state", new TaxiStateBolt(), parallelism).fieldsGrouping("driving-filter", TaxiFields.ID_ONLY_FIELDS);
+
+        // notify dashboard if vehicle is speeding
+        builder.setBolt("speeding", new FilterBolt(new SpeedingNotifier(dashboardAddress), TaxiFields.CALCULATE_SPEED_OUTPUT_FIELDS), parallelism)
+                .localOrShuffleGrouping("taxi-state");
+
+        if (speedTupleListener != null) {
+            builder.setBolt("speed-listener", new FilterBolt(speedTupleListener, TaxiFields.CALCULATE_SPEED_OUTPUT_FIELDS), parallelism)
+                    .localOrShuffleGrouping("speeding");
+        }
+
+        return builder.createTopology();
+    }
+
+    private KafkaSpout buildKafkaSpout() {
+        ZkHosts zkHosts;
+        if (localKafkaInstance == null) {
+            zkHosts = new ZkHosts("localhost");
+        } else {
+            zkHosts = new ZkHosts(localKafkaInstance.getConnectString());
+        }
+        SpoutConfig spoutConfig = new SpoutConfig(zkHosts, topic, "/" + topic, SPOUT_ID);
+        spoutConfig.scheme = new TaxiEntryPackScheme(timestampMode);
+        return new KafkaSpout(spoutConfig);
+    }
+
+    /**
+     * Sets the representation of the timestamp field, has to be called before the topology is built.
+     */
+    public void setTimestampMode(TimestampMode timestampMode) {
+        this.timestampMode = timestampMode;
+    }
+
+    /**
+     * Sets the maximum number of tuples per spout task which are emitted but not yet acked.
+     */
+    public void setMaxSpoutPending(int maxSpoutPending) {
+        this.maxSpoutPending = maxSpoutPending;
+    }
+
+    public LocalKafkaInstance getKafkaInstance() {
+        return localKafkaInstance;
+    }
+
+    public void submitLocalCluster() {
+        Config conf = new Config();
+        conf.setDebug(false);
+        conf.setMaxSpoutPending(maxSpoutPending);
+        conf.put(TimestampMode.CONFIG_KEY, timestampMode.name());
+
+        startKafka();
+
+        logger.info("Submitting core topology with parallelism " + parallelism + ", max spout pending " + maxSpoutPending + ", timestampMode "
+                + timestampMode);
+        cluster = new LocalCluster();
+        cluster.submitTopology("core-processing", conf, build());
+    }
+
+    public void stop() {
+        if (stopped) {
+            return;
+        }
+
+        stopped = true;
+
+        try {
+            cluster.shutdown();
+            stopKafka();
+        } catch (Exception e) {
+            logger.error("Failed to stop cluster.", e);
+            System.exit(1);
+        }
+    }
+
+    private void startKafka() {
+        localKafkaInstance = new LocalKafkaInstance(9092, 2000);
+
+        try {
+            localKafkaInstance.start();
+        } catch (Exception e) {
+            logger.error("Caught exception while starting kafka. Aborting", e);
+            System.exit(1);
+        }
+
+        localKafkaInstance.createTopic(topic);
+    }
+
+    private void stopKafka() {
+        try {
+            localKafkaInstance.stop();
+        } catch (Exception e) {
+            logger.error("Caught exception while stopping kafka. Ignoring.", e);
+        }
+    }
+
+    /**
+     * Runs the topology in a local cluster until the JVM shuts down.
+     *
+     * @param args
+     *            the flag epoch, parallelism=n and maxSpoutPending=n
+     */
+    public static void main(String[] args) throws Exception {
+        int parallelism = DEFAULT_PARALLELISM;
+        int maxSpoutPending = DEFAULT_MAX_SPOUT_PENDING;
+        TimestampMode timestampMode = TimestampMode.FORMATTED;
+        for (String arg : args) {
+            if (arg.equals("epoch")) {
+                timestampMode = TimestampMode.EPOCH_MILLIS;
+            } else if (arg.startsWith("parallelism=")) {
+                parallelism = Integer.parseInt(arg.substring("parallelism=".length()));
+            } else if (arg.startsWith("maxSpoutPending=")) {
+                maxSpoutPending = Integer.parseInt(arg.substring("maxSpoutPending=".length()));
+            }
+        }
+
+        CoreProcessingTopology topology = new CoreProcessingTopology("taxi", "http://127.0.0.1:3000", parallelism);
+        topology.setTimestampMode(timestampMode);
+        topology.setMaxSpoutPending(maxSpoutPending);
+        try {
+            topology.submitLocalCluster();
+        } finally {
+            Runtime.getRuntime().addShutdownHook(new Thread(topology::stop));
+        }
+    }
+}
@@ -0,0 +1,645 @@
+package at.ac.tuwien.aic.streamprocessing.storm;
+
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.storm.Config;
+import org.apache.storm.LocalCluster;
+import org.apache.storm.StormSubmitter;
+import org.apache.storm.generated.AlreadyAliveException;
+import org.apache.storm.generated.AuthorizationException;
+import org.apache.storm.generated.InvalidTopologyException;
+import org.apache.storm.generated.StormTopology;
+import org.apache.storm.kafka.ZkHosts;
+import org.apache.storm.kafka.trident.OpaqueTridentKafkaSpout;
+import org.apache.storm.kafka.trident.TridentKafkaConfig;
+import org.apache.storm.metric.LoggingMetricsConsumer;
+import org.apache.storm.trident.Stream;
+import org.apache.storm.trident.TridentState;
+import org.apache.storm.trident.TridentTopology;
+import org.apache.storm.trident.operation.Aggregator;
+import org.apache.storm.trident.operation.BaseFilter;
+import org.apache.storm.trident.spout.IBatchSpout;
+import org.apache.storm.trident.spout.IOpaquePartitionedTridentSpout;
+import org.apache.storm.trident.testing.MemoryMapState;
+import org.apache.storm.tuple.Fields;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.ac.tuwien.aic.streamprocessing.kafka.producer.TaxiIdPartitioner;
+import at.ac.tuwien.aic.streamprocessing.kafka.utils.LocalKafkaInstance;
+import at.ac.tuwien.aic.streamprocessing.storm.TopologyConfiguration.Fusion;
+import at.ac.tuwien.aic.streamprocessing.storm.TopologyConfiguration.SpoutType;
+import at.ac.tuwien.aic.streamprocessing.storm.TopologyConfiguration.StateBackend;
+import at.ac.tuwien.aic.streamprocessing.storm.spout.AdaptiveKafkaSpout;
+import at.ac.tuwien.aic.streamprocessing.storm.spout.BatchSizeController;
+import at.ac.tuwien.aic.streamprocessing.storm.spout.TaxiEntryBatchSpout;
+import at.ac.tuwien.aic.streamprocessing.storm.spout.TaxiEntryPackScheme;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.aggregators.AttachTransactionId;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.aggregators.CalculateAverageSpeed;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.aggregators.CalculateDistance;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.aggregators.CalculateSpeed;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.aggregators.CalculateTaxiState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.aggregators.CountAndDistanceAggregator;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.aggregators.ReorderBuffer;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.dashboard.AreaLeavingNotifier;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.dashboard.DashboardDispatcher;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.dashboard.DrivingTaxiFilter;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.dashboard.PropagateInformation;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.dashboard.PropagateLocation;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.dashboard.SpeedingNotifier;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.dashboard.optimization.OptimizedAreaLeavingNotifierAndLocationPropagator;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.dashboard.optimization.OptimizedCalculateSpeedAndSpeedingNotifier;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.persist.InfoType;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.persist.StoreInformation;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.CachedState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.KeyValueState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.MemoryState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.RedisEncoding;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.RedisLayout;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.RedisState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.StateFactory;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.StateUpdater;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.averageSpeed.AverageSpeedState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.averageSpeed.AvgSpeedQuery;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.distance.DistanceQuery;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.distance.DistanceState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed.SpeedState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed.SpeedStateQuery;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.taxi.TaxiState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.taxi.TaxiStateQuery;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.util.RedisConnectionPool;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.util.performance.TupleSpeedMonitor;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TaxiFields;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+import redis.clients.jedis.Jedis;
+import redis.embedded.RedisServer;
+
+/**
+ * The taxi processing topology, assembled according to a {@link TopologyConfiguration}, together with the local kafka and redis instances it runs
+ * against.
+ */
+public class ProcessingTopology {
+    private final Logger logger = LoggerFactory.getLogger(ProcessingTopology.class);
+
+    private static final String SPOUT_ID = "kafka-spout";
+    private static final String BATCH_SPOUT_ID = "batch-spout";
+
+    // the in-process spout has no fetch latency to hide, emit its batches back to back
+    private static final int BATCH_SPOUT_EMIT_INTERVAL_MILLIS = 1;
+
+    private final String topic;
+
+    private final String redisHost;
+    private final int redisPort;
+
+    private final String dashboardAddress;
+
+    private final BaseFilter speedTupleListener;
+    private final BaseFilter avgSpeedTupleListener;
+    private final BaseFilter distanceTupleListener;
+
+    private final TopologyConfiguration configuration;
+
+    private LocalKafkaInstance localKafkaInstance;
+    private RedisServer localRedisServer;
+    private LocalCluster cluster;
+
+    private IBatchSpout batchSpout;
+
+    private boolean stopped = false;
+
+    public ProcessingTopology(String topic, String redisHost, int redisPort, String dashboardAddress, TopologyConfiguration configuration) {
+        this(topic, redisHost, redisPort, dashboardAddress, configuration, null, null, null);
+    }
+
+    public ProcessingTopology(String topic, String redisHost, int redisPort, String dashboardAddress, TopologyConfiguration configuration,
+            BaseFilter speedTupleListener, BaseFilter avgSpeedTupleListener, BaseFilter distanceTupleListener) {
+        this.topic = topic;
+        this.redisHost = redisHost;
+        this.redisPort = redisPort;
+        this.dashboardAddress = dashboardAddress;
+        this.configuration = configuration;
+        this.speedTupleListener = speedTupleListener;
+        this.avgSpeedTupleListener = avgSpeedTupleListener;
+        this.distanceTupleListener = distanceTupleListener;
+    }
+
+    public void stop() {
+        if (stopped) {
+            return;
+        }
+
+        stopped = true;
+
+        try {
+            if (localRedisServer != null) {
+                cleanUpRedis();
+            }
+            cluster.shutdown();
+            RedisConnectionPool.closeAll();
+            DashboardDispatcher.closeInstance();
+            CachedState.clearAll();
+            MemoryState.clearAll();
+            stopKafka();
+            if (localRedisServer != null) {
+                stopRedisServer();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to stop cluster.", e);
+            System.exit(1);
+        }
+    }
+
+    private void stopRedisServer() {
+        localRedisServer.stop();
+    }
+
+    private void startRedis() {
+        try {
+            if (configuration.getRedisLayout() == RedisLayout.HASH) {
+                localRedisServer = RedisServer.builder().port(redisPort).setting(RedisLayout.ZIPLIST_VALUE_SETTING).build();
+            } else {
+                localRedisServer = new RedisServer(redisPort);
+            }
+            localRedisServer.start();
+        } catch (Exception e) {
+            logger.error("Caught exception while starting redis. Aborting", e);
+            System.exit(1);
+        }
+    }
+
+    private void cleanUpRedis() {
+        try {
+            Jedis jedis = new Jedis(redisHost, redisPort);
+            jedis.connect();
+            jedis.flushDB();
+            jedis.disconnect();
+            jedis.close();
+        } catch (Exception e) {
+            logger.error("Caught exception while cleaning up redis database. Ignoring", e);
+        }
+    }
+
+    private void startKafka() {
+        localKafkaInstance = new LocalKafkaInstance(9092, 2000);
+
+        try {
+            localKafkaInstance.start();
+        } catch (Exception e) {
+            logger.error("Caught exception while starting kafka. Aborting", e);
+            System.exit(1);
+        }
+
+        localKafkaInstance.createTopic(topic);
+    }
+
+    private void stopKafka() {
+        if (localKafkaInstance == null) {
+            return;
+        }
+
+        try {
+            localKafkaInstance.stop();
+        } catch (Exception e) {
+            logger.error("Caught exception while stopping kafka. Ignoring.", e);
+        }
+    }
+
+    private boolean usesBatchSpout() {
+        return batchSpout != null || configuration.getSpoutType() == SpoutType.BATCH;
+    }
+
+    private boolean usesRedis() {
+        return configuration.getStateBackend() == StateBackend.REDIS || configuration.isStoreInformation() || configuration.isBenchmark();
+    }
+
+    public StormTopology build() {
+        TridentTopology topology = new TridentTopology();
+
+        // setup topology
+        Stream inputStream;
+        int processingParallelism = configuration.getProcessingParallelism();
+        if (usesBatchSpout()) {
+            inputStream = topology.newStream(BATCH_SPOUT_ID, getBatchSpout()).partitionBy(TaxiFields.ID_ONLY_FIELDS);
+        } else if (configuration.isAlignedPartitions()) {
+            // the producer already partitioned the taxis by id, keep them at the spout task reading their partition
+            inputStream = topology.newStream(SPOUT_ID, buildKafkaSpout()).parallelismHint(LocalKafkaInstance.PARTITIONS);
+            processingParallelism = LocalKafkaInstance.PARTITIONS;
+        } else {
+            inputStream = topology.newStream(SPOUT_ID, buildKafkaSpout()).parallelismHint(configuration.getSpoutParallelism())
+                    .partitionBy(TaxiFields.ID_ONLY_FIELDS);
+        }
+
+        if (configuration.isBenchmark()) {
+            inputStream = inputStream.filter(new TupleSpeedMonitor("spout", redisHost, redisPort));
+        }
+
+        if (configuration.getAllowedLatenessMillis() >= 0) {
+            // relies on the partitioning by taxi id
+            inputStream = inputStream.partitionAggregate(TaxiFields.BASE_FIELDS, new ReorderBuffer(configuration.getAllowedLatenessMillis()),
+                    TaxiFields.BASE_FIELDS);
+        }
+
+        inputStream = inputStream.filter(new DrivingTaxiFilter(dashboardAddress)).parallelismHint(processingParallelism);
+
+        if (configuration.isFused(Fusion.LOCATION)) {
+            // notify dashboard of occurring area violations and propagate location information
+            inputStream.each(TaxiFields.BASE_FIELDS, new OptimizedAreaLeavingNotifierAndLocationPropagator(dashboardAddress));
+        } else {
+            // propagate location information
+            inputStream.each(TaxiFields.BASE_FIELDS, new PropagateLocation(dashboardAddress));
+
+            // notify dashboard of occurring area violations
+            inputStream.each(TaxiFields.BASE_FIELDS, new AreaLeavingNotifier(dashboardAddress));
+        }
+
+        Stream avgSpeedStream;
+        Stream distanceStream;
+        if (configuration.isFused(Fusion.STATE)) {
+            Stream taxiStream = buildTaxiStateStream(topology, inputStream);
+            avgSpeedStream = taxiStream;
+            distanceStream = taxiStream;
+        } else {
+            avgSpeedStream = buildAverageSpeedStream(topology, buildSpeedStream(topology, inputStream));
+            distanceStream = buildDistanceStream(topology, inputStream);
+        }
+
+        // aggregate amount of taxis + overall distance and propagate to
+        // dashboard
+        distanceStream = distanceStream.persistentAggregate(new MemoryMapState.Factory(), TaxiFields.INFORMATION_INPUT_FIELDS, new CountAndDistanceAggregator(),
+                TaxiFields.INFORMATION_OUTPUT_FIELDS).newValuesStream();
+
+        distanceStream.filter(TaxiFields.INFORMATION_OUTPUT_FIELDS, new PropagateInformation(dashboardAddress));
+
+        if (configuration.isBenchmark()) {
+            avgSpeedStream.filter(new TupleSpeedMonitor("final", redisHost, redisPort));
+        }
+
+        return topology.build();
+    }
+
+    private Stream buildSpeedStream(TridentTopology topology, Stream inputStream) {
+        // setup speed aggregator
+        Aggregator<?> calculateSpeed = configuration.isFused(Fusion.SPEED) ? new OptimizedCalculateSpeedAndSpeedingNotifier(dashboardAddress)
+                : new CalculateSpeed();
+        TridentState speed = topology.newStaticState(createStateFactory("speed"));
+        Stream speedStream = withTransactionId(stage(inputStream, configuration.getSpeedParallelism())).stateQuery( // query the state for each taxi id
+                speed, queryFields(), new SpeedStateQuery(), TaxiFields.SPEED_STATE_FIELDS).partitionAggregate( // batch-process entries
+                        TaxiFields.CALCULATE_SPEED_INPUT_FIELDS, calculateSpeed, TaxiFields.CALCULATE_SPEED_OUTPUT_FIELDS);
+
+        // update the new speed states
+        speedStream.partitionPersist(createStateFactory("speed"), TaxiFields.CALCULATE_SPEED_OUTPUT_FIELDS, new StateUpdater<KeyValueState<SpeedState>>());
+
+        if (speedTupleListener != null) {
+            speedStream = speedStream.each(TaxiFields.CALCULATE_SPEED_OUTPUT_FIELDS, speedTupleListener);
+        }
+
+        if (!configuration.isFused(Fusion.SPEED)) {
+            // notify dashboard if vehicle is speeding
+            speedStream.each(TaxiFields.CALCULATE_SPEED_OUTPUT_FIELDS, new SpeedingNotifier(dashboardAddress));
+        }
+        parallelize(speedStream, configuration.getSpeedParallelism());
+
+        return speedStream;
+    }
+
+    private Stream buildAverageSpeedStream(TridentTopology topology, Stream speedStream) {
+        // setup average speed aggregator
+        TridentState avgSpeed = topology.newStaticState(createStateFactory("avgSpeed"));
+        Stream avgSpeedStream = withTransactionId(stage(speedStream, configuration.getAverageSpeedParallelism())).stateQuery( // query the state for each taxi id
+                avgSpeed, queryFields(), new AvgSpeedQuery(), TaxiFields.AVG_SPEED_STATE_FIELDS).partitionAggregate( // batch-process entries
+                        TaxiFields.AVG_SPEED_INPUT_FIELDS, new CalculateAverageSpeed(), TaxiFields.AVG_SPEED_OUTPUT_FIELDS);
+
+        // update the new average speed states
+        avgSpeedStream.partitionPersist(createStateFactory("avgSpeed"), TaxiFields.AVG_SPEED_OUTPUT_FIELDS,
+                new StateUpdater<KeyValueState<AverageSpeedState>>());
+
+        if (avgSpeedTupleListener != null) {
+            avgSpeedStream = avgSpeedStream.each(TaxiFields.AVG_SPEED_OUTPUT_FIELDS, avgSpeedTupleListener);
+        }
+
+        if (configuration.isStoreInformation()) {
+            // forward average speed to redis
+            avgSpeedStream.each(TaxiFields.AVG_SPEED_OUTPUT_FIELDS, new StoreInformation(InfoType.AVERAGE_SPEED, redisHost, redisPort));
+        }
+        parallelize(avgSpeedStream, configuration.getAverageSpeedParallelism());
+
+        return avgSpeedStream;
+    }
+
+    private Stream buildDistanceStream(TridentTopology topology, Stream inputStream) {
+        // setup distance aggregator
+        TridentState distance = topology.newStaticState(createStateFactory("distance"));
+        Stream distanceStream = withTransactionId(stage(inputStream, configuration.getDistanceParallelism())).stateQuery( // query the state for each taxi id
+                distance, queryFields(), new DistanceQuery(), TaxiFields.DISTANCE_STATE_FIELDS).partitionAggregate( // batch-process entries
+                        TaxiFields.CALCULATE_DISTANCE_INPUT_FIELDS, new CalculateDistance(), TaxiFields.CALCULATE_DISTANCE_OUTPUT_FIELDS);
+
+        // update the new distance states
+        distanceStream.partitionPersist(createStateFactory("distance"), TaxiFields.CALCULATE_DISTANCE_OUTPUT_FIELDS,
+                new StateUpdater<KeyValueState<DistanceState>>());
+
+        if (distanceTupleListener != null) {
+            distanceStream = distanceStream.each(TaxiFields.CALCULATE_DISTANCE_OUTPUT_FIELDS, distanceTupleListener);
+        }
+
+        if (configuration.isStoreInformation()) {
+            // forward distance to redis
+            distanceStream.each(TaxiFields.CALCULATE_DISTANCE_OUTPUT_FIELDS, new StoreInformation(InfoType.DISTANCE, redisHost, redisPort));
+        }
+        parallelize(distanceStream, configuration.getDistanceParallelism());
+
+        return distanceStream;
+    }
+
+    /**
+     * Calculates speed, average speed and distance with one state query and one persist on the combined taxi state.
+     */
+    private Stream buildTaxiStateStream(TridentTopology topology, Stream inputStream) {
+        TridentState taxi = topology.newStaticState(createStateFactory("taxi"));
+        Stream taxiStream = withTransactionId(stage(inputStream, configuration.getSpeedParallelism())).stateQuery( // query the state for each taxi id
+                taxi, queryFields(), new TaxiStateQuery(), TaxiFields.TAXI_STATE_FIELDS).partitionAggregate( // batch-process entries
+                        TaxiFields.CALCULATE_TAXI_STATE_INPUT_FIELDS, new CalculateTaxiState(), TaxiFields.CALCULATE_TAXI_STATE_OUTPUT_FIELDS);
+
+        // update the new taxi states
+        taxiStream.partitionPersist(createStateFactory("taxi"), TaxiFields.CALCULATE_TAXI_STATE_OUTPUT_FIELDS,
+                new StateUpdater<KeyValueState<TaxiState>>());
+
+        if (speedTupleListener != null) {
+            taxiStream = taxiStream.each(TaxiFields.CALCULATE_SPEED_OUTPUT_FIELDS, speedTupleListener);
+        }
+        if (avgSpeedTupleListener != null) {
+            taxiStream = taxiStream.each(TaxiFields.AVG_SPEED_OUTPUT_FIELDS, avgSpeedTupleListener);
+        }
+        if (distanceTupleListener != null) {
+            taxiStream = taxiStream.each(TaxiFields.CALCULATE_DISTANCE_OUTPUT_FIELDS, distanceTupleListener);
+        }
+
+        // notify dashboard if vehicle is speeding
+        taxiStream.each(TaxiFields.CALCULATE_SPEED_OUTPUT_FIELDS, new SpeedingNotifier(dashboardAddress));
+
+        if (configuration.isStoreInformation()) {
+            // forward average speed and distance to redis
+            taxiStream.each(TaxiFields.AVG_SPEED_OUTPUT_FIELDS, new StoreInformation(InfoType.AVERAGE_SPEED, redisHost, redisPort));
+            taxiStream.each(TaxiFields.CALCULATE_DISTANCE_OUTPUT_FIELDS, new StoreInformation(InfoType.DISTANCE, redisHost, redisPort));
+        }
+        parallelize(taxiStream, configuration.getSpeedParallelism());
+
+        return taxiStream;
+    }
+
+    /**
+     * Starts a stage, which is repartitioned by taxi id if it has its own parallelism.
+     */
+    private static Stream stage(Stream stream, int parallelism) {
+        return parallelism > 0 ? stream.partitionBy(TaxiFields.ID_ONLY_FIELDS) : stream;
+    }
+
+    /**
+     * Attaches the transaction id of the batch to the tuples for a query of an opaque state.
+     */
+    private Stream withTransactionId(Stream stream) {
+        if (!configuration.isOpaqueState()) {
+            return stream;
+        }
+        List<String> fields = new ArrayList<>(stream.getOutputFields().toList());
+        fields.add("txid");
+        return stream.partitionAggregate(stream.getOutputFields(), new AttachTransactionId(), new Fields(fields));
+    }
+
+    private Fields queryFields() {
+        return configuration.isOpaqueState() ? TaxiFields.ID_AND_TXID_FIELDS : TaxiFields.ID_ONLY_FIELDS;
+    }
+
+    private static void parallelize(Stream stage, int parallelism) {
+        if (parallelism > 0) {
+            stage.parallelismHint(parallelism);
+        }
+    }
+
+    private org.apache.storm.trident.state.StateFactory createStateFactory(String type) {
+        if (configuration.getStateBackend() == StateBackend.MEMORY) {
+            return new MemoryState.Factory(type);
+        }
+        return new StateFactory<>(type, redisHost, redisPort);
+    }
+
+    private IBatchSpout getBatchSpout() {
+        if (batchSpout == null) {
+            if (configuration.getInput() == null) {
+                throw new IllegalStateException("The batch spout requires an input");
+            }
+            batchSpout = TaxiEntryBatchSpout.forInput(configuration.getInput(), configuration.getSpoutOptions());
+        }
+        return batchSpout;
+    }
+
+    /**
+     * Sets the representation of the timestamp field, has to be called before the topology is built.
+     */
+    public void setTimestampMode(TimestampMode timestampMode) {
+        configuration.setTimestampMode(timestampMode);
+    }
+
+    /**
+     * Skips the repartitioning by taxi id after the spout. Only valid if the entries were produced with the {@link TaxiIdPartitioner}, so each taxi
+     * is read by exactly one spout task.
+     */
+    public void setAlignedPartitions(boolean alignedPartitions) {
+        configuration.setAlignedPartitions(alignedPartitions);
+    }
+
+    /**
+     * Reads the entries from the given spout instead of kafka, kafka is then not started. The spout emits all entries from one task, so the aligned
+     * partitions option does not apply.
+     */
+    public void setBatchSpout(IBatchSpout batchSpout) {
+        this.batchSpout = batchSpout;
+    }
+
+    public TopologyConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public String getRedisHost() {
+        return redisHost;
+    }
+
+    public int getRedisPort() {
+        return redisPort;
+    }
+
+    public LocalKafkaInstance getKafkaInstance() {
+        return localKafkaInstance;
+    }
+
+    private IOpaquePartitionedTridentSpout<?, ?, ?> buildKafkaSpout() {
+        ZkHosts zkHosts;
+        if (localKafkaInstance == null) {
+            zkHosts = new ZkHosts("localhost");
+        } else {
+            zkHosts = new ZkHosts(localKafkaInstance.getConnectString());
+        }
+        TridentKafkaConfig spoutConfig = new TridentKafkaConfig(zkHosts, topic);
+        spoutConfig.scheme = new TaxiEntryPackScheme(configuration.getTimestampMode());
+        /**
+         * src: http://stackoverflow.com/questions/27631277/batch-size-in-storm-trident
+         *
+         * batch size is related with number of brokers and number of partitions.
+         * For example, if you have 2 brokers and 3 partitions for each broker that means the total count of partition is 6.
+         * By this way, the batch size equals to tridentKafkaConfig.fetchSizeBytes X total partition count.
+         * if we assume that the tridentKafkaConfig.fetchSizeBytes is 1024X1024, the batch size equals to 6 MB.(3x2x1024x1024)bytes
+         */
+        if (configuration.getFetchSizeBytes() > 0) {
+            spoutConfig.fetchSizeBytes = configuration.getFetchSizeBytes();
+        }
+
+        if (configuration.getAdaptiveGoal() != null) {
+            int pendingBatches = configuration.getMaxSpoutPending() > 0 ? configuration.getMaxSpoutPending() : 1;
+            return new AdaptiveKafkaSpout(spoutConfig, new BatchSizeController(configuration.getAdaptiveGoal(), configuration.getTargetLatencyMillis(),
+                    pendingBatches, spoutConfig.fetchSizeBytes));
+        }
+        return new OpaqueTridentKafkaSpout(spoutConfig);
+    }
+
+    public void submitLocalCluster() {
+        Config conf = new Config();
+        conf.setDebug(false);
+        conf.setMaxTaskParallelism(5);
+        conf.put(TimestampMode.CONFIG_KEY, configuration.getTimestampMode().name());
+        configureRedis(conf);
+        configureDashboard(conf);
+        configureBatching(conf);
+
+        if (!usesBatchSpout()) {
+            startKafka();
+        }
+        if (usesRedis()) {
+            startRedis();
+        }
+
+        logger.info("Submitting topology with " + configuration);
+        cluster = new LocalCluster();
+        cluster.submitTopology("stream-processing", conf, build());
+    }
+
+    private void configureRedis(Config conf) {
+        conf.put(RedisLayout.CONFIG_KEY, configuration.getRedisLayout().name());
+        conf.put(RedisEncoding.CONFIG_KEY, configuration.getRedisEncoding().name());
+        conf.put(RedisState.CHUNK_SIZE_CONFIG_KEY, configuration.getRedisChunkSize());
+        conf.put(RedisConnectionPool.SIZE_CONFIG_KEY, configuration.getRedisPoolSize());
+        conf.put(RedisConnectionPool.IDLE_MILLIS_CONFIG_KEY, configuration.getRedisPoolIdleMillis());
+        conf.put(CachedState.SIZE_CONFIG_KEY, configuration.getStateCacheSize());
+        conf.put(RedisState.OPAQUE_CONFIG_KEY, configuration.isOpaqueState());
+    }
+
+    private void configureDashboard(Config conf) {
+        conf.put(DashboardDispatcher.QUEUE_SIZE_CONFIG_KEY, configuration.getDashboardQueueSize());
+        conf.put(DashboardDispatcher.POLICY_CONFIG_KEY, configuration.getDashboardPolicy().name());
+    }
+
+    private void configureBatching(Config conf) {
+        if (configuration.getEmitIntervalMillis() >= 0) {
+            conf.put(Config.TOPOLOGY_TRIDENT_BATCH_EMIT_INTERVAL_MILLIS, configuration.getEmitIntervalMillis());
+        } else if (usesBatchSpout()) {
+            conf.put(Config.TOPOLOGY_TRIDENT_BATCH_EMIT_INTERVAL_MILLIS, BATCH_SPOUT_EMIT_INTERVAL_MILLIS);
+        } else if (configuration.getAdaptiveGoal() != null) {
+            // the controller paces the batches itself
+            conf.put(Config.TOPOLOGY_TRIDENT_BATCH_EMIT_INTERVAL_MILLIS, 1);
+        }
+
+        if (configuration.getMaxSpoutPending() > 0) {
+            conf.setMaxSpoutPending(configuration.getMaxSpoutPending());
+        }
+        if (configuration.getAdaptiveGoal() != null && !usesBatchSpout()) {
+            // makes the decisions of the batch size controller visible
+            conf.registerMetricsConsumer(LoggingMetricsConsumer.class, 1);
+        }
+    }
+
+    public void submitCluster() {
+        Config conf = new Config();
+        conf.put("topology.eventlogger.executors",2); // TODO check if this has any effect
+        conf.setDebug(true); // TODO check if this has any effect
+        conf.setMaxTaskParallelism(2);
+        conf.put(TimestampMode.CONFIG_KEY, configuration.getTimestampMode().name());
+        configureRedis(conf);
+        configureDashboard(conf);
+        configureBatching(conf);
+        try {
+            StormSubmitter.submitTopology("taxicab-0_0_1",conf,build());
+        } catch (AlreadyAliveException e) {
+            e.printStackTrace();
+        } catch (InvalidTopologyException e) {
+            e.printStackTrace();
+        } catch (AuthorizationException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Creates the configuration for the given command line arguments.
+     *
+     * @param preset
+     *            the configuration to start from, unless a configuration file sets a preset
+     * @param args
+     *            the flags benchmark, epoch and aligned, topologyConfig=file to read a configuration file and key=value to set single properties
+     * @return the configuration
+     * @throws Exception
+     *             if the configuration file could not be read
+     */
+    static TopologyConfiguration parseArguments(TopologyConfiguration preset, String[] args) throws Exception {
+        Properties properties = new Properties();
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            if (option.length == 2) {
+                properties.setProperty(option[0], option[1]);
+            } else if (arg.equals("epoch")) {
+                properties.setProperty("timestampMode", TimestampMode.EPOCH_MILLIS.name());
+            } else {
+                // benchmark and aligned
+                properties.setProperty(arg, "true");
+            }
+        }
+
+        if (properties.containsKey("topologyConfig")) {
+            Properties file = new Properties();
+            try (Reader reader = Files.newBufferedReader(Paths.get(properties.getProperty("topologyConfig")))) {
+                file.load(reader);
+            }
+            // single properties take precedence over the file
+            file.putAll(properties);
+            properties = file;
+        }
+
+        if (properties.containsKey("preset")) {
+            return TopologyConfiguration.fromProperties(properties);
+        }
+        preset.apply(properties);
+        return preset;
+    }
+
+    /**
+     * Runs the topology in a local cluster until the JVM shuts down.
+     */
+    static void runLocal(TopologyConfiguration preset, String[] args) throws Exception {
+        ProcessingTopology topology = new ProcessingTopology("taxi", "localhost", 6379, "http://127.0.0.1:3000", parseArguments(preset, args));
+        try {
+            topology.submitLocalCluster();
+        } finally {
+            Runtime.getRuntime().addShutdownHook(new Thread(topology::stop));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        runLocal(TopologyConfiguration.baseline(), args);
+    }
+}
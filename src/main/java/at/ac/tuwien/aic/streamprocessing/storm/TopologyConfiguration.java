@@ -0,0 +1,483 @@
+package at.ac.tuwien.aic.streamprocessing.storm;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+
+import at.ac.tuwien.aic.streamprocessing.storm.spout.BatchSizeController;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.dashboard.DashboardDispatcher;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.CachedState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.RedisEncoding;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.RedisLayout;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.RedisState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.util.RedisConnectionPool;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+
+/**
+ * Describes how {@link ProcessingTopology} assembles the topology, so that configurations can be compared without changing code.
+ *
+ * A configuration starts from the baseline or optimized preset and is adjusted by properties, e.g. from a file:
+ *
+ * <pre>
+ * preset=optimized
+ * spout=batch
+ * input=./testdata/taxi_data.replay
+ * spoutBatchSize=5000
+ * state=memory
+ * redisLayout=hash
+ * redisEncoding=binary
+ * redisChunkSize=1000
+ * redisPoolSize=16
+ * redisPoolIdleMillis=60000
+ * stateCacheSize=100000
+ * opaqueState=false
+ * fuse=location,speed,state
+ * parallelism.spout=1
+ * parallelism.processing=4
+ * parallelism.speed=8
+ * storeInformation=false
+ * benchmark=true
+ * timestampMode=EPOCH_MILLIS
+ * aligned=false
+ * lateness=5
+ * fetchSizeBytes=1048576
+ * maxSpoutPending=2
+ * emitIntervalMillis=50
+ * adaptive=latency
+ * targetLatency=500
+ * dashboardQueueSize=10000
+ * dashboardPolicy=coalesce
+ * </pre>
+ *
+ * The spout is kafka or batch, the latter reads the input in-process (set implicitly by input). The state backend is redis or memory. fuse lists the
+ * {@link Fusion fused operators}, or none. parallelism.processing applies to everything after the partitioning by taxi id, parallelism.speed,
+ * parallelism.averageSpeed and parallelism.distance give a stage its own parallelism, it is then repartitioned by taxi id. The combined state stage
+ * uses parallelism.speed. storeInformation writes
+ * the average speed and distance to redis for the RedisMonitor, benchmark adds TupleSpeedMonitor taps after the spout and at the end. lateness in
+ * seconds enables the ReorderBuffer. redisLayout is string or hash, see {@link RedisLayout}, redisEncoding is string or binary, see
+ * {@link RedisEncoding}. redisChunkSize is the number of taxis read or written with one round trip. The redis clients of a worker share a
+ * {@link RedisConnectionPool} of at most redisPoolSize connections, connections idle for redisPoolIdleMillis are closed. stateCacheSize puts a
+ * {@link CachedState} of at most that many taxis per partition in front of each redis state, 0 (the default) reads and writes redis directly.
+ * opaqueState makes the redis states opaque, see {@link RedisState}, so replayed batches are not counted twice. It requires the redis state with the
+ * string layout and cannot be combined with the cache.
+ *
+ * fetchSizeBytes is the kafka fetch size per partition and bounds the size of a batch, maxSpoutPending the number of batches in flight and
+ * emitIntervalMillis the minimum time between two batches. adaptive=latency or throughput lets a {@link BatchSizeController} adjust the fetch size and
+ * a delay between the batches at runtime, starting from fetchSizeBytes, for a latency below targetLatency milliseconds or for the highest throughput.
+ * The emit interval then defaults to 1 ms, the controller adds its delay on top.
+ *
+ * The dashboard notifications are sent in the background by a {@link DashboardDispatcher} per worker, which queues up to dashboardQueueSize of them.
+ * dashboardPolicy=drop drops notifications when the queue is full, coalesce also replaces a waiting notification of the same taxi.
+ *
+ * Further properties, e.g. the options of a synthetic fleet, are kept and passed to the batch spout.
+ */
+public class TopologyConfiguration {
+
+    public enum SpoutType {
+        KAFKA, BATCH
+    }
+
+    public enum StateBackend {
+        REDIS, MEMORY
+    }
+
+    /**
+     * Operators which can be replaced by a fused equivalent.
+     */
+    public enum Fusion {
+        /**
+         * AreaLeavingNotifier and PropagateLocation as one function.
+         */
+        LOCATION,
+        /**
+         * CalculateSpeed and SpeedingNotifier as one aggregator.
+         */
+        SPEED,
+        /**
+         * The speed, average speed and distance chains as one state query, aggregator and persist on a combined TaxiState. Replaces the speed
+         * fusion, speeding taxis are then notified by a SpeedingNotifier.
+         */
+        STATE
+    }
+
+    private SpoutType spoutType = SpoutType.KAFKA;
+    private String input;
+    private StateBackend stateBackend = StateBackend.REDIS;
+    private Set<Fusion> fused = EnumSet.noneOf(Fusion.class);
+    private RedisLayout redisLayout = RedisLayout.STRING;
+    private RedisEncoding redisEncoding = RedisEncoding.STRING;
+    private int redisChunkSize = RedisState.DEFAULT_CHUNK_SIZE;
+    private int redisPoolSize = RedisConnectionPool.DEFAULT_SIZE;
+    private long redisPoolIdleMillis = RedisConnectionPool.DEFAULT_IDLE_MILLIS;
+    private int stateCacheSize = 0;
+    private boolean opaqueState = false;
+
+    private int spoutParallelism = 1;
+    private int processingParallelism = 5;
+    // 0 keeps the stage within the processing parallelism
+    private int speedParallelism = 0;
+    private int averageSpeedParallelism = 0;
+    private int distanceParallelism = 0;
+
+    private boolean storeInformation = true;
+    private boolean benchmark = false;
+    private TimestampMode timestampMode = TimestampMode.FORMATTED;
+    private boolean alignedPartitions = false;
+    private long allowedLatenessMillis = -1;
+
+    // 0 and -1 keep the defaults of storm-kafka and storm
+    private int fetchSizeBytes = 0;
+    private int maxSpoutPending = 0;
+    private int emitIntervalMillis = -1;
+    private BatchSizeController.Goal adaptiveGoal;
+    private long targetLatencyMillis = 1000;
+
+    private int dashboardQueueSize = DashboardDispatcher.DEFAULT_QUEUE_SIZE;
+    private DashboardDispatcher.Policy dashboardPolicy = DashboardDispatcher.DEFAULT_POLICY;
+
+    private Properties spoutOptions = new Properties();
+
+    /**
+     * @return the configuration of the former TridentProcessingTopology
+     */
+    public static TopologyConfiguration baseline() {
+        return new TopologyConfiguration();
+    }
+
+    /**
+     * @return the configuration of the former OptimizedTridentProcessingTopology, which fuses the dashboard notifications into the preceding
+     *         operators and leaves the statistics to the RedisMonitor
+     */
+    public static TopologyConfiguration optimized() {
+        TopologyConfiguration configuration = new TopologyConfiguration();
+        configuration.fused = EnumSet.of(Fusion.LOCATION, Fusion.SPEED);
+        configuration.processingParallelism = 3;
+        configuration.storeInformation = false;
+        return configuration;
+    }
+
+    /**
+     * Reads a configuration from a properties file, see {@link #fromProperties(Properties)}.
+     *
+     * @param path
+     *            the file
+     * @return the configuration
+     * @throws IOException
+     *             if the file could not be read
+     */
+    public static TopologyConfiguration load(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        }
+        return fromProperties(properties);
+    }
+
+    /**
+     * Creates a configuration from the given preset and properties.
+     *
+     * @param properties
+     *            the properties as described at {@link TopologyConfiguration}
+     * @return the configuration
+     * @throws IllegalArgumentException
+     *             if a property has an invalid value
+     */
+    public static TopologyConfiguration fromProperties(Properties properties) {
+        String preset = properties.getProperty("preset", "baseline");
+        TopologyConfiguration configuration;
+        if (preset.equals("optimized")) {
+            configuration = optimized();
+        } else if (preset.equals("baseline")) {
+            configuration = baseline();
+        } else {
+            throw new IllegalArgumentException("Unknown preset " + preset + ", expected baseline or optimized");
+        }
+        configuration.apply(properties);
+        return configuration;
+    }
+
+    /**
+     * Overrides the settings given in the properties.
+     *
+     * @param properties
+     *            the properties as described at {@link TopologyConfiguration}
+     * @throws IllegalArgumentException
+     *             if a property has an invalid value
+     */
+    public void apply(Properties properties) {
+        if (properties.containsKey("input")) {
+            input = properties.getProperty("input");
+            spoutType = SpoutType.BATCH;
+        }
+        if (properties.containsKey("spout")) {
+            spoutType = SpoutType.valueOf(properties.getProperty("spout").toUpperCase(Locale.ROOT));
+        }
+        if (properties.containsKey("state")) {
+            stateBackend = StateBackend.valueOf(properties.getProperty("state").toUpperCase(Locale.ROOT));
+        }
+        if (properties.containsKey("fuse")) {
+            fused = EnumSet.noneOf(Fusion.class);
+            for (String fusion : properties.getProperty("fuse").split(",")) {
+                if (!fusion.trim().isEmpty() && !fusion.trim().equals("none")) {
+                    fused.add(Fusion.valueOf(fusion.trim().toUpperCase(Locale.ROOT)));
+                }
+            }
+        }
+
+        if (properties.containsKey("redisLayout")) {
+            redisLayout = RedisLayout.valueOf(properties.getProperty("redisLayout").trim().toUpperCase(Locale.ROOT));
+        }
+        if (properties.containsKey("redisEncoding")) {
+            redisEncoding = RedisEncoding.valueOf(properties.getProperty("redisEncoding").trim().toUpperCase(Locale.ROOT));
+        }
+        redisChunkSize = positive(properties, "redisChunkSize", redisChunkSize);
+        redisPoolSize = positive(properties, "redisPoolSize", redisPoolSize);
+        redisPoolIdleMillis = positive(properties, "redisPoolIdleMillis", redisPoolIdleMillis);
+        stateCacheSize = nonNegative(properties, "stateCacheSize", stateCacheSize);
+        if (properties.containsKey("opaqueState")) {
+            opaqueState = Boolean.parseBoolean(properties.getProperty("opaqueState"));
+        }
+        if (opaqueState && stateBackend != StateBackend.REDIS) {
+            throw new IllegalArgumentException("opaqueState requires state=redis");
+        }
+        if (opaqueState && redisLayout != RedisLayout.STRING) {
+            throw new IllegalArgumentException("opaqueState requires redisLayout=string");
+        }
+        if (opaqueState && stateCacheSize > 0) {
+            throw new IllegalArgumentException("opaqueState cannot be combined with stateCacheSize");
+        }
+
+        spoutParallelism = nonNegative(properties, "parallelism.spout", spoutParallelism);
+        processingParallelism = nonNegative(properties, "parallelism.processing", processingParallelism);
+        speedParallelism = nonNegative(properties, "parallelism.speed", speedParallelism);
+        averageSpeedParallelism = nonNegative(properties, "parallelism.averageSpeed", averageSpeedParallelism);
+        distanceParallelism = nonNegative(properties, "parallelism.distance", distanceParallelism);
+
+        if (properties.containsKey("storeInformation")) {
+            storeInformation = Boolean.parseBoolean(properties.getProperty("storeInformation"));
+        }
+        if (properties.containsKey("benchmark")) {
+            benchmark = Boolean.parseBoolean(properties.getProperty("benchmark"));
+        }
+        if (properties.containsKey("timestampMode")) {
+            timestampMode = TimestampMode.valueOf(properties.getProperty("timestampMode").toUpperCase(Locale.ROOT));
+        }
+        if (properties.containsKey("aligned")) {
+            alignedPartitions = Boolean.parseBoolean(properties.getProperty("aligned"));
+        }
+        if (properties.containsKey("lateness")) {
+            allowedLatenessMillis = Long.parseLong(properties.getProperty("lateness")) * 1000;
+        }
+
+        fetchSizeBytes = positive(properties, "fetchSizeBytes", fetchSizeBytes);
+        maxSpoutPending = positive(properties, "maxSpoutPending", maxSpoutPending);
+        emitIntervalMillis = nonNegative(properties, "emitIntervalMillis", emitIntervalMillis);
+        if (properties.containsKey("adaptive")) {
+            String goal = properties.getProperty("adaptive").trim();
+            adaptiveGoal = goal.equals("none") ? null : BatchSizeController.Goal.valueOf(goal.toUpperCase(Locale.ROOT));
+        }
+        targetLatencyMillis = positive(properties, "targetLatency", targetLatencyMillis);
+
+        dashboardQueueSize = positive(properties, "dashboardQueueSize", dashboardQueueSize);
+        if (properties.containsKey("dashboardPolicy")) {
+            dashboardPolicy = DashboardDispatcher.Policy.valueOf(properties.getProperty("dashboardPolicy").trim().toUpperCase(Locale.ROOT));
+        }
+
+        spoutOptions.putAll(properties);
+    }
+
+    private static int nonNegative(Properties properties, String key, int defaultValue) {
+        if (!properties.containsKey(key)) {
+            return defaultValue;
+        }
+        int value = Integer.parseInt(properties.getProperty(key));
+        if (value < 0) {
+            throw new IllegalArgumentException(key + " must not be negative");
+        }
+        return value;
+    }
+
+    private static int positive(Properties properties, String key, int defaultValue) {
+        if (!properties.containsKey(key)) {
+            return defaultValue;
+        }
+        int value = Integer.parseInt(properties.getProperty(key));
+        if (value <= 0) {
+            throw new IllegalArgumentException(key + " must be positive");
+        }
+        return value;
+    }
+
+    private static long positive(Properties properties, String key, long defaultValue) {
+        if (!properties.containsKey(key)) {
+            return defaultValue;
+        }
+        long value = Long.parseLong(properties.getProperty(key));
+        if (value <= 0) {
+            throw new IllegalArgumentException(key + " must be positive");
+        }
+        return value;
+    }
+
+    public SpoutType getSpoutType() {
+        return spoutType;
+    }
+
+    public String getInput() {
+        return input;
+    }
+
+    public StateBackend getStateBackend() {
+        return stateBackend;
+    }
+
+    public RedisLayout getRedisLayout() {
+        return redisLayout;
+    }
+
+    public RedisEncoding getRedisEncoding() {
+        return redisEncoding;
+    }
+
+    public int getRedisChunkSize() {
+        return redisChunkSize;
+    }
+
+    public int getRedisPoolSize() {
+        return redisPoolSize;
+    }
+
+    public long getRedisPoolIdleMillis() {
+        return redisPoolIdleMillis;
+    }
+
+    public int getStateCacheSize() {
+        return stateCacheSize;
+    }
+
+    public boolean isOpaqueState() {
+        return opaqueState;
+    }
+
+    public boolean isFused(Fusion fusion) {
+        return fused.contains(fusion);
+    }
+
+    public int getSpoutParallelism() {
+        return spoutParallelism;
+    }
+
+    public int getProcessingParallelism() {
+        return processingParallelism;
+    }
+
+    public int getSpeedParallelism() {
+        return speedParallelism;
+    }
+
+    public int getAverageSpeedParallelism() {
+        return averageSpeedParallelism;
+    }
+
+    public int getDistanceParallelism() {
+        return distanceParallelism;
+    }
+
+    public boolean isStoreInformation() {
+        return storeInformation;
+    }
+
+    public boolean isBenchmark() {
+        return benchmark;
+    }
+
+    public void setBenchmark(boolean benchmark) {
+        this.benchmark = benchmark;
+    }
+
+    public TimestampMode getTimestampMode() {
+        return timestampMode;
+    }
+
+    public void setTimestampMode(TimestampMode timestampMode) {
+        this.timestampMode = timestampMode;
+    }
+
+    public boolean isAlignedPartitions() {
+        return alignedPartitions;
+    }
+
+    public void setAlignedPartitions(boolean alignedPartitions) {
+        this.alignedPartitions = alignedPartitions;
+    }
+
+    /**
+     * @return the allowed lateness of the {@link at.ac.tuwien.aic.streamprocessing.storm.trident.aggregators.ReorderBuffer}, negative if fixes are not
+     *         reordered
+     */
+    public long getAllowedLatenessMillis() {
+        return allowedLatenessMillis;
+    }
+
+    /**
+     * @return the kafka fetch size per partition, 0 for the default of storm-kafka
+     */
+    public int getFetchSizeBytes() {
+        return fetchSizeBytes;
+    }
+
+    /**
+     * @return the number of batches in flight, 0 for the default of storm
+     */
+    public int getMaxSpoutPending() {
+        return maxSpoutPending;
+    }
+
+    /**
+     * @return the minimum time between two batches, -1 for the default
+     */
+    public int getEmitIntervalMillis() {
+        return emitIntervalMillis;
+    }
+
+    /**
+     * @return the goal of the batch size controller, null if the batch size is fixed
+     */
+    public BatchSizeController.Goal getAdaptiveGoal() {
+        return adaptiveGoal;
+    }
+
+    public long getTargetLatencyMillis() {
+        return targetLatencyMillis;
+    }
+
+    public int getDashboardQueueSize() {
+        return dashboardQueueSize;
+    }
+
+    public DashboardDispatcher.Policy getDashboardPolicy() {
+        return dashboardPolicy;
+    }
+
+    public Properties getSpoutOptions() {
+        return spoutOptions;
+    }
+
+    @Override
+    public String toString() {
+        return "spout=" + spoutType + (input == null ? "" : " (" + input + ")") + ", state=" + stateBackend + " (" + redisLayout + " layout, "
+                + redisEncoding + " encoding, chunks of " + redisChunkSize + ", pool of " + redisPoolSize + ", cache of " + stateCacheSize
+                + (opaqueState ? ", opaque" : "") + "), fused=" + fused + ", parallelism spout=" + spoutParallelism + " processing="
+                + processingParallelism + " speed=" + speedParallelism + " averageSpeed=" + averageSpeedParallelism
+                + " distance=" + distanceParallelism + ", storeInformation=" + storeInformation + ", benchmark=" + benchmark + ", timestampMode="
+                + timestampMode + ", aligned=" + alignedPartitions + ", lateness=" + allowedLatenessMillis + "ms, fetchSizeBytes=" + fetchSizeBytes
+                + ", maxSpoutPending=" + maxSpoutPending + ", emitInterval=" + emitIntervalMillis + "ms, adaptive="
+                + (adaptiveGoal == null ? "none" : adaptiveGoal + " (target " + targetLatencyMillis + "ms)") + ", dashboard=" + dashboardPolicy + " ("
+                + dashboardQueueSize + ")";
+    }
+}
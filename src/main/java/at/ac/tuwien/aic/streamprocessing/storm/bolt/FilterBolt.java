@@ -0,0 +1,54 @@
+package at.ac.tuwien.aic.streamprocessing.storm.bolt;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.topology.BasicOutputCollector;
+import org.apache.storm.topology.OutputFieldsDeclarer;
+import org.apache.storm.topology.base.BaseBasicBolt;
+import org.apache.storm.trident.operation.Filter;
+import org.apache.storm.trident.tuple.TridentTupleView;
+import org.apache.storm.tuple.Fields;
+import org.apache.storm.tuple.Tuple;
+
+/**
+ * Runs a Trident filter, e.g. one of the dashboard notifiers, on each tuple of a core Storm stream and emits the tuples it keeps.
+ *
+ * The input is projected onto the given fields, which are also the output fields. The filter is prepared without a TridentOperationContext.
+ */
+public class FilterBolt extends BaseBasicBolt {
+    private final Filter filter;
+    private final Fields fields;
+
+    private transient TridentTupleView.FreshOutputFactory tupleFactory;
+
+    public FilterBolt(Filter filter, Fields fields) {
+        this.filter = filter;
+        this.fields = fields;
+    }
+
+    @Override
+    public void prepare(Map stormConf, TopologyContext context) {
+        filter.prepare(stormConf, null);
+        tupleFactory = new TridentTupleView.FreshOutputFactory(fields);
+    }
+
+    @Override
+    public void execute(Tuple input, BasicOutputCollector collector) {
+        List<Object> values = input.select(fields);
+        if (filter.isKeep(tupleFactory.create(values))) {
+            collector.emit(values);
+        }
+    }
+
+    @Override
+    public void cleanup() {
+        filter.cleanup();
+    }
+
+    @Override
+    public void declareOutputFields(OutputFieldsDeclarer declarer) {
+        declarer.declare(fields);
+    }
+}
@@ -0,0 +1,132 @@
+package at.ac.tuwien.aic.streamprocessing.storm.bolt;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.topology.BasicOutputCollector;
+import org.apache.storm.topology.OutputFieldsDeclarer;
+import org.apache.storm.topology.base.BaseBasicBolt;
+import org.apache.storm.tuple.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.ac.tuwien.aic.streamprocessing.storm.trident.aggregators.CalculateTaxiState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObjectMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.taxi.TaxiState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.taxi.TaxiStateMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TaxiFields;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+
+/**
+ * Calculates speed, average speed and distance of each taxi tuple at a time, like {@link CalculateTaxiState} does per batch. Requires a fields
+ * grouping by taxi id, the states are kept in the memory of the task.
+ *
+ * A fix which is not newer than the last fix of its taxi is a replay by the spout after a failure downstream, or arrived out of order. The outputs of
+ * the last historySize fixes of each taxi can be rebuilt from their kept states, a replayed fix among them emits its output again without being
+ * counted twice, so alerts are produced at least once. Other fixes are acked without being emitted, alerts for replays of fixes older than the
+ * history are lost.
+ */
+public class TaxiStateBolt extends BaseBasicBolt {
+    private final Logger logger = LoggerFactory.getLogger(TaxiStateBolt.class);
+
+    public static final int DEFAULT_HISTORY_SIZE = 8;
+
+    private final int historySize;
+
+    private transient Map<Integer, Taxi> taxis;
+    private transient StateObjectMapper<TaxiState> mapper;
+
+    public TaxiStateBolt() {
+        this(DEFAULT_HISTORY_SIZE);
+    }
+
+    /**
+     * @param historySize
+     *            the number of states kept per taxi to emit their outputs again for replayed fixes
+     */
+    public TaxiStateBolt(int historySize) {
+        if (historySize <= 0) {
+            throw new IllegalArgumentException("The history size must be positive");
+        }
+        this.historySize = historySize;
+    }
+
+    @Override
+    public void prepare(Map stormConf, TopologyContext context) {
+        taxis = new HashMap<>();
+        mapper = new TaxiStateMapper(TimestampMode.fromConfig(stormConf));
+    }
+
+    @Override
+    public void execute(Tuple input, BasicOutputCollector collector) {
+        Integer id = input.getIntegerByField("id");
+        long timestamp = TimestampMode.toEpochMillis(input.getValueByField("timestamp"));
+        Double latitude = input.getDoubleByField("latitude");
+        Double longitude = input.getDoubleByField("longitude");
+
+        Taxi taxi = taxis.get(id);
+        TaxiState previous;
+        if (taxi == null) {
+            taxi = new Taxi(historySize);
+            taxis.put(id, taxi);
+            previous = new TaxiState(timestamp, latitude, longitude, 0.0, 0, 0.0, 0.0);
+        } else if (timestamp <= taxi.state.getTimestamp()) {
+            TaxiState replayed = taxi.stateAt(timestamp);
+            if (replayed != null) {
+                // the output is derived from the state only, so this is the tuple emitted for the fix before
+                collector.emit(mapper.toTuple(id, replayed));
+            } else {
+                logger.debug("Ignoring fix of taxi {} at {}, the last fix is at {}", id, timestamp, taxi.state.getTimestamp());
+            }
+            return;
+        } else {
+            previous = taxi.state;
+        }
+
+        TaxiState next = CalculateTaxiState.advance(previous, timestamp, latitude, longitude);
+        taxi.add(next);
+
+        collector.emit(mapper.toTuple(id, next));
+    }
+
+    @Override
+    public void declareOutputFields(OutputFieldsDeclarer declarer) {
+        declarer.declare(TaxiFields.CALCULATE_TAXI_STATE_OUTPUT_FIELDS);
+    }
+
+    /**
+     * The states of the latest fixes of a taxi in a ring buffer.
+     */
+    private static class Taxi {
+        private final TaxiState[] history;
+        private int next;
+        private int size;
+        private TaxiState state;
+
+        Taxi(int historySize) {
+            this.history = new TaxiState[historySize];
+        }
+
+        void add(TaxiState state) {
+            this.state = state;
+            history[next] = state;
+            next = (next + 1) % history.length;
+            size = Math.min(size + 1, history.length);
+        }
+
+        TaxiState stateAt(long timestamp) {
+            // newest first, replays mostly hit recent fixes
+            for (int i = 1; i <= size; i++) {
+                TaxiState candidate = history[(next - i + history.length) % history.length];
+                if (candidate.getTimestamp() == timestamp) {
+                    return candidate;
+                }
+                if (candidate.getTimestamp() < timestamp) {
+                    return null;
+                }
+            }
+            return null;
+        }
+    }
+}
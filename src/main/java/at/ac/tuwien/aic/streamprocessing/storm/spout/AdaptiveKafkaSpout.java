@@ -0,0 +1,139 @@
+package at.ac.tuwien.aic.streamprocessing.storm.spout;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.storm.kafka.Partition;
+import org.apache.storm.kafka.trident.GlobalPartitionInformation;
+import org.apache.storm.kafka.trident.OpaqueTridentKafkaSpout;
+import org.apache.storm.kafka.trident.TridentKafkaConfig;
+import org.apache.storm.metric.api.CountMetric;
+import org.apache.storm.metric.api.IMetric;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.trident.operation.TridentCollector;
+import org.apache.storm.trident.spout.IOpaquePartitionedTridentSpout;
+import org.apache.storm.trident.topology.TransactionAttempt;
+import org.apache.storm.tuple.Fields;
+import org.apache.storm.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Opaque kafka spout whose batch size is adjusted at runtime by a {@link BatchSizeController}.
+ *
+ * The spout shares its TridentKafkaConfig with the wrapped OpaqueTridentKafkaSpout, which reads the fetch size on every fetch. Both are serialized
+ * together, so the config stays shared in the worker and the controller can change the fetch size there. The controller's delay is slept before the
+ * first partition of each batch is emitted.
+ *
+ * The decisions are registered as metrics of the spout task: batchFetchSizeBytes, batchDelayMillis, batchEstimatedLatencyMillis, batchThroughput and
+ * batchAdjustments.
+ */
+public class AdaptiveKafkaSpout implements IOpaquePartitionedTridentSpout<List<GlobalPartitionInformation>, Partition, Map> {
+
+    private final TridentKafkaConfig config;
+    private final OpaqueTridentKafkaSpout spout;
+    private final BatchSizeController controller;
+
+    public AdaptiveKafkaSpout(TridentKafkaConfig config, BatchSizeController controller) {
+        this.config = config;
+        this.spout = new OpaqueTridentKafkaSpout(config);
+        this.controller = controller;
+        config.fetchSizeBytes = controller.getFetchSizeBytes();
+    }
+
+    @Override
+    public Emitter<List<GlobalPartitionInformation>, Partition, Map> getEmitter(Map conf, TopologyContext context) {
+        return new AdaptiveEmitter(spout.getEmitter(conf, context), context);
+    }
+
+    @Override
+    public Coordinator getCoordinator(Map conf, TopologyContext context) {
+        return spout.getCoordinator(conf, context);
+    }
+
+    @Override
+    public Map<String, Object> getComponentConfiguration() {
+        return spout.getComponentConfiguration();
+    }
+
+    @Override
+    public Fields getOutputFields() {
+        return spout.getOutputFields();
+    }
+
+    private class AdaptiveEmitter implements Emitter<List<GlobalPartitionInformation>, Partition, Map> {
+        private final Logger logger = LoggerFactory.getLogger(AdaptiveKafkaSpout.class);
+
+        private final Emitter<List<GlobalPartitionInformation>, Partition, Map> emitter;
+        private final CountMetric adjustments;
+
+        private Long transactionId;
+        private long batchStart;
+        private long tuples;
+
+        AdaptiveEmitter(Emitter<List<GlobalPartitionInformation>, Partition, Map> emitter, TopologyContext context) {
+            this.emitter = emitter;
+
+            int bucketSeconds = config.metricsTimeBucketSizeInSecs;
+            context.registerMetric("batchFetchSizeBytes", (IMetric) controller::getFetchSizeBytes, bucketSeconds);
+            context.registerMetric("batchDelayMillis", (IMetric) controller::getDelayMillis, bucketSeconds);
+            context.registerMetric("batchEstimatedLatencyMillis", (IMetric) controller::getEstimatedLatencyMillis, bucketSeconds);
+            context.registerMetric("batchThroughput", (IMetric) controller::getThroughput, bucketSeconds);
+            this.adjustments = context.registerMetric("batchAdjustments", new CountMetric(), bucketSeconds);
+        }
+
+        @Override
+        public Map emitPartitionBatch(TransactionAttempt tx, TridentCollector collector, Partition partition, Map lastPartitionMeta) {
+            if (!tx.getTransactionId().equals(transactionId)) {
+                startBatch(tx.getTransactionId());
+            }
+
+            return emitter.emitPartitionBatch(tx, new TridentCollector() {
+                @Override
+                public void emit(List<Object> values) {
+                    tuples++;
+                    collector.emit(values);
+                }
+
+                @Override
+                public void reportError(Throwable t) {
+                    collector.reportError(t);
+                }
+            }, partition, lastPartitionMeta);
+        }
+
+        private void startBatch(Long nextTransactionId) {
+            long now = System.nanoTime();
+            if (transactionId != null && controller.onBatch(now - batchStart, tuples)) {
+                config.fetchSizeBytes = controller.getFetchSizeBytes();
+                adjustments.incr();
+                logger.debug(String.format("Batches estimated at %d ms and %.0f tuples/s, %s: fetch size %d bytes, delay %d ms",
+                        controller.getEstimatedLatencyMillis(), controller.getThroughput(), controller, controller.getFetchSizeBytes(),
+                        controller.getDelayMillis()));
+            }
+
+            transactionId = nextTransactionId;
+            batchStart = now;
+            tuples = 0;
+
+            if (controller.getDelayMillis() > 0) {
+                Utils.sleep(controller.getDelayMillis());
+            }
+        }
+
+        @Override
+        public void refreshPartitions(List<Partition> partitionResponsibilities) {
+            emitter.refreshPartitions(partitionResponsibilities);
+        }
+
+        @Override
+        public List<Partition> getOrderedPartitions(List<GlobalPartitionInformation> allPartitionInfo) {
+            return emitter.getOrderedPartitions(allPartitionInfo);
+        }
+
+        @Override
+        public void close() {
+            emitter.close();
+        }
+    }
+}
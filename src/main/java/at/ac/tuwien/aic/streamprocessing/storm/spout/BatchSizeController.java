@@ -0,0 +1,165 @@
+package at.ac.tuwien.aic.streamprocessing.storm.spout;
+
+import java.io.Serializable;
+
+/**
+ * Feedback controller for the size of the Trident batches read from kafka, used by the {@link AdaptiveKafkaSpout}.
+ *
+ * The controller sees the cycle time, i.e. the time from the start of one batch to the start of the next, and the number of tuples of each batch.
+ * Every WINDOW batches it derives the throughput and an estimated latency and adjusts two knobs: the fetch size per partition, which bounds the batch
+ * size, and a delay before each batch, which extends the emit interval. A fix waits up to one cycle in kafka and its batch completes after the
+ * batches in flight before it, so the latency is estimated as cycle * (pending batches + 1), an upper bound.
+ *
+ * For the LATENCY goal the controller backs off when the estimate exceeds the target, by removing delay first and shrinking the fetch size second.
+ * Below the target it grows the fetch size up to the maximum and then adds delay, so the batches fill up and their fixed cost is spread over more
+ * tuples. For the THROUGHPUT goal the delay stays 0 and the fetch size climbs in the direction which increased the throughput.
+ */
+public class BatchSizeController implements Serializable {
+
+    public enum Goal {
+        LATENCY, THROUGHPUT
+    }
+
+    public static final int MIN_FETCH_SIZE_BYTES = 16 * 1024;
+    public static final int MAX_FETCH_SIZE_BYTES = 16 * 1024 * 1024;
+
+    static final int WINDOW = 10;
+
+    private static final double INCREASE = 1.25;
+    private static final double DECREASE = 0.7;
+    // grow only if the estimate is clearly below the target, so the controller settles instead of oscillating
+    private static final double HEADROOM = 0.7;
+    // throughput changes within the tolerance are noise and keep the direction
+    private static final double TOLERANCE = 0.05;
+
+    private final Goal goal;
+    private final long targetLatencyMillis;
+    private final int pendingBatches;
+
+    private int fetchSizeBytes;
+    private long delayMillis;
+
+    private int batches;
+    private long cycleNanos;
+    private long tuples;
+
+    private long estimatedLatencyMillis;
+    private double throughput;
+    private double lastThroughput = -1;
+    private boolean growing = true;
+
+    /**
+     * @param goal
+     *            what to optimize for
+     * @param targetLatencyMillis
+     *            the latency to stay below for the LATENCY goal
+     * @param pendingBatches
+     *            the number of batches in flight, i.e. topology.max.spout.pending
+     * @param initialFetchSizeBytes
+     *            the fetch size to start from
+     */
+    public BatchSizeController(Goal goal, long targetLatencyMillis, int pendingBatches, int initialFetchSizeBytes) {
+        if (goal == Goal.LATENCY && targetLatencyMillis <= 0) {
+            throw new IllegalArgumentException("The target latency must be positive");
+        }
+        this.goal = goal;
+        this.targetLatencyMillis = targetLatencyMillis;
+        this.pendingBatches = Math.max(1, pendingBatches);
+        this.fetchSizeBytes = clamp(initialFetchSizeBytes);
+    }
+
+    /**
+     * Records a finished batch cycle.
+     *
+     * @param cycleNanos
+     *            the time from the start of the batch until the start of the next one
+     * @param tupleCount
+     *            the number of tuples of the batch
+     * @return true if the fetch size or the delay changed
+     */
+    public boolean onBatch(long cycleNanos, long tupleCount) {
+        this.batches++;
+        this.cycleNanos += cycleNanos;
+        this.tuples += tupleCount;
+        if (batches < WINDOW) {
+            return false;
+        }
+
+        throughput = this.cycleNanos == 0 ? 0 : tuples * 1e9 / this.cycleNanos;
+        estimatedLatencyMillis = Math.round(this.cycleNanos / 1e6 / batches * (pendingBatches + 1));
+        this.batches = 0;
+        this.cycleNanos = 0;
+        this.tuples = 0;
+
+        int previousFetchSizeBytes = fetchSizeBytes;
+        long previousDelayMillis = delayMillis;
+        if (goal == Goal.LATENCY) {
+            adjustForLatency();
+        } else {
+            adjustForThroughput();
+        }
+        return fetchSizeBytes != previousFetchSizeBytes || delayMillis != previousDelayMillis;
+    }
+
+    private void adjustForLatency() {
+        if (estimatedLatencyMillis > targetLatencyMillis) {
+            if (delayMillis > 0) {
+                delayMillis /= 2;
+            } else {
+                fetchSizeBytes = clamp((long) (fetchSizeBytes * DECREASE));
+            }
+        } else if (estimatedLatencyMillis < targetLatencyMillis * HEADROOM) {
+            if (fetchSizeBytes < MAX_FETCH_SIZE_BYTES) {
+                fetchSizeBytes = clamp((long) (fetchSizeBytes * INCREASE));
+            } else {
+                long maxDelayMillis = targetLatencyMillis / (pendingBatches + 1);
+                delayMillis = Math.min(maxDelayMillis, delayMillis + Math.max(1, targetLatencyMillis / 20));
+            }
+        }
+    }
+
+    private void adjustForThroughput() {
+        delayMillis = 0;
+        if (lastThroughput >= 0 && throughput < lastThroughput * (1 - TOLERANCE)) {
+            growing = !growing;
+        }
+        lastThroughput = throughput;
+
+        fetchSizeBytes = clamp((long) (fetchSizeBytes * (growing ? INCREASE : DECREASE)));
+    }
+
+    private static int clamp(long fetchSizeBytes) {
+        return (int) Math.max(MIN_FETCH_SIZE_BYTES, Math.min(MAX_FETCH_SIZE_BYTES, fetchSizeBytes));
+    }
+
+    public Goal getGoal() {
+        return goal;
+    }
+
+    public int getFetchSizeBytes() {
+        return fetchSizeBytes;
+    }
+
+    public long getDelayMillis() {
+        return delayMillis;
+    }
+
+    /**
+     * @return the latency estimated from the last window
+     */
+    public long getEstimatedLatencyMillis() {
+        return estimatedLatencyMillis;
+    }
+
+    /**
+     * @return the tuples per second of the last window
+     */
+    public double getThroughput() {
+        return throughput;
+    }
+
+    @Override
+    public String toString() {
+        return goal == Goal.LATENCY ? "latency below " + targetLatencyMillis + " ms" : "throughput";
+    }
+}
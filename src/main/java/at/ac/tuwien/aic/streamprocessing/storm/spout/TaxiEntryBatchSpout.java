@@ -0,0 +1,147 @@
+package at.ac.tuwien.aic.streamprocessing.storm.spout;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import org.apache.storm.Config;
+import org.apache.storm.task.TopologyContext;
+import org.apache.storm.trident.operation.TridentCollector;
+import org.apache.storm.trident.spout.IBatchSpout;
+import org.apache.storm.tuple.Fields;
+import org.apache.storm.tuple.Values;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.ac.tuwien.aic.streamprocessing.kafka.provider.DataProvider;
+import at.ac.tuwien.aic.streamprocessing.kafka.provider.ReplayFileProvider;
+import at.ac.tuwien.aic.streamprocessing.kafka.provider.TaxiEntryProvider;
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TaxiFields;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+
+/**
+ * Spout emitting the entries of a {@link TaxiEntryProvider} in the worker itself, so the processing cost of a topology can be measured without kafka.
+ *
+ * The spout runs as a single task which emits up to batchSize entries per batch. Batches are kept until they are acknowledged, so a failed batch is
+ * replayed with the same entries. Once the provider is exhausted, empty batches are emitted.
+ */
+public class TaxiEntryBatchSpout implements IBatchSpout {
+    private final Logger logger = LoggerFactory.getLogger(TaxiEntryBatchSpout.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final TaxiEntryProvider provider;
+    private final int batchSize;
+
+    private transient Stream<TaxiEntry> stream;
+    private transient Iterator<TaxiEntry> entries;
+    private transient TimestampFormatter timestampFormatter;
+    private transient Map<Long, List<List<Object>>> pendingBatches;
+    private transient long emitted;
+
+    /**
+     * Instantiates a new TaxiEntryBatchSpout.
+     *
+     * @param provider
+     *            the provider of the entries, which is serialized with the topology
+     * @param batchSize
+     *            the maximum number of entries per batch
+     */
+    public <P extends TaxiEntryProvider & Serializable> TaxiEntryBatchSpout(P provider, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.provider = provider;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Creates a spout for the given input.
+     *
+     * @param input
+     *            a {@link ReplayFileProvider replay file} or "synthetic" for a {@link DataProvider#createSyntheticFleet(Properties) synthetic fleet}
+     * @param options
+     *            the options of the synthetic fleet and spoutBatchSize=n for the batch size
+     * @return the spout
+     */
+    public static TaxiEntryBatchSpout forInput(String input, Properties options) {
+        int batchSize = Integer.parseInt(options.getProperty("spoutBatchSize", String.valueOf(DEFAULT_BATCH_SIZE)));
+        if (input.equals(DataProvider.SYNTHETIC_INPUT)) {
+            return new TaxiEntryBatchSpout(DataProvider.createSyntheticFleet(options), batchSize);
+        }
+        return new TaxiEntryBatchSpout(new ReplayFileProvider(input), batchSize);
+    }
+
+    @Override
+    public void open(Map conf, TopologyContext context) {
+        timestampFormatter = new TimestampFormatter(TimestampMode.fromConfig(conf));
+        pendingBatches = new HashMap<>();
+        stream = provider.getEntries();
+        entries = stream.iterator();
+        logger.info("Emitting " + provider + " in batches of " + batchSize);
+    }
+
+    @Override
+    public void emitBatch(long batchId, TridentCollector collector) {
+        List<List<Object>> batch = pendingBatches.get(batchId);
+        if (batch == null) {
+            batch = nextBatch();
+            pendingBatches.put(batchId, batch);
+        }
+
+        for (List<Object> tuple : batch) {
+            collector.emit(tuple);
+        }
+    }
+
+    private List<List<Object>> nextBatch() {
+        if (!entries.hasNext()) {
+            return new ArrayList<>();
+        }
+
+        List<List<Object>> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize && entries.hasNext()) {
+            TaxiEntry entry = entries.next();
+            long epochSecond = Timestamp.toEpochSecond(entry.getTimestamp());
+            batch.add(new Values(entry.getTaxiId(), timestampFormatter.format(epochSecond), entry.getLatitude(), entry.getLongitude()));
+        }
+
+        emitted += batch.size();
+        if (!entries.hasNext()) {
+            logger.info("Emitted all " + emitted + " entries of " + provider);
+        }
+        return batch;
+    }
+
+    @Override
+    public void ack(long batchId) {
+        pendingBatches.remove(batchId);
+    }
+
+    @Override
+    public void close() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    @Override
+    public Map<String, Object> getComponentConfiguration() {
+        // batches are numbered per task, a second task would emit the same entries again
+        Config conf = new Config();
+        conf.setMaxTaskParallelism(1);
+        return conf;
+    }
+
+    @Override
+    public Fields getOutputFields() {
+        return TaxiFields.BASE_FIELDS;
+    }
+}
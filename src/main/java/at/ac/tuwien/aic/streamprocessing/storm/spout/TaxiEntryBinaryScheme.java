@@ -0,0 +1,59 @@
+package at.ac.tuwien.aic.streamprocessing.storm.spout;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.apache.storm.kafka.KeyValueScheme;
+import org.apache.storm.tuple.Fields;
+import org.apache.storm.tuple.Values;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.ac.tuwien.aic.streamprocessing.model.serialization.TaxiEntryBinaryCodec;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TaxiFields;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+
+/**
+ * Scheme for records in the {@link TaxiEntryBinaryCodec} format which reads the fields straight from the kafka buffer, without copying the record into a
+ * byte[] or creating intermediate TaxiEntry objects.
+ */
+public class TaxiEntryBinaryScheme implements KeyValueScheme {
+
+    private final Logger logger = LoggerFactory.getLogger(TaxiEntryBinaryScheme.class);
+
+    private final TimestampFormatter timestampFormatter;
+
+    public TaxiEntryBinaryScheme() {
+        this(TimestampMode.FORMATTED);
+    }
+
+    public TaxiEntryBinaryScheme(TimestampMode timestampMode) {
+        this.timestampFormatter = new TimestampFormatter(timestampMode);
+    }
+
+    @Override
+    public List<Object> deserializeKeyAndValue(ByteBuffer key, ByteBuffer value) {
+        return deserialize(value);
+    }
+
+    @Override
+    public List<Object> deserialize(ByteBuffer ser) {
+        if (!TaxiEntryBinaryCodec.isBinary(ser)) {
+            logger.warn("Dropping record of " + ser.remaining() + " bytes which is not in the binary taxi entry format");
+            return null;
+        }
+
+        int offset = ser.position();
+        int taxiId = ser.getInt(offset + TaxiEntryBinaryCodec.ID_OFFSET);
+        long epochSecond = ser.getLong(offset + TaxiEntryBinaryCodec.TIMESTAMP_OFFSET);
+        double latitude = ser.getDouble(offset + TaxiEntryBinaryCodec.LATITUDE_OFFSET);
+        double longitude = ser.getDouble(offset + TaxiEntryBinaryCodec.LONGITUDE_OFFSET);
+
+        return new Values(taxiId, timestampFormatter.format(epochSecond), latitude, longitude);
+    }
+
+    @Override
+    public Fields getOutputFields() {
+        return TaxiFields.BASE_FIELDS;
+    }
+}
@@ -11,14 +11,28 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+import at.ac.tuwien.aic.streamprocessing.model.serialization.TaxiEntryBinaryCodec;
 import at.ac.tuwien.aic.streamprocessing.model.serialization.TaxiEntryDeserializer;
 import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
 import at.ac.tuwien.aic.streamprocessing.storm.tuple.TaxiFields;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
 
 public class TaxiEntryKeyValueScheme implements KeyValueScheme {
 
     private final Logger logger = LoggerFactory.getLogger(TaxiEntryKeyValueScheme.class);
 
+    private final TimestampMode timestampMode;
+    private final TaxiEntryBinaryScheme binaryScheme;
+
+    public TaxiEntryKeyValueScheme() {
+        this(TimestampMode.FORMATTED);
+    }
+
+    public TaxiEntryKeyValueScheme(TimestampMode timestampMode) {
+        this.timestampMode = timestampMode;
+        this.binaryScheme = new TaxiEntryBinaryScheme(timestampMode);
+    }
+
     @Override
     public List<Object> deserializeKeyAndValue(ByteBuffer key, ByteBuffer value) {
         return deserialize(value);
@@ -26,6 +40,10 @@ public class TaxiEntryKeyValueScheme implements KeyValueScheme {
 
     @Override
     public List<Object> deserialize(ByteBuffer ser) {
+        if (TaxiEntryBinaryCodec.isBinary(ser)) {
+            return binaryScheme.deserialize(ser);
+        }
+
         String valueString = StringScheme.deserializeString(ser);
         TaxiEntry entry = TaxiEntryDeserializer.deserialize(valueString.getBytes());
 
@@ -34,7 +52,8 @@ public class TaxiEntryKeyValueScheme implements KeyValueScheme {
             return null;
         }
 
-        return new Values(entry.getTaxiId(), Timestamp.toString(entry.getTimestamp()), entry.getLatitude(), entry.getLongitude());
+        Object timestamp = timestampMode.toField(Timestamp.toEpochSecond(entry.getTimestamp()) * 1000L);
+        return new Values(entry.getTaxiId(), timestamp, entry.getLatitude(), entry.getLongitude());
     }
 
     @Override
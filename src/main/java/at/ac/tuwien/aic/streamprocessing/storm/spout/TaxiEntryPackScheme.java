@@ -0,0 +1,51 @@
+package at.ac.tuwien.aic.streamprocessing.storm.spout;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.storm.spout.MultiScheme;
+import org.apache.storm.tuple.Fields;
+import org.apache.storm.tuple.Values;
+
+import at.ac.tuwien.aic.streamprocessing.model.serialization.TaxiEntryPackCodec;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TaxiFields;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+
+/**
+ * Scheme which fans a packed record out into one tuple per taxi entry. Records holding a single entry are handed to {@link TaxiEntryKeyValueScheme}, so
+ * packed and unpacked producers can feed the same topic.
+ */
+public class TaxiEntryPackScheme implements MultiScheme {
+
+    private final TaxiEntryKeyValueScheme singleEntryScheme;
+    private final TimestampFormatter timestampFormatter;
+
+    public TaxiEntryPackScheme() {
+        this(TimestampMode.FORMATTED);
+    }
+
+    public TaxiEntryPackScheme(TimestampMode timestampMode) {
+        this.singleEntryScheme = new TaxiEntryKeyValueScheme(timestampMode);
+        this.timestampFormatter = new TimestampFormatter(timestampMode);
+    }
+
+    @Override
+    public Iterable<List<Object>> deserialize(ByteBuffer ser) {
+        if (!TaxiEntryPackCodec.isPacked(ser)) {
+            List<Object> tuple = singleEntryScheme.deserialize(ser);
+            return tuple == null ? null : Collections.singletonList(tuple);
+        }
+
+        List<List<Object>> tuples = new ArrayList<>();
+        TaxiEntryPackCodec.decode(ser,
+                (taxiId, epochSecond, latitude, longitude) -> tuples.add(new Values(taxiId, timestampFormatter.format(epochSecond), latitude, longitude)));
+        return tuples;
+    }
+
+    @Override
+    public Fields getOutputFields() {
+        return TaxiFields.BASE_FIELDS;
+    }
+}
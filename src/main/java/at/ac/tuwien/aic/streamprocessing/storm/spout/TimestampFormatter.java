@@ -0,0 +1,30 @@
+package at.ac.tuwien.aic.streamprocessing.storm.spout;
+
+import java.io.Serializable;
+
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+
+/**
+ * Converts epoch seconds to the timestamp field of emitted tuples according to the {@link TimestampMode}. Entries arrive ordered by time, so the last
+ * converted second is cached and reused.
+ *
+ * Instances are not thread-safe, each spout executor uses its own.
+ */
+public class TimestampFormatter implements Serializable {
+    private final TimestampMode mode;
+
+    private transient long lastEpochSecond;
+    private transient Object lastTimestamp;
+
+    public TimestampFormatter(TimestampMode mode) {
+        this.mode = mode;
+    }
+
+    public Object format(long epochSecond) {
+        if (lastTimestamp == null || lastEpochSecond != epochSecond) {
+            lastEpochSecond = epochSecond;
+            lastTimestamp = mode.toField(epochSecond * 1000L);
+        }
+        return lastTimestamp;
+    }
+}
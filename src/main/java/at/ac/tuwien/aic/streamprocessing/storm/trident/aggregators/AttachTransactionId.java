@@ -0,0 +1,34 @@
+package at.ac.tuwien.aic.streamprocessing.storm.trident.aggregators;
+
+import org.apache.storm.trident.operation.BaseAggregator;
+import org.apache.storm.trident.operation.TridentCollector;
+import org.apache.storm.trident.topology.TransactionAttempt;
+import org.apache.storm.trident.tuple.TridentTuple;
+import org.apache.storm.tuple.Values;
+
+/**
+ * Emits each tuple unchanged with the transaction id of its batch appended as the field txid, null if the batch is not transactional.
+ *
+ * A state query does not learn which batch it reads for, an opaque state needs that to tell a replay apart. An aggregator gets the batch id, so
+ * the tuples are passed through this one before the query, within the same partition.
+ */
+public class AttachTransactionId extends BaseAggregator<Long> {
+
+    @Override
+    public Long init(Object batchId, TridentCollector collector) {
+        return batchId instanceof TransactionAttempt ? ((TransactionAttempt) batchId).getTransactionId() : null;
+    }
+
+    @Override
+    public void aggregate(Long txid, TridentTuple tuple, TridentCollector collector) {
+        Values values = new Values();
+        values.addAll(tuple.getValues());
+        values.add(txid);
+        collector.emit(values);
+    }
+
+    @Override
+    public void complete(Long txid, TridentCollector collector) {
+        // nothing to do
+    }
+}
@@ -34,7 +34,7 @@ public class CalculateAverageSpeed extends Aggregator<AverageSpeedState> {
 
         Double averageSpeed = newSpeedSum / newObservations;
 
-        logger.debug("(avgSpeed): [taxiId={}, timestamp={}, avgSpeed={}]", tuple.getIntegerByField("id"), tuple.getStringByField("timestamp"),
+        logger.debug("(avgSpeed): [taxiId={}, timestamp={}, avgSpeed={}]", tuple.getIntegerByField("id"), tuple.getValueByField("timestamp"),
                 String.format("%.3f", averageSpeed));
 
         return new AverageSpeedState(newObservations, newSpeedSum);
@@ -33,7 +33,7 @@ public class CalculateDistance extends Aggregator<DistanceState> {
         Double distance = previous.getDistance() + delta;
 
         logger.debug("(distance): [taxiId={}, timestamp={}, latitude={}, longitude={}, distance={}]", tuple.getIntegerByField("id"),
-                tuple.getStringByField("timestamp"), latitude, longitude, String.format("%.3f", distance));
+                tuple.getValueByField("timestamp"), latitude, longitude, String.format("%.3f", distance));
 
         return new DistanceState(latitude, longitude, distance);
     }
@@ -1,7 +1,5 @@
 package at.ac.tuwien.aic.streamprocessing.storm.trident.aggregators;
 
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.Map;
 
 import org.apache.storm.trident.operation.TridentOperationContext;
@@ -9,11 +7,11 @@ import org.apache.storm.trident.tuple.TridentTuple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObjectMapper;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed.SpeedState;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed.SpeedStateMapper;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.util.Haversine;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
 
 /**
  * The _Calculate Speed_ operator calculates the speed between two successive locations for each taxi, whereas the distance between two locations can be derived
@@ -30,21 +28,18 @@ public class CalculateSpeed extends Aggregator<SpeedState> {
     public void prepare(Map conf, TridentOperationContext context) {
         super.prepare(conf, context);
 
-        this.mapper = new SpeedStateMapper();
+        this.mapper = new SpeedStateMapper(TimestampMode.fromConfig(conf));
     }
 
     @Override
     protected SpeedState compute(SpeedState previous, TridentTuple tuple) {
-        String timestamp = tuple.getStringByField("timestamp");
+        long timestamp = TimestampMode.toEpochMillis(tuple.getValueByField("timestamp"));
         Double currentLatitude = tuple.getDoubleByField("latitude");
         Double currentLongitude = tuple.getDoubleByField("longitude");
 
         Double distance = Haversine.calculateDistanceBetween(previous.getLatitude(), previous.getLongitude(), currentLatitude, currentLongitude);
 
-        LocalDateTime startTime = Timestamp.parse(previous.getTimestamp());
-        LocalDateTime endTime = Timestamp.parse(timestamp);
-
-        Double time = ChronoUnit.MILLIS.between(startTime, endTime) / (60. * 60.0 * 1000.0);
+        Double time = (timestamp - previous.getTimestamp()) / (60. * 60.0 * 1000.0);
 
         Double speed;
         if (Double.compare(time, 0.0) == 0) {
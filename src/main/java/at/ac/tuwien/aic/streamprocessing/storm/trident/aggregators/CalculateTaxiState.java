@@ -0,0 +1,81 @@
+package at.ac.tuwien.aic.streamprocessing.storm.trident.aggregators;
+
+import java.util.Map;
+
+import org.apache.storm.trident.operation.TridentOperationContext;
+import org.apache.storm.trident.tuple.TridentTuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObjectMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.taxi.TaxiState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.taxi.TaxiStateMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.util.Haversine;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+
+/**
+ * Calculates the speed, average speed and distance of a taxi in one pass, equivalent to {@link CalculateSpeed}, {@link CalculateAverageSpeed} and
+ * {@link CalculateDistance} in sequence. The distance between two locations is derived once and used for both the speed and the distance.
+ */
+public class CalculateTaxiState extends Aggregator<TaxiState> {
+
+    private final Logger logger = LoggerFactory.getLogger(CalculateTaxiState.class);
+
+    private StateObjectMapper<TaxiState> mapper;
+
+    @Override
+    public void prepare(Map conf, TridentOperationContext context) {
+        super.prepare(conf, context);
+
+        this.mapper = new TaxiStateMapper(TimestampMode.fromConfig(conf));
+    }
+
+    @Override
+    protected TaxiState compute(TaxiState previous, TridentTuple tuple) {
+        TaxiState next = advance(previous, TimestampMode.toEpochMillis(tuple.getValueByField("timestamp")), tuple.getDoubleByField("latitude"),
+                tuple.getDoubleByField("longitude"));
+
+        logger.debug("(taxi): [taxiId={}, timestamp={}, latitude={}, longitude={}, speed={}, avgSpeed={}, distance={}]", tuple.getIntegerByField("id"),
+                next.getTimestamp(), next.getLatitude(), next.getLongitude(), String.format("%.3f", next.getSpeed()),
+                String.format("%.3f", next.getAverageSpeed()), String.format("%.3f", next.getDistance()));
+
+        return next;
+    }
+
+    /**
+     * Calculates the state of a taxi after the given fix.
+     *
+     * @param previous
+     *            the state before the fix, for the first fix of a taxi a state at the same position with no observations
+     * @param timestamp
+     *            the epoch millis of the fix
+     * @param latitude
+     *            the latitude of the fix
+     * @param longitude
+     *            the longitude of the fix
+     * @return the new state
+     */
+    public static TaxiState advance(TaxiState previous, long timestamp, Double latitude, Double longitude) {
+        Double delta = Haversine.calculateDistanceBetween(previous.getLatitude(), previous.getLongitude(), latitude, longitude);
+
+        Double time = (timestamp - previous.getTimestamp()) / (60. * 60.0 * 1000.0);
+
+        Double speed;
+        if (Double.compare(time, 0.0) == 0) {
+            speed = 0.0;
+        } else {
+            speed = delta / time; // in kmh
+        }
+
+        Integer observations = previous.getObservations() + 1;
+        Double speedSum = previous.getSpeedSum() + speed;
+        Double distance = previous.getDistance() + delta;
+
+        return new TaxiState(timestamp, latitude, longitude, speed, observations, speedSum, distance);
+    }
+
+    @Override
+    protected StateObjectMapper<TaxiState> getMapper() {
+        return mapper;
+    }
+}
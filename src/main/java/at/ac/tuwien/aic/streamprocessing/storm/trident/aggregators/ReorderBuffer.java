@@ -0,0 +1,249 @@
+package at.ac.tuwien.aic.streamprocessing.storm.trident.aggregators;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.storm.Config;
+import org.apache.storm.trident.operation.BaseAggregator;
+import org.apache.storm.trident.operation.TridentCollector;
+import org.apache.storm.trident.operation.TridentOperationContext;
+import org.apache.storm.trident.topology.TransactionAttempt;
+import org.apache.storm.trident.tuple.TridentTuple;
+import org.apache.storm.tuple.Values;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+
+/**
+ * Restores the timestamp order of the fixes of each taxi, so that producers and partitions may deliver them out of order.
+ *
+ * Fixes are held back per taxi until the watermark passes them. The watermark is the latest timestamp seen by this partition minus the allowed
+ * lateness, it is evaluated at the end of every batch. Fixes at or before the last emitted fix of their taxi arrive too late, or are duplicates, and are
+ * dropped. If a taxi has more than capacity fixes buffered, its oldest fix is emitted early. If no fixes arrive for idleFlushMillis, all buffered fixes
+ * are emitted, so the last fixes of a replay are not held back forever.
+ *
+ * Trident does not roll the buffers back when a batch fails, the fixes emitted by the failed attempt are already gone from them. So the output of each
+ * transaction is kept, and emitted again when a batch of the same transaction is replayed. Fixes of the replay which were already emitted or buffered
+ * are skipped without being counted as dropped, new ones are buffered as usual. Up to maxSpoutPending batches run interleaved, the output of a
+ * transaction is dropped once a transaction maxSpoutPending later starts, which the spout only starts after the earlier one was committed.
+ *
+ * The buffers live in the task between batches, which requires the stream to be partitioned by taxi id. They are not part of the trident state, fixes
+ * buffered when a worker dies are lost.
+ */
+public class ReorderBuffer extends BaseAggregator<ReorderBuffer.Batch> {
+    private final Logger logger = LoggerFactory.getLogger(ReorderBuffer.class);
+
+    public static final int DEFAULT_CAPACITY = 64;
+    public static final long DEFAULT_IDLE_FLUSH_MILLIS = 5000;
+
+    private static final long LATE_LOG_INTERVAL = 1000;
+
+    private final long allowedLatenessMillis;
+    private final int capacity;
+    private final long idleFlushMillis;
+
+    private transient Map<Integer, TaxiBuffer> buffers;
+    // the buffers holding fixes, only these have to be checked against the watermark
+    private transient List<TaxiBuffer> waiting;
+    private transient long maxTimestamp;
+    private transient long lastArrival;
+    private transient long dropped;
+    // the fixes emitted for each transaction which may still be replayed
+    private transient TreeMap<Long, List<Values>> outputs;
+    private transient int maxSpoutPending;
+
+    public ReorderBuffer(long allowedLatenessMillis) {
+        this(allowedLatenessMillis, DEFAULT_CAPACITY, DEFAULT_IDLE_FLUSH_MILLIS);
+    }
+
+    /**
+     * Instantiates a new ReorderBuffer.
+     *
+     * @param allowedLatenessMillis
+     *            how far in event time a fix may arrive behind the latest fix of the partition
+     * @param capacity
+     *            the maximum number of buffered fixes per taxi
+     * @param idleFlushMillis
+     *            the wall clock time without new fixes after which all buffered fixes are emitted
+     */
+    public ReorderBuffer(long allowedLatenessMillis, int capacity, long idleFlushMillis) {
+        if (allowedLatenessMillis < 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Allowed lateness must not be negative and capacity must be positive");
+        }
+        this.allowedLatenessMillis = allowedLatenessMillis;
+        this.capacity = capacity;
+        this.idleFlushMillis = idleFlushMillis;
+    }
+
+    @Override
+    public void prepare(Map conf, TridentOperationContext context) {
+        super.prepare(conf, context);
+
+        this.buffers = new HashMap<>();
+        this.waiting = new ArrayList<>();
+        this.maxTimestamp = Long.MIN_VALUE;
+        this.lastArrival = System.currentTimeMillis();
+        this.outputs = new TreeMap<>();
+        // trident runs a single batch at a time without the setting
+        Object pending = conf == null ? null : conf.get(Config.TOPOLOGY_MAX_SPOUT_PENDING);
+        this.maxSpoutPending = pending == null ? 1 : Math.max(1, ((Number) pending).intValue());
+    }
+
+    @Override
+    public Batch init(Object batchId, TridentCollector collector) {
+        if (!(batchId instanceof TransactionAttempt)) {
+            // a replay can not be recognized, nothing has to be kept
+            return new Batch(null, false);
+        }
+
+        long txid = ((TransactionAttempt) batchId).getTransactionId();
+        List<Values> output = outputs.get(txid);
+        if (output != null) {
+            return new Batch(output, true);
+        }
+
+        outputs.headMap(txid - maxSpoutPending, true).clear();
+        output = new ArrayList<>();
+        outputs.put(txid, output);
+        return new Batch(output, false);
+    }
+
+    @Override
+    public void aggregate(Batch batch, TridentTuple tuple, TridentCollector collector) {
+        Integer id = tuple.getIntegerByField("id");
+        Object timestampField = tuple.getValueByField("timestamp");
+        long timestamp = TimestampMode.toEpochMillis(timestampField);
+
+        batch.replayOutput(collector);
+        lastArrival = System.currentTimeMillis();
+        maxTimestamp = Math.max(maxTimestamp, timestamp);
+
+        TaxiBuffer buffer = buffers.get(id);
+        if (buffer == null) {
+            buffer = new TaxiBuffer();
+            buffers.put(id, buffer);
+        }
+
+        Fix fix = new Fix(timestamp, new Values(id, timestampField, tuple.getDoubleByField("latitude"), tuple.getDoubleByField("longitude")));
+        if (timestamp <= buffer.lastEmitted || !buffer.insert(fix)) {
+            if (!batch.replay && ++dropped % LATE_LOG_INTERVAL == 1) {
+                logger.warn("Dropped late or duplicate fix of taxi " + id + " at " + timestampField + ", " + dropped + " dropped so far");
+            }
+            return;
+        }
+
+        if (!buffer.waiting) {
+            buffer.waiting = true;
+            waiting.add(buffer);
+        }
+        if (buffer.fixes.size() > capacity) {
+            buffer.emitUntil(buffer.fixes.get(0).timestamp, collector, batch.output);
+        }
+    }
+
+    @Override
+    public void complete(Batch batch, TridentCollector collector) {
+        batch.replayOutput(collector);
+        if (waiting.isEmpty()) {
+            return;
+        }
+
+        long watermark;
+        if (System.currentTimeMillis() - lastArrival >= idleFlushMillis) {
+            watermark = Long.MAX_VALUE;
+        } else {
+            watermark = maxTimestamp - allowedLatenessMillis;
+        }
+
+        Iterator<TaxiBuffer> iterator = waiting.iterator();
+        while (iterator.hasNext()) {
+            TaxiBuffer buffer = iterator.next();
+            buffer.emitUntil(watermark, collector, batch.output);
+            if (buffer.fixes.isEmpty()) {
+                buffer.waiting = false;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the number of fixes which were dropped because they arrived too late or twice
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * The state of one batch: the output kept for its transaction, null if the batch has none, and whether the batch is a replay.
+     */
+    static class Batch {
+        private final List<Values> output;
+        private final boolean replay;
+        private boolean replayPending;
+
+        Batch(List<Values> output, boolean replay) {
+            this.output = output;
+            this.replay = replay;
+            this.replayPending = replay;
+        }
+
+        void replayOutput(TridentCollector collector) {
+            if (replayPending) {
+                replayPending = false;
+                for (Values values : output) {
+                    collector.emit(values);
+                }
+            }
+        }
+    }
+
+    private static class Fix {
+        private final long timestamp;
+        private final Values values;
+
+        Fix(long timestamp, Values values) {
+            this.timestamp = timestamp;
+            this.values = values;
+        }
+    }
+
+    /**
+     * The held back fixes of one taxi, sorted by timestamp.
+     */
+    private static class TaxiBuffer {
+        private final List<Fix> fixes = new ArrayList<>();
+        private long lastEmitted = Long.MIN_VALUE;
+        private boolean waiting;
+
+        boolean insert(Fix fix) {
+            // fixes mostly arrive in order, search the position from the end
+            int position = fixes.size();
+            while (position > 0 && fixes.get(position - 1).timestamp > fix.timestamp) {
+                position--;
+            }
+            if (position > 0 && fixes.get(position - 1).timestamp == fix.timestamp) {
+                return false;
+            }
+            fixes.add(position, fix);
+            return true;
+        }
+
+        void emitUntil(long watermark, TridentCollector collector, List<Values> output) {
+            int count = 0;
+            while (count < fixes.size() && fixes.get(count).timestamp <= watermark) {
+                Fix fix = fixes.get(count++);
+                collector.emit(fix.values);
+                if (output != null) {
+                    output.add(fix.values);
+                }
+                lastEmitted = fix.timestamp;
+            }
+            fixes.subList(0, count).clear();
+        }
+    }
+}
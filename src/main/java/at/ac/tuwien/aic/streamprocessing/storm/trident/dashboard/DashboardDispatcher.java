@@ -0,0 +1,279 @@
+package at.ac.tuwien.aic.streamprocessing.storm.trident.dashboard;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.storm.shade.org.apache.http.client.config.RequestConfig;
+import org.apache.storm.shade.org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.storm.shade.org.apache.http.client.methods.HttpPost;
+import org.apache.storm.shade.org.apache.http.entity.StringEntity;
+import org.apache.storm.shade.org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.storm.shade.org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.storm.shade.org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends the dashboard notifications of a worker from a background thread, so a slow or unreachable dashboard does not hold up the processing.
+ *
+ * Notifications wait in a bounded queue. When the queue is full, new notifications are dropped. With the COALESCE policy a notification replaces one
+ * which is still waiting for the same URI and taxi, e.g. an older location of the taxi, and takes its place at the end of the queue. So the queue
+ * holds at most one notification per taxi and URI, the dashboard receives the latest state, and a taxi's notifications to different URIs keep their
+ * order. With the DROP policy every notification is queued.
+ *
+ * Operators get the dispatcher of their worker with {@link #get(Map)}, which reads the queue size and policy from the topology configuration.
+ */
+public class DashboardDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(DashboardDispatcher.class);
+
+    public enum Policy {
+        DROP, COALESCE
+    }
+
+    public static final String QUEUE_SIZE_CONFIG_KEY = "aic.dashboard.queue.size";
+    public static final String POLICY_CONFIG_KEY = "aic.dashboard.policy";
+
+    public static final int DEFAULT_QUEUE_SIZE = 10000;
+    public static final Policy DEFAULT_POLICY = Policy.COALESCE;
+
+    private static final int TIMEOUT_MILLIS = 2000;
+    private static final int LOG_EVERY = 10000;
+
+    private static DashboardDispatcher instance;
+
+    /**
+     * Sends one notification, closed when the background thread stops.
+     */
+    interface Sender extends Closeable {
+        void send(String uri, String json) throws IOException;
+
+        @Override
+        default void close() throws IOException {
+            // nothing to release
+        }
+    }
+
+    private final int capacity;
+    private final Policy policy;
+    private final Sender sender;
+
+    // guarded by itself, keyed by URI and taxi id for COALESCE and by a sequence number for DROP
+    private final LinkedHashMap<Object, Notification> pending = new LinkedHashMap<>();
+    private long sequence;
+    private boolean closed = false;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private final Thread thread;
+
+    /**
+     * @param conf
+     *            the topology configuration, may be null for the defaults
+     * @return the dispatcher of this worker, created with the queue size and policy of the first configuration
+     */
+    public static synchronized DashboardDispatcher get(Map conf) {
+        if (instance == null) {
+            Object queueSize = conf == null ? null : conf.get(QUEUE_SIZE_CONFIG_KEY);
+            Object policy = conf == null ? null : conf.get(POLICY_CONFIG_KEY);
+            instance = new DashboardDispatcher(queueSize == null ? DEFAULT_QUEUE_SIZE : Integer.parseInt(queueSize.toString()),
+                    policy == null ? DEFAULT_POLICY : Policy.valueOf(policy.toString()), new HttpSender());
+        }
+        return instance;
+    }
+
+    DashboardDispatcher(int capacity, Policy policy, Sender sender) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The queue size must be positive");
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+        this.sender = sender;
+
+        thread = new Thread(this::run, "dashboard-dispatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues a notification without blocking.
+     *
+     * @param uri
+     *            the dashboard URI to post to
+     * @param parameters
+     *            the parameters, posted as JSON object
+     * @return false if the notification was dropped
+     */
+    public boolean dispatch(String uri, Map<String, String> parameters) {
+        String json = toJSON(parameters);
+        synchronized (pending) {
+            if (closed) {
+                return false;
+            }
+
+            Object key = policy == Policy.COALESCE ? uri + '|' + parameters.get("taxiId") : sequence++;
+            Notification waiting = pending.remove(key);
+            if (waiting != null) {
+                // not sent before notifications of the taxi which were dispatched after the replaced one
+                waiting.json = json;
+                pending.put(key, waiting);
+                coalesced.incrementAndGet();
+                return true;
+            }
+
+            if (pending.size() >= capacity) {
+                long count = dropped.incrementAndGet();
+                if (count % LOG_EVERY == 1) {
+                    logger.warn("Dashboard queue full, dropped " + count + " notifications so far");
+                }
+                return false;
+            }
+
+            pending.put(key, new Notification(uri, json));
+            pending.notifyAll();
+            return true;
+        }
+    }
+
+    private void run() {
+        try {
+            dispatchPending();
+        } finally {
+            try {
+                sender.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close the dashboard connection", e);
+            }
+        }
+    }
+
+    private void dispatchPending() {
+        while (true) {
+            String uri;
+            String json;
+            synchronized (pending) {
+                while (pending.isEmpty() && !closed) {
+                    try {
+                        pending.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+
+                Iterator<Notification> iterator = pending.values().iterator();
+                Notification notification = iterator.next();
+                iterator.remove();
+                uri = notification.uri;
+                json = notification.json;
+            }
+
+            try {
+                sender.send(uri, json);
+                sent.incrementAndGet();
+            } catch (IOException | RuntimeException e) {
+                long count = failed.incrementAndGet();
+                if (count % LOG_EVERY == 1) {
+                    logger.error("Caught exception while trying to send a post request, " + count + " failed so far", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the background thread and closes its connection, notifications still waiting are discarded.
+     */
+    public void close() {
+        synchronized (pending) {
+            closed = true;
+            pending.clear();
+            pending.notifyAll();
+        }
+    }
+
+    /**
+     * Closes the dispatcher of this worker, e.g. when a local cluster is shut down. The next {@link #get(Map)} creates a new one.
+     */
+    public static synchronized void closeInstance() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    public int getPending() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    public long getSent() {
+        return sent.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    static String toJSON(Map<String, String> map) {
+        if (map == null || map.isEmpty()) {
+            return "{}";
+        }
+        StringBuilder response = new StringBuilder("{");
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            response.append(String.format("\"%s\":\"%s\",", entry.getKey(), entry.getValue()));
+        }
+        response.setLength(response.length() - 1);
+        return response.append('}').toString();
+    }
+
+    private static class Notification {
+        private final String uri;
+        private String json;
+
+        Notification(String uri, String json) {
+            this.uri = uri;
+            this.json = json;
+        }
+    }
+
+    private static class HttpSender implements Sender {
+        private final CloseableHttpClient httpClient = HttpClientBuilder.create().setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectTimeout(TIMEOUT_MILLIS).setSocketTimeout(TIMEOUT_MILLIS).setConnectionRequestTimeout(TIMEOUT_MILLIS).build()).build();
+
+        @Override
+        public void send(String uri, String json) throws IOException {
+            HttpPost post = new HttpPost(uri);
+            post.setEntity(new StringEntity(json));
+            post.setHeader("Content-type", "application/json");
+            try (CloseableHttpResponse response = httpClient.execute(post)) {
+                EntityUtils.consumeQuietly(response.getEntity());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            httpClient.close();
+        }
+    }
+}
@@ -1,53 +1,37 @@
 package at.ac.tuwien.aic.streamprocessing.storm.trident.dashboard;
 
-import java.io.IOException;
 import java.util.Map;
 
-import org.apache.storm.shade.org.apache.http.client.HttpClient;
-import org.apache.storm.shade.org.apache.http.client.methods.HttpPost;
-import org.apache.storm.shade.org.apache.http.entity.StringEntity;
-import org.apache.storm.shade.org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.storm.trident.operation.BaseFilter;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.apache.storm.trident.operation.TridentOperationContext;
 
+/**
+ * Base of the filters which notify the dashboard. The notifications are handed to the {@link DashboardDispatcher} of the worker and sent in the
+ * background.
+ */
 public abstract class DashboardNotifier extends BaseFilter {
-    private final Logger logger = LoggerFactory.getLogger(DashboardNotifier.class);
     private String dashboardURI;
 
+    private transient DashboardDispatcher dispatcher;
+
     public DashboardNotifier(String dashboardURI) {
         this.dashboardURI = dashboardURI;
     }
 
+    @Override
+    public void prepare(Map conf, TridentOperationContext context) {
+        dispatcher = DashboardDispatcher.get(conf);
+    }
+
     protected void sendJSONPostRequest(Map<String, String> parameters) {
         sendJSONPostRequest(parameters, dashboardURI);
     }
 
     protected void sendJSONPostRequest(Map<String, String> parameters, String dashboardURI) {
-        try {
-            HttpClient httpClient = HttpClientBuilder.create().build();
-            HttpPost post = new HttpPost(dashboardURI);
-            String data = toJSON(parameters);
-            StringEntity postingString = new StringEntity(data);
-            post.setEntity(postingString);
-            post.setHeader("Content-type", "application/json");
-            httpClient.execute(post);
-        } catch (IOException e) {
-            logger.error("Caught expcetion while trying to send a post request", e);
+        if (dispatcher == null) {
+            dispatcher = DashboardDispatcher.get(null);
         }
-
-    }
-
-    private String toJSON(Map<String, String> map) {
-        if (map == null) {
-            return "{}";
-        }
-        String response = "{";
-        for (String key : map.keySet()) {
-            response += String.format("\"%s\":\"%s\",", key, map.get(key));
-        }
-        return response.substring(0, response.length() - 1) + "}";
-
+        dispatcher.dispatch(dashboardURI, parameters);
     }
 
 }
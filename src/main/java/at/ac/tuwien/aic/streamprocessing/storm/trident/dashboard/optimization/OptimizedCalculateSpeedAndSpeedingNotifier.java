@@ -1,27 +1,21 @@
 package at.ac.tuwien.aic.streamprocessing.storm.trident.dashboard.optimization;
 
-import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.apache.storm.shade.org.apache.http.client.HttpClient;
-import org.apache.storm.shade.org.apache.http.client.methods.HttpPost;
-import org.apache.storm.shade.org.apache.http.entity.StringEntity;
-import org.apache.storm.shade.org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.storm.trident.operation.TridentOperationContext;
 import org.apache.storm.trident.tuple.TridentTuple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.aggregators.Aggregator;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.dashboard.DashboardDispatcher;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObjectMapper;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed.SpeedState;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed.SpeedStateMapper;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.util.Constants;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.util.Haversine;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
 
 public class OptimizedCalculateSpeedAndSpeedingNotifier extends Aggregator<SpeedState> {
 
@@ -30,6 +24,7 @@ public class OptimizedCalculateSpeedAndSpeedingNotifier extends Aggregator<Speed
     private String dashboardAddress;
 
     private StateObjectMapper<SpeedState> mapper;
+    private transient DashboardDispatcher dispatcher;
 
     public OptimizedCalculateSpeedAndSpeedingNotifier(String dashboardAddress) {
         this.dashboardAddress = dashboardAddress;
@@ -38,22 +33,20 @@ public class OptimizedCalculateSpeedAndSpeedingNotifier extends Aggregator<Speed
     @Override
     public void prepare(Map conf, TridentOperationContext context) {
         super.prepare(conf, context);
-        this.mapper = new SpeedStateMapper();
+        this.mapper = new SpeedStateMapper(TimestampMode.fromConfig(conf));
+        this.dispatcher = DashboardDispatcher.get(conf);
     }
 
     @Override
     protected SpeedState compute(SpeedState previous, TridentTuple tuple) {
         Integer taxiId = tuple.getIntegerByField("id");
-        String timestamp = tuple.getStringByField("timestamp");
+        long timestamp = TimestampMode.toEpochMillis(tuple.getValueByField("timestamp"));
         Double currentLatitude = tuple.getDoubleByField("latitude");
         Double currentLongitude = tuple.getDoubleByField("longitude");
 
         Double distance = Haversine.calculateDistanceBetween(previous.getLatitude(), previous.getLongitude(), currentLatitude, currentLongitude);
 
-        LocalDateTime startTime = Timestamp.parse(previous.getTimestamp());
-        LocalDateTime endTime = Timestamp.parse(timestamp);
-
-        Double time = ChronoUnit.MILLIS.between(startTime, endTime) / (60. * 60.0 * 1000.0);
+        Double time = (timestamp - previous.getTimestamp()) / (60. * 60.0 * 1000.0);
 
         Double speed;
         if (Double.compare(time, 0.0) == 0) {
@@ -67,7 +60,7 @@ public class OptimizedCalculateSpeedAndSpeedingNotifier extends Aggregator<Speed
             Map<String, String> map = new HashMap<>();
             map.put("taxiId", Integer.toString(taxiId));
             map.put("speed", Double.toString(speed));
-            sendJSONPostRequest(map, dashboardAddress + Constants.NOTIFY_SPEEDING_INCIDENT_URI);
+            dispatcher.dispatch(dashboardAddress + Constants.NOTIFY_SPEEDING_INCIDENT_URI, map);
         }
 
         logger.debug("(speed): [taxiId={}, timestamp={}, latitude={}, longitude={}, speed={}]", taxiId, timestamp, currentLatitude, currentLongitude,
@@ -80,31 +73,4 @@ public class OptimizedCalculateSpeedAndSpeedingNotifier extends Aggregator<Speed
     protected StateObjectMapper<SpeedState> getMapper() {
         return mapper;
     }
-
-    private void sendJSONPostRequest(Map<String, String> parameters, String dashboardURI) {
-        try {
-            HttpClient httpClient = HttpClientBuilder.create().build();
-            HttpPost post = new HttpPost(dashboardURI);
-            String data = toJSON(parameters);
-            StringEntity postingString = new StringEntity(data);
-            post.setEntity(postingString);
-            post.setHeader("Content-type", "application/json");
-            httpClient.execute(post);
-        } catch (IOException e) {
-            logger.error("Caught exception while trying to send a post request", e);
-        }
-
-    }
-
-    private String toJSON(Map<String, String> map) {
-        if (map == null) {
-            return "{}";
-        }
-        String response = "{";
-        for (String key : map.keySet()) {
-            response += String.format("\"%s\":\"%s\",", key, map.get(key));
-        }
-        return response.substring(0, response.length() - 1) + "}";
-
-    }
 }
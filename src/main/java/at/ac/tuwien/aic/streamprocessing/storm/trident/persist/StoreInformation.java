@@ -1,11 +1,17 @@
 package at.ac.tuwien.aic.streamprocessing.storm.trident.persist;
 
+import java.util.Map;
+
 import org.apache.storm.trident.operation.BaseFilter;
+import org.apache.storm.trident.operation.TridentOperationContext;
 import org.apache.storm.trident.tuple.TridentTuple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.RedisLayout;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.util.RedisConnectionPool;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
 
 public class StoreInformation extends BaseFilter {
     private final String redisHost;
@@ -13,6 +19,8 @@ public class StoreInformation extends BaseFilter {
     private final Logger logger = LoggerFactory.getLogger(StoreInformation.class);
 
     private InfoType infoType;
+    private transient JedisPool pool;
+    private transient RedisLayout layout;
 
     public StoreInformation(InfoType infoType, String redisHost, int redisPort) {
         this.infoType = infoType;
@@ -21,17 +29,29 @@ public class StoreInformation extends BaseFilter {
 
     }
 
+    @Override
+    public void prepare(Map conf, TridentOperationContext context) {
+        pool = RedisConnectionPool.get(redisHost, redisPort, conf);
+        RedisConnectionPool.registerMetrics(pool, conf, context);
+        layout = RedisLayout.fromConfig(conf);
+    }
+
     @Override
     public boolean isKeep(TridentTuple tuple) {
 
         String key = "", value = "";
-        key = "" + tuple.getIntegerByField("id") + infoType.getKeyPrefix();
+        Integer taxiId = tuple.getIntegerByField("id");
+        key = RedisLayout.informationName(infoType.getKeyPrefix(), taxiId);
         value = "" + tuple.getDoubleByField(infoType.getFieldName());
         if (!key.isEmpty() && !value.isEmpty()) {
-            Jedis jedis = new Jedis(redisHost, redisPort);
-            jedis.set(key, value);
+            try (Jedis jedis = pool.getResource()) {
+                if (layout == RedisLayout.HASH) {
+                    jedis.hset(RedisLayout.hashKey(taxiId), key, value);
+                } else {
+                    jedis.set(key, value);
+                }
+            }
             logger.debug("Set key {} with value {}", key, value);
-            jedis.close();
         }
         return true;
     }
@@ -0,0 +1,193 @@
+package at.ac.tuwien.aic.streamprocessing.storm.trident.state;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.storm.Config;
+import org.apache.storm.metric.api.IMetric;
+import org.apache.storm.task.IMetricsContext;
+
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObject;
+
+/**
+ * Write-back cache in front of another state, usually a {@link RedisState}.
+ *
+ * The stream is partitioned by taxi id, so a partition owns the states of its taxis and nobody else writes them. Reads are served from the cache and
+ * only the missing taxis are read from the backing state, written states are kept as dirty and written back in bulk on commit. Once the states of
+ * the active taxis are cached, a batch hardly reads from redis.
+ *
+ * Like the {@link MemoryState}, the query and the persist of a partition share their cache through a registry keyed by type and partition, both have
+ * to run in the same worker, as in the ProcessingTopology where they are in the same bolt. The cache holds at most maxEntries states, the least
+ * recently used clean states are evicted. Dirty states are never evicted, they may exceed the bound until the next commit.
+ */
+public class CachedState<T extends StateObject> extends KeyValueState<T> {
+
+    public static final String SIZE_CONFIG_KEY = "aic.state.cache.size";
+
+    private static final Map<String, Cache> CACHES = new ConcurrentHashMap<>();
+
+    private final String type;
+    private final KeyValueState<T> backing;
+    private final Cache cache;
+
+    public CachedState(String name, int partitionIndex, KeyValueState<T> backing, int maxEntries) {
+        super(backing.getMapper());
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("The cache size must be positive");
+        }
+        this.type = name;
+        this.backing = backing;
+        this.cache = CACHES.computeIfAbsent(name + ":" + partitionIndex, key -> new Cache(maxEntries));
+    }
+
+    /**
+     * @param conf
+     *            the topology configuration, may be null
+     * @return the configured number of cached states per partition, 0 if the states are not cached
+     */
+    public static int sizeFromConfig(Map conf) {
+        Object size = conf == null ? null : conf.get(SIZE_CONFIG_KEY);
+        return size == null ? 0 : Integer.parseInt(size.toString());
+    }
+
+    @Override
+    public void beginCommit(Long txid) {
+        backing.beginCommit(txid);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void commit(Long txid) {
+        synchronized (cache) {
+            if (!cache.dirty.isEmpty()) {
+                List<Integer> ids = new ArrayList<>(cache.dirty);
+                List<T> states = new ArrayList<>(ids.size());
+                for (Integer id : ids) {
+                    states.add((T) cache.states.get(id));
+                }
+                backing.setAll(ids, states);
+                cache.writtenBack += ids.size();
+                cache.dirty.clear();
+            }
+            cache.evict();
+        }
+        backing.commit(txid);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<T> getAll(List<Integer> ids) {
+        List<T> result = new ArrayList<>(ids.size());
+        synchronized (cache) {
+            // the positions of the missing taxis, a taxi may occur more than once
+            Map<Integer, List<Integer>> misses = new LinkedHashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                T state = (T) cache.states.get(ids.get(i));
+                result.add(state);
+                if (state == null) {
+                    misses.computeIfAbsent(ids.get(i), id -> new ArrayList<>()).add(i);
+                }
+            }
+            cache.hits += ids.size() - misses.size();
+            cache.misses += misses.size();
+            if (misses.isEmpty()) {
+                return result;
+            }
+
+            List<Integer> missing = new ArrayList<>(misses.keySet());
+            List<T> loaded = backing.getAll(missing);
+            for (int i = 0; i < missing.size(); i++) {
+                T state = loaded.get(i);
+                if (state == null) {
+                    // taxis without state are not cached, they are written with this batch
+                    continue;
+                }
+                cache.states.put(missing.get(i), state);
+                for (Integer position : misses.get(missing.get(i))) {
+                    result.set(position, state);
+                }
+            }
+            cache.evict();
+        }
+        return result;
+    }
+
+    @Override
+    public void setAll(List<Integer> ids, List<T> states) {
+        synchronized (cache) {
+            for (int i = 0; i < ids.size(); i++) {
+                cache.states.put(ids.get(i), states.get(i));
+                cache.dirty.add(ids.get(i));
+            }
+        }
+    }
+
+    /**
+     * Registers the metric stateCache.&lt;type&gt; with the hits, misses, written back and evicted states and the size of the cache, once per cache.
+     *
+     * @param context
+     *            the metrics context of a task, ignored if null
+     */
+    public void registerMetrics(Map conf, IMetricsContext context) {
+        if (context == null || cache.withMetrics) {
+            return;
+        }
+        cache.withMetrics = true;
+        Object bucketSize = conf == null ? null : conf.get(Config.TOPOLOGY_BUILTIN_METRICS_BUCKET_SIZE_SECS);
+        int timeBucketSizeInSecs = bucketSize == null ? 60 : Integer.parseInt(bucketSize.toString());
+        context.registerMetric("stateCache." + type, (IMetric) () -> {
+            synchronized (cache) {
+                Map<String, Object> values = new HashMap<>();
+                values.put("hits", cache.hits);
+                values.put("misses", cache.misses);
+                values.put("writtenBack", cache.writtenBack);
+                values.put("evicted", cache.evicted);
+                values.put("size", cache.states.size());
+                cache.hits = cache.misses = cache.writtenBack = cache.evicted = 0;
+                return values;
+            }
+        }, timeBucketSizeInSecs);
+    }
+
+    /**
+     * Drops the caches of all partitions without writing them back, e.g. between two local runs in the same JVM.
+     */
+    public static void clearAll() {
+        CACHES.clear();
+    }
+
+    private static class Cache {
+        private final int maxEntries;
+
+        // in access order, the eldest entry is the least recently used
+        private final LinkedHashMap<Integer, StateObject> states = new LinkedHashMap<>(16, 0.75f, true);
+        private final Set<Integer> dirty = new LinkedHashSet<>();
+
+        private long hits;
+        private long misses;
+        private long writtenBack;
+        private long evicted;
+        private boolean withMetrics;
+
+        Cache(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        void evict() {
+            Iterator<Integer> eldest = states.keySet().iterator();
+            while (states.size() > maxEntries && eldest.hasNext()) {
+                if (!dirty.contains(eldest.next())) {
+                    eldest.remove();
+                    evicted++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package at.ac.tuwien.aic.streamprocessing.storm.trident.state;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.storm.trident.state.State;
+import org.apache.storm.trident.tuple.TridentTuple;
+
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObject;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObjectMapper;
+
+/**
+ * State holding one state object per taxi id, queried by {@link StateQuery} and written by {@link StateUpdater}.
+ */
+public abstract class KeyValueState<T extends StateObject> implements State {
+    private final StateObjectMapper<T> mapper;
+
+    protected KeyValueState(StateObjectMapper<T> mapper) {
+        this.mapper = mapper;
+    }
+
+    public StateObjectMapper<T> getMapper() {
+        return mapper;
+    }
+
+    /**
+     * Gets the states of the given taxis.
+     *
+     * @param ids
+     *            the taxi ids
+     * @return the states in the order of the ids, null for taxis without state
+     */
+    public abstract List<T> getAll(List<Integer> ids);
+
+    /**
+     * Gets the states of the given taxis as seen by a batch, which may be the replay of a batch that has already written them. Only an opaque
+     * {@link RedisState} tells these apart, the others ignore the txid.
+     *
+     * @param txid
+     *            the transaction id of the batch, null if unknown
+     */
+    public List<T> getAll(List<Integer> ids, Long txid) {
+        return getAll(ids);
+    }
+
+    /**
+     * Sets the states of the given taxis.
+     *
+     * @param ids
+     *            the taxi ids
+     * @param states
+     *            the states in the order of the ids
+     */
+    public abstract void setAll(List<Integer> ids, List<T> states);
+
+    protected List<T> transformTuples(List<TridentTuple> tuples) {
+        return tuples.stream().map(getMapper()::fromTuple).collect(Collectors.toList());
+    }
+}
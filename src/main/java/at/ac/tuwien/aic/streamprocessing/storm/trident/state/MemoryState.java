@@ -0,0 +1,79 @@
+package at.ac.tuwien.aic.streamprocessing.storm.trident.state;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.storm.task.IMetricsContext;
+import org.apache.storm.trident.state.State;
+
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObject;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObjectMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObjectMapperFactory;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+
+/**
+ * State keeping the state objects in the memory of the worker, for measuring the topology without the cost of redis.
+ *
+ * The topology queries a state through one instance and persists it through another, both created for the same partition. The instances therefore
+ * share their map through a registry keyed by type and partition. The states are lost when the worker stops and are not visible to the dashboard.
+ */
+public class MemoryState<T extends StateObject> extends KeyValueState<T> {
+    private static final Map<String, Map<Integer, StateObject>> PARTITIONS = new ConcurrentHashMap<>();
+
+    private final Map<Integer, StateObject> states;
+
+    public MemoryState(String name, int partitionIndex, StateObjectMapper<T> mapper) {
+        super(mapper);
+        this.states = PARTITIONS.computeIfAbsent(name + ":" + partitionIndex, key -> new ConcurrentHashMap<>());
+    }
+
+    @Override
+    public void beginCommit(Long txid) {
+        // ignore
+    }
+
+    @Override
+    public void commit(Long txid) {
+        // ignore
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<T> getAll(List<Integer> ids) {
+        List<T> result = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            result.add((T) states.get(id));
+        }
+        return result;
+    }
+
+    @Override
+    public void setAll(List<Integer> ids, List<T> states) {
+        for (int i = 0; i < ids.size(); i++) {
+            this.states.put(ids.get(i), states.get(i));
+        }
+    }
+
+    /**
+     * Drops the states of all partitions, e.g. between two local runs in the same JVM.
+     */
+    public static void clearAll() {
+        PARTITIONS.clear();
+    }
+
+    public static class Factory implements org.apache.storm.trident.state.StateFactory {
+        private final String type;
+
+        public Factory(String type) {
+            this.type = type;
+        }
+
+        @Override
+        public State makeState(Map conf, IMetricsContext metrics, int partitionIndex, int numPartitions) {
+            StateObjectMapperFactory factory = new StateObjectMapperFactory(type, TimestampMode.fromConfig(conf));
+            return new MemoryState<>(type, partitionIndex, factory.create());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package at.ac.tuwien.aic.streamprocessing.storm.trident.state;
+
+import java.util.Locale;
+import java.util.Map;
+
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.BinaryEncoding;
+
+/**
+ * How the state objects are serialized into redis values.
+ *
+ * STRING keeps the comma separated values written with String.format, BINARY the fixed-width fields of {@link BinaryEncoding}. A state written in
+ * the string representation is still read with BINARY, so a redis with existing states can be switched.
+ */
+public enum RedisEncoding {
+    STRING, BINARY;
+
+    public static final String CONFIG_KEY = "aic.redis.encoding";
+
+    public static RedisEncoding fromConfig(Map conf) {
+        Object encoding = conf == null ? null : conf.get(CONFIG_KEY);
+        return encoding == null ? STRING : valueOf(encoding.toString().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,63 @@
+package at.ac.tuwien.aic.streamprocessing.storm.trident.state;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * How the state and the information of the taxis are laid out in redis.
+ *
+ * STRING keeps one key per taxi and state type, e.g. tridentState:speed:42, and StoreInformation writes keys like 42_dist. HASH packs all values of
+ * TAXIS_PER_HASH consecutive taxis into one hash, e.g. tridentState:2 with the fields speed:42, avgSpeed:42 and 42_dist. The small hashes use the
+ * compact ziplist encoding of redis as long as their values fit hash-max-ziplist-value, which has to be raised to 128 bytes for the state values.
+ * All values of a taxi are then read with one HMGET.
+ */
+public enum RedisLayout {
+    STRING, HASH;
+
+    public static final String CONFIG_KEY = "aic.redis.layout";
+
+    /**
+     * Taxis per hash, with 4 state types and 2 information values each at most 96 fields, below the hash-max-ziplist-entries default of 128.
+     */
+    public static final int TAXIS_PER_HASH = 16;
+
+    /**
+     * Setting of the redis server to keep the hashes in the ziplist encoding.
+     */
+    public static final String ZIPLIST_VALUE_SETTING = "hash-max-ziplist-value 128";
+
+    private static final String PREFIX = "tridentState";
+
+    public static RedisLayout fromConfig(Map conf) {
+        Object layout = conf == null ? null : conf.get(CONFIG_KEY);
+        return layout == null ? STRING : valueOf(layout.toString().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * @return the key of the state of a taxi in the STRING layout
+     */
+    public static String stateKey(String type, int taxiId) {
+        return PREFIX + ":" + type + ":" + taxiId;
+    }
+
+    /**
+     * @return the hash holding the values of a taxi in the HASH layout
+     */
+    public static String hashKey(int taxiId) {
+        return PREFIX + ":" + Math.floorDiv(taxiId, TAXIS_PER_HASH);
+    }
+
+    /**
+     * @return the field of the state of a taxi in its hash
+     */
+    public static String stateField(String type, int taxiId) {
+        return type + ":" + taxiId;
+    }
+
+    /**
+     * @return the key of an information value in the STRING layout and its field in the HASH layout, e.g. 42_dist
+     */
+    public static String informationName(String suffix, int taxiId) {
+        return taxiId + suffix;
+    }
+}
@@ -1,84 +1,326 @@
 package at.ac.tuwien.aic.streamprocessing.storm.trident.state;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
-
-import org.apache.storm.trident.state.State;
-import org.apache.storm.trident.tuple.TridentTuple;
+import java.util.Map;
 
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObject;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObjectMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.util.RedisConnectionPool;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.util.SafeEncoder;
+
+/**
+ * State keeping the state of each taxi in redis, in the given {@link RedisLayout} and {@link RedisEncoding}.
+ *
+ * In the STRING layout a batch is read with MGET and written with MSET, so it costs one round trip per chunk of at most chunkSize taxis instead of
+ * one per taxi. In the HASH layout each chunk is one pipeline of an HMGET or HMSET per hash. The chunks keep single commands and replies small for
+ * very large batches. All commands are the binary ones of Jedis, the string encoding is converted with UTF-8. The connections are borrowed from the
+ * {@link RedisConnectionPool} of the worker.
+ *
+ * In the opaque mode, like the opaque states of Trident, each taxi is a hash with the txid of the batch which wrote it last, the state before that
+ * batch (prev) and the state after it (curr). A batch reads prev if it wrote the taxi itself, i.e. it is replayed, and curr otherwise, so a replay
+ * does not count its tuples twice. The states of a batch are collected and written on commit, atomically with one call of a Lua script which also
+ * moves curr to prev. Reads are a Lua script per chunk. The opaque mode requires the STRING layout, its hashes cannot be read in the other mode.
+ */
+public class RedisState<T extends StateObject> extends KeyValueState<T> {
+
+    public static final String CHUNK_SIZE_CONFIG_KEY = "aic.redis.chunk.size";
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    public static final String OPAQUE_CONFIG_KEY = "aic.redis.opaque";
+
+    // KEYS are the taxis, ARGV[1] the txid of the reading batch
+    private static final String READ_SCRIPT = String.join("\n",
+            "local values = {}",
+            "for i, key in ipairs(KEYS) do",
+            "    local record = redis.call('HMGET', key, 'txid', 'prev', 'curr')",
+            "    if record[1] == ARGV[1] then",
+            "        values[i] = record[2]",
+            "    else",
+            "        values[i] = record[3]",
+            "    end",
+            "end",
+            "return values");
 
-public class RedisState<T extends StateObject> implements State {
+    // KEYS are the taxis, ARGV[1] the txid of the batch followed by the states, a taxi occurring twice keeps the prev of its first occurrence
+    private static final String COMMIT_SCRIPT = String.join("\n",
+            "local txid = ARGV[1]",
+            "for i, key in ipairs(KEYS) do",
+            "    local record = redis.call('HMGET', key, 'txid', 'curr')",
+            "    if record[1] ~= txid then",
+            "        if record[2] then",
+            "            redis.call('HSET', key, 'prev', record[2])",
+            "        else",
+            "            redis.call('HDEL', key, 'prev')",
+            "        end",
+            "        redis.call('HSET', key, 'txid', txid)",
+            "    end",
+            "    redis.call('HSET', key, 'curr', ARGV[i + 1])",
+            "end",
+            "return #KEYS");
 
-    private final String TRIDENT_STATE_REDIS_PREFIX = "tridentState";
-    private final String state_key;
+    private final String type;
 
-    private final String redisHost;
-    private final int redisPort;
-    private final StateObjectMapper<T> mapper;
+    private final JedisPool pool;
+    private final int chunkSize;
+    private final RedisLayout layout;
+    private final RedisEncoding encoding;
+    private final boolean opaque;
+
+    // opaque mode: the states written by the batch being committed
+    private final Map<Integer, byte[]> pending = new LinkedHashMap<>();
+    private Long currentTxid;
+    // the SHA1 of each script loaded into redis
+    private final Map<String, byte[]> scripts = new HashMap<>();
 
     public RedisState(String name, String redisHost, int redisPort, StateObjectMapper<T> mapper) {
-        this.state_key = TRIDENT_STATE_REDIS_PREFIX + ":" + name;
-        this.redisHost = redisHost;
-        this.redisPort = redisPort;
-        this.mapper = mapper;
+        this(name, redisHost, redisPort, mapper, DEFAULT_CHUNK_SIZE);
+    }
+
+    public RedisState(String name, String redisHost, int redisPort, StateObjectMapper<T> mapper, int chunkSize) {
+        this(name, RedisConnectionPool.get(redisHost, redisPort, null), mapper, chunkSize, RedisLayout.STRING);
+    }
+
+    public RedisState(String name, JedisPool pool, StateObjectMapper<T> mapper, int chunkSize, RedisLayout layout) {
+        this(name, pool, mapper, chunkSize, layout, RedisEncoding.STRING);
+    }
+
+    public RedisState(String name, JedisPool pool, StateObjectMapper<T> mapper, int chunkSize, RedisLayout layout, RedisEncoding encoding) {
+        this(name, pool, mapper, chunkSize, layout, encoding, false);
+    }
+
+    public RedisState(String name, JedisPool pool, StateObjectMapper<T> mapper, int chunkSize, RedisLayout layout, RedisEncoding encoding,
+            boolean opaque) {
+        super(mapper);
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("The chunk size must be positive");
+        }
+        if (opaque && layout != RedisLayout.STRING) {
+            throw new IllegalArgumentException("The opaque state requires the STRING layout");
+        }
+        this.type = name;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.layout = layout;
+        this.encoding = encoding;
+        this.opaque = opaque;
     }
 
-    public StateObjectMapper<T> getMapper() {
-        return mapper;
+    /**
+     * @param conf
+     *            the topology configuration, may be null
+     * @return the configured chunk size or the default
+     */
+    public static int chunkSizeFromConfig(Map conf) {
+        Object chunkSize = conf == null ? null : conf.get(CHUNK_SIZE_CONFIG_KEY);
+        return chunkSize == null ? DEFAULT_CHUNK_SIZE : Integer.parseInt(chunkSize.toString());
+    }
+
+    /**
+     * @param conf
+     *            the topology configuration, may be null
+     * @return whether the state is configured to be opaque
+     */
+    public static boolean opaqueFromConfig(Map conf) {
+        Object opaque = conf == null ? null : conf.get(OPAQUE_CONFIG_KEY);
+        return opaque != null && Boolean.parseBoolean(opaque.toString());
     }
 
     @Override
     public void beginCommit(Long txid) {
-        // ignore
+        if (opaque) {
+            currentTxid = txid;
+            pending.clear();
+        }
     }
 
     @Override
     public void commit(Long txid) {
-        // ignore
+        if (!opaque || pending.isEmpty()) {
+            return;
+        }
+
+        List<byte[]> keys = new ArrayList<>(pending.size());
+        List<byte[]> args = new ArrayList<>(pending.size() + 1);
+        args.add(SafeEncoder.encode(txid.toString()));
+        for (Map.Entry<Integer, byte[]> state : pending.entrySet()) {
+            keys.add(SafeEncoder.encode(RedisLayout.stateKey(type, state.getKey())));
+            args.add(state.getValue());
+        }
+        pending.clear();
+
+        try (Jedis jedis = pool.getResource()) {
+            evalScript(jedis, COMMIT_SCRIPT, keys, args);
+        }
     }
 
-    private void set(Jedis jedis, Integer taxiId, T state) {
-        String key = state_key + ":" + taxiId;
-        String value = mapper.serializeToRedis(state);
-        jedis.set(key, value);
+    public boolean isOpaque() {
+        return opaque;
     }
 
-    private T get(Jedis jedis, Integer taxiId) {
-        String value = jedis.get(state_key + ":" + taxiId);
-        if (value == null) {
-            return null;
-        } else {
-            return mapper.deserializeFromRedis(value);
-        }
+    public RedisLayout getLayout() {
+        return layout;
+    }
+
+    public RedisEncoding getEncoding() {
+        return encoding;
     }
 
+    @Override
     public List<T> getAll(List<Integer> ids) {
-        Jedis jedis = new Jedis(redisHost, redisPort);
+        return getAll(ids, null);
+    }
 
-        List<T> states = ids.stream().map(id -> get(jedis, id)).collect(Collectors.toList());
+    @Override
+    public List<T> getAll(List<Integer> ids, Long txid) {
+        List<T> states = new ArrayList<>(ids.size());
+        if (ids.isEmpty()) {
+            return states;
+        }
 
-        jedis.close();
+        try (Jedis jedis = pool.getResource()) {
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+                List<byte[]> values;
+                if (opaque) {
+                    values = getOpaque(jedis, chunk, txid);
+                } else {
+                    values = layout == RedisLayout.HASH ? getHashed(jedis, chunk) : jedis.mget(keys(chunk));
+                }
+                for (byte[] value : values) {
+                    states.add(value == null ? null : decode(value));
+                }
+            }
+        }
 
         return states;
     }
 
-    public void setAll(List<Integer> ids, List<T> states) {
-        Jedis jedis = new Jedis(redisHost, redisPort);
+    private byte[][] keys(List<Integer> ids) {
+        byte[][] keys = new byte[ids.size()][];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = SafeEncoder.encode(RedisLayout.stateKey(type, ids.get(i)));
+        }
+        return keys;
+    }
 
+    @SuppressWarnings("unchecked")
+    private List<byte[]> getOpaque(Jedis jedis, List<Integer> ids, Long txid) {
+        // a read outside of a batch never matches a txid and reads curr
+        List<byte[]> args = Collections.singletonList(SafeEncoder.encode(txid == null ? "" : txid.toString()));
+        return (List<byte[]>) evalScript(jedis, READ_SCRIPT, Arrays.asList(keys(ids)), args);
+    }
+
+    /**
+     * Runs a script by its SHA1, it is loaded first if redis does not know it, e.g. after a restart.
+     */
+    private Object evalScript(Jedis jedis, String script, List<byte[]> keys, List<byte[]> args) {
+        byte[] sha = scripts.get(script);
+        if (sha != null) {
+            try {
+                return jedis.evalsha(sha, keys, args);
+            } catch (JedisDataException e) {
+                if (e.getMessage() == null || !e.getMessage().startsWith("NOSCRIPT")) {
+                    throw e;
+                }
+            }
+        }
+        sha = jedis.scriptLoad(SafeEncoder.encode(script));
+        scripts.put(script, sha);
+        return jedis.evalsha(sha, keys, args);
+    }
+
+    private T decode(byte[] value) {
+        return encoding == RedisEncoding.BINARY ? getMapper().deserializeFromBytes(value) : getMapper().deserializeFromRedis(SafeEncoder.encode(value));
+    }
+
+    private byte[] encode(T state) {
+        return encoding == RedisEncoding.BINARY ? getMapper().serializeToBytes(state) : SafeEncoder.encode(getMapper().serializeToRedis(state));
+    }
+
+    private List<byte[]> getHashed(Jedis jedis, List<Integer> ids) {
+        // the positions of the ids in each hash
+        Map<String, List<Integer>> positions = new LinkedHashMap<>();
         for (int i = 0; i < ids.size(); i++) {
-            Integer id = ids.get(i);
-            T state = states.get(i);
+            positions.computeIfAbsent(RedisLayout.hashKey(ids.get(i)), key -> new ArrayList<>()).add(i);
+        }
 
-            set(jedis, id, state);
+        Pipeline pipeline = jedis.pipelined();
+        Map<String, Response<List<byte[]>>> responses = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> hash : positions.entrySet()) {
+            byte[][] fields = hash.getValue().stream().map(i -> SafeEncoder.encode(RedisLayout.stateField(type, ids.get(i)))).toArray(byte[][]::new);
+            responses.put(hash.getKey(), pipeline.hmget(SafeEncoder.encode(hash.getKey()), fields));
         }
+        pipeline.sync();
 
-        jedis.close();
+        byte[][] values = new byte[ids.size()][];
+        for (Map.Entry<String, List<Integer>> hash : positions.entrySet()) {
+            List<byte[]> hashValues = responses.get(hash.getKey()).get();
+            for (int i = 0; i < hashValues.size(); i++) {
+                values[hash.getValue().get(i)] = hashValues.get(i);
+            }
+        }
+        return Arrays.asList(values);
     }
 
-    protected List<T> transformTuples(List<TridentTuple> tuples) {
-        return tuples.stream().map(getMapper()::fromTuple).collect(Collectors.toList());
+    @Override
+    public void setAll(List<Integer> ids, List<T> states) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (opaque) {
+            if (currentTxid == null) {
+                throw new IllegalStateException("The opaque state is only written within a commit of a transactional batch");
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                pending.put(ids.get(i), encode(states.get(i)));
+            }
+            return;
+        }
+
+        try (Jedis jedis = pool.getResource()) {
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                int to = Math.min(ids.size(), from + chunkSize);
+                if (layout == RedisLayout.HASH) {
+                    setHashed(jedis, ids.subList(from, to), states.subList(from, to));
+                    continue;
+                }
+
+                // a taxi occurring twice is set twice, the later state wins as with separate SETs
+                byte[][] keysValues = new byte[(to - from) * 2][];
+                for (int i = from; i < to; i++) {
+                    keysValues[(i - from) * 2] = SafeEncoder.encode(RedisLayout.stateKey(type, ids.get(i)));
+                    keysValues[(i - from) * 2 + 1] = encode(states.get(i));
+                }
+                jedis.mset(keysValues);
+            }
+        }
+    }
+
+    private void setHashed(Jedis jedis, List<Integer> ids, List<T> states) {
+        // keyed by the field as String, so the later state of a taxi occurring twice replaces the former
+        Map<String, Map<String, byte[]>> hashes = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Integer id = ids.get(i);
+            hashes.computeIfAbsent(RedisLayout.hashKey(id), key -> new HashMap<>()).put(RedisLayout.stateField(type, id), encode(states.get(i)));
+        }
+
+        Pipeline pipeline = jedis.pipelined();
+        for (Map.Entry<String, Map<String, byte[]>> hash : hashes.entrySet()) {
+            Map<byte[], byte[]> fields = new HashMap<>();
+            for (Map.Entry<String, byte[]> field : hash.getValue().entrySet()) {
+                fields.put(SafeEncoder.encode(field.getKey()), field.getValue());
+            }
+            pipeline.hmset(SafeEncoder.encode(hash.getKey()), fields);
+        }
+        pipeline.sync();
     }
 }
@@ -11,6 +11,10 @@ import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObject
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObjectMapper;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObjectMapperFactory;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed.SpeedState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.taxi.TaxiState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.util.RedisConnectionPool;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+import redis.clients.jedis.JedisPool;
 
 public class StateFactory<T extends StateObject> implements org.apache.storm.trident.state.StateFactory {
     private final String type;
@@ -25,15 +29,34 @@ public class StateFactory<T extends StateObject> implements org.apache.storm.tri
 
     @Override
     public State makeState(Map conf, IMetricsContext metrics, int partitionIndex, int numPartitions) {
-        return create();
+        JedisPool pool = RedisConnectionPool.get(redisHost, redisPort, conf);
+        RedisConnectionPool.registerMetrics(pool, conf, metrics);
+        RedisState<T> state = new RedisState<T>(type, pool, createMapper(TimestampMode.fromConfig(conf)), RedisState.chunkSizeFromConfig(conf),
+                RedisLayout.fromConfig(conf), RedisEncoding.fromConfig(conf), RedisState.opaqueFromConfig(conf));
+
+        int cacheSize = CachedState.sizeFromConfig(conf);
+        if (cacheSize == 0) {
+            return state;
+        }
+        CachedState<T> cachedState = new CachedState<>(type, partitionIndex, state, cacheSize);
+        cachedState.registerMetrics(conf, metrics);
+        return cachedState;
     }
 
     public RedisState<T> create() {
-        return new RedisState<T>(type, redisHost, redisPort, createMapper());
+        return create(TimestampMode.FORMATTED);
+    }
+
+    public RedisState<T> create(TimestampMode timestampMode) {
+        return create(timestampMode, RedisState.DEFAULT_CHUNK_SIZE);
     }
 
-    private StateObjectMapper<T> createMapper() {
-        StateObjectMapperFactory factory = new StateObjectMapperFactory(type);
+    public RedisState<T> create(TimestampMode timestampMode, int chunkSize) {
+        return new RedisState<T>(type, redisHost, redisPort, createMapper(timestampMode), chunkSize);
+    }
+
+    private StateObjectMapper<T> createMapper(TimestampMode timestampMode) {
+        StateObjectMapperFactory factory = new StateObjectMapperFactory(type, timestampMode);
         return factory.create();
     }
 
@@ -48,4 +71,8 @@ public class StateFactory<T extends StateObject> implements org.apache.storm.tri
     public static StateFactory<DistanceState> createDistanceStateFactory(String redisHost, int redisPort) {
         return new StateFactory<>("distance", redisHost, redisPort);
     }
+
+    public static StateFactory<TaxiState> createTaxiStateFactory(String redisHost, int redisPort) {
+        return new StateFactory<>("taxi", redisHost, redisPort);
+    }
 }
@@ -12,8 +12,9 @@ import org.apache.storm.trident.tuple.TridentTuple;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObject;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObjectMapper;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObjectMapperFactory;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
 
-public abstract class StateQuery<ST extends RedisState<T>, T extends StateObject> extends BaseQueryFunction<ST, T> {
+public abstract class StateQuery<ST extends KeyValueState<T>, T extends StateObject> extends BaseQueryFunction<ST, T> {
     private final String type;
     private StateObjectMapper<T> mapper;
 
@@ -25,7 +26,7 @@ public abstract class StateQuery<ST extends RedisState<T>, T extends StateObject
     public void prepare(Map conf, TridentOperationContext context) {
         super.prepare(conf, context);
 
-        StateObjectMapperFactory factory = new StateObjectMapperFactory(type);
+        StateObjectMapperFactory factory = new StateObjectMapperFactory(type, TimestampMode.fromConfig(conf));
         mapper = factory.create();
     }
 
@@ -33,6 +34,10 @@ public abstract class StateQuery<ST extends RedisState<T>, T extends StateObject
     public List<T> batchRetrieve(ST state, List<TridentTuple> args) {
         List<Integer> ids = args.stream().map(t -> t.getIntegerByField("id")).collect(Collectors.toList());
 
+        // the txid is attached to the tuples for an opaque state, see AttachTransactionId
+        if (!args.isEmpty() && args.get(0).getFields().contains("txid")) {
+            return state.getAll(ids, args.get(0).getLongByField("txid"));
+        }
         return state.getAll(ids);
     }
 
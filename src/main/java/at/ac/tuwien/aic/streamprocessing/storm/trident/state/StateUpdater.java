@@ -7,7 +7,7 @@ import org.apache.storm.trident.operation.TridentCollector;
 import org.apache.storm.trident.state.BaseStateUpdater;
 import org.apache.storm.trident.tuple.TridentTuple;
 
-public class StateUpdater<ST extends RedisState> extends BaseStateUpdater<ST> {
+public class StateUpdater<ST extends KeyValueState> extends BaseStateUpdater<ST> {
 
     @Override
     public void updateState(ST state, List<TridentTuple> tuples, TridentCollector collector) {
@@ -1,12 +1,19 @@
 package at.ac.tuwien.aic.streamprocessing.storm.trident.state.averageSpeed;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 import org.apache.storm.trident.tuple.TridentTuple;
 import org.apache.storm.tuple.Values;
 
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.BinaryEncoding;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObjectMapper;
 
 public class AverageSpeedStateMapper implements StateObjectMapper<AverageSpeedState> {
 
+    // observations and speed sum
+    private static final int BINARY_SIZE = 4 + 8;
+
     @Override
     public Values toStateTuple(AverageSpeedState state) {
         return new Values(state.getObservations(), state.getSpeedSum(), true);
@@ -50,4 +57,18 @@ public class AverageSpeedStateMapper implements StateObjectMapper<AverageSpeedSt
         Double speedSum = Double.parseDouble(parts[1]);
         return new AverageSpeedState(observations, speedSum);
     }
+
+    @Override
+    public byte[] serializeToBytes(AverageSpeedState state) {
+        return BinaryEncoding.allocate(BINARY_SIZE).putInt(state.getObservations()).putDouble(state.getSpeedSum()).array();
+    }
+
+    @Override
+    public AverageSpeedState deserializeFromBytes(byte[] value) {
+        if (!BinaryEncoding.isBinary(value)) {
+            return deserializeFromRedis(new String(value, StandardCharsets.UTF_8));
+        }
+        ByteBuffer buffer = BinaryEncoding.read(value, BINARY_SIZE);
+        return new AverageSpeedState(buffer.getInt(), buffer.getDouble());
+    }
 }
@@ -1,9 +1,9 @@
 package at.ac.tuwien.aic.streamprocessing.storm.trident.state.distance;
 
-import at.ac.tuwien.aic.streamprocessing.storm.trident.state.RedisState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.KeyValueState;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.StateQuery;
 
-public class DistanceQuery extends StateQuery<RedisState<DistanceState>, DistanceState> {
+public class DistanceQuery extends StateQuery<KeyValueState<DistanceState>, DistanceState> {
     public DistanceQuery() {
         super("distance");
     }
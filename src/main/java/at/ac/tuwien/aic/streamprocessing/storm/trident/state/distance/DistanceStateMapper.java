@@ -1,12 +1,19 @@
 package at.ac.tuwien.aic.streamprocessing.storm.trident.state.distance;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 import org.apache.storm.trident.tuple.TridentTuple;
 import org.apache.storm.tuple.Values;
 
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.BinaryEncoding;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObjectMapper;
 
 public class DistanceStateMapper implements StateObjectMapper<DistanceState> {
 
+    // latitude, longitude and distance
+    private static final int BINARY_SIZE = 3 * 8;
+
     @Override
     public Values toStateTuple(DistanceState state) {
         boolean actual_state = true;
@@ -53,4 +60,18 @@ public class DistanceStateMapper implements StateObjectMapper<DistanceState> {
         Double distance = Double.parseDouble(parts[2]);
         return new DistanceState(latitude, longitude, distance);
     }
+
+    @Override
+    public byte[] serializeToBytes(DistanceState state) {
+        return BinaryEncoding.allocate(BINARY_SIZE).putDouble(state.getLatitude()).putDouble(state.getLongitude()).putDouble(state.getDistance()).array();
+    }
+
+    @Override
+    public DistanceState deserializeFromBytes(byte[] value) {
+        if (!BinaryEncoding.isBinary(value)) {
+            return deserializeFromRedis(new String(value, StandardCharsets.UTF_8));
+        }
+        ByteBuffer buffer = BinaryEncoding.read(value, BINARY_SIZE);
+        return new DistanceState(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+    }
 }
@@ -0,0 +1,51 @@
+package at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Binary redis representation of the state objects: a version byte followed by the fields in a fixed order, each fixed-width and little-endian.
+ *
+ * The version byte never starts a value of the string representation, which starts with a digit or a sign, so both can be told apart.
+ */
+public class BinaryEncoding {
+
+    public static final byte VERSION = 1;
+
+    private BinaryEncoding() {
+
+    }
+
+    /**
+     * @param fieldBytes
+     *            the size of all fields
+     * @return a buffer to write the fields into, the version is already written
+     */
+    public static ByteBuffer allocate(int fieldBytes) {
+        return ByteBuffer.allocate(1 + fieldBytes).order(ByteOrder.LITTLE_ENDIAN).put(VERSION);
+    }
+
+    /**
+     * @return whether the value is in the binary representation, otherwise it is a string
+     */
+    public static boolean isBinary(byte[] value) {
+        return value.length > 0 && value[0] < '+';
+    }
+
+    /**
+     * @param fieldBytes
+     *            the expected size of all fields
+     * @return a buffer positioned at the first field
+     */
+    public static ByteBuffer read(byte[] value, int fieldBytes) {
+        if (value[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported version " + value[0] + " of a binary state");
+        }
+        if (value.length != 1 + fieldBytes) {
+            throw new IllegalArgumentException("Expected " + (1 + fieldBytes) + " bytes of a binary state but got " + value.length);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(value).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(1);
+        return buffer;
+    }
+}
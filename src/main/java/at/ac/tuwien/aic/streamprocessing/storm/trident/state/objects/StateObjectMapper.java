@@ -18,4 +18,9 @@ public interface StateObjectMapper<T extends StateObject> {
     String serializeToRedis(T state);
 
     T deserializeFromRedis(String value);
+
+    // binary redis (de)serialization, see BinaryEncoding, values in the string representation are read as well
+    byte[] serializeToBytes(T state);
+
+    T deserializeFromBytes(byte[] value);
 }
@@ -3,19 +3,29 @@ package at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.averageSpeed.AverageSpeedStateMapper;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.distance.DistanceStateMapper;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed.SpeedStateMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.taxi.TaxiStateMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
 
 public class StateObjectMapperFactory {
     private final String type;
+    private final TimestampMode timestampMode;
 
     public StateObjectMapperFactory(String type) {
+        this(type, TimestampMode.FORMATTED);
+    }
+
+    public StateObjectMapperFactory(String type, TimestampMode timestampMode) {
         this.type = type;
+        this.timestampMode = timestampMode;
     }
 
     public <T extends StateObject> StateObjectMapper<T> create() {
         if (type.equals("speed")) {
-            return (StateObjectMapper<T>) new SpeedStateMapper();
+            return (StateObjectMapper<T>) new SpeedStateMapper(timestampMode);
         } else if (type.equals("avgSpeed")) {
             return (StateObjectMapper<T>) new AverageSpeedStateMapper();
+        } else if (type.equals("taxi")) {
+            return (StateObjectMapper<T>) new TaxiStateMapper(timestampMode);
         } else {
             return (StateObjectMapper<T>) new DistanceStateMapper();
         }
@@ -1,22 +1,27 @@
 package at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed;
 
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObject;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
 
 public class SpeedState implements StateObject {
 
-    private final String timestamp;
+    private final long timestamp; // epoch millis of the last position
     private final Double latitude;
     private final Double longitude;
     private final Double speed;
 
-    public SpeedState(String timestamp, Double latitude, Double longitude, Double speed) {
+    public SpeedState(long timestamp, Double latitude, Double longitude, Double speed) {
         this.timestamp = timestamp;
         this.latitude = latitude;
         this.longitude = longitude;
         this.speed = speed;
     }
 
-    public String getTimestamp() {
+    public SpeedState(String timestamp, Double latitude, Double longitude, Double speed) {
+        this(TimestampMode.parseEpochMillis(timestamp), latitude, longitude, speed);
+    }
+
+    public long getTimestamp() {
         return timestamp;
     }
 
@@ -34,6 +39,6 @@ public class SpeedState implements StateObject {
 
     @Override
     public String toString() {
-        return "SpeedState{" + "timestamp='" + timestamp + '\'' + ", latitude=" + latitude + ", longitude=" + longitude + ", speed=" + speed + '}';
+        return "SpeedState{" + "timestamp=" + timestamp + ", latitude=" + latitude + ", longitude=" + longitude + ", speed=" + speed + '}';
     }
 }
@@ -1,20 +1,39 @@
 package at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 import org.apache.storm.trident.tuple.TridentTuple;
 import org.apache.storm.tuple.Values;
 
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.BinaryEncoding;
 import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObjectMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
 
 public class SpeedStateMapper implements StateObjectMapper<SpeedState> {
 
+    // timestamp, latitude, longitude and speed
+    private static final int BINARY_SIZE = 4 * 8;
+
+    private final TimestampMode timestampMode;
+
+    public SpeedStateMapper() {
+        this(TimestampMode.FORMATTED);
+    }
+
+    public SpeedStateMapper(TimestampMode timestampMode) {
+        this.timestampMode = timestampMode;
+    }
+
     @Override
     public Values toStateTuple(SpeedState state) {
+        // the previous timestamp never leaves the speed calculation, keep it numeric in every mode
         return new Values(state.getTimestamp(), state.getLatitude(), state.getLongitude(), state.getSpeed(), true);
     }
 
     @Override
     public Values createInitialStateTuple() {
-        String timestamp = "";
+        Long timestamp = 0L;
         Double latitude = 0.0;
         Double longitude = 0.0;
         Double speed = 0.0;
@@ -25,36 +44,51 @@ public class SpeedStateMapper implements StateObjectMapper<SpeedState> {
 
     @Override
     public SpeedState fromTuple(TridentTuple tuple) {
-        return new SpeedState(tuple.getStringByField("timestamp"), tuple.getDoubleByField("latitude"), tuple.getDoubleByField("longitude"),
-                tuple.getDoubleByField("speed"));
+        return new SpeedState(TimestampMode.toEpochMillis(tuple.getValueByField("timestamp")), tuple.getDoubleByField("latitude"),
+                tuple.getDoubleByField("longitude"), tuple.getDoubleByField("speed"));
     }
 
     @Override
     public Values toTuple(Integer id, SpeedState state) {
-        return new Values(id, state.getTimestamp(), state.getLatitude(), state.getLongitude(), state.getSpeed());
+        return new Values(id, timestampMode.toField(state.getTimestamp()), state.getLatitude(), state.getLongitude(), state.getSpeed());
     }
 
     @Override
     public SpeedState parseState(TridentTuple tuple) {
-        return new SpeedState(tuple.getStringByField("prev_timestamp"), tuple.getDoubleByField("prev_latitude"), tuple.getDoubleByField("prev_longitude"),
-                tuple.getDoubleByField("speed"));
+        return new SpeedState(TimestampMode.toEpochMillis(tuple.getValueByField("prev_timestamp")), tuple.getDoubleByField("prev_latitude"),
+                tuple.getDoubleByField("prev_longitude"), tuple.getDoubleByField("speed"));
 
     }
 
     @Override
     public String serializeToRedis(SpeedState state) {
-        return String.format("%s,%s,%s,%s", state.getTimestamp(), state.getLatitude(), state.getLongitude(), state.getSpeed());
+        return String.format("%s,%s,%s,%s", timestampMode.toRedis(state.getTimestamp()), state.getLatitude(), state.getLongitude(), state.getSpeed());
     }
 
     @Override
     public SpeedState deserializeFromRedis(String value) {
         String parts[] = value.split(",");
 
-        String timestamp = parts[0];
+        long timestamp = TimestampMode.parseEpochMillis(parts[0]);
         Double latitude = Double.parseDouble(parts[1]);
         Double longitude = Double.parseDouble(parts[2]);
         Double speed = Double.parseDouble(parts[3]);
 
         return new SpeedState(timestamp, latitude, longitude, speed);
     }
+
+    @Override
+    public byte[] serializeToBytes(SpeedState state) {
+        return BinaryEncoding.allocate(BINARY_SIZE).putLong(state.getTimestamp()).putDouble(state.getLatitude()).putDouble(state.getLongitude())
+                .putDouble(state.getSpeed()).array();
+    }
+
+    @Override
+    public SpeedState deserializeFromBytes(byte[] value) {
+        if (!BinaryEncoding.isBinary(value)) {
+            return deserializeFromRedis(new String(value, StandardCharsets.UTF_8));
+        }
+        ByteBuffer buffer = BinaryEncoding.read(value, BINARY_SIZE);
+        return new SpeedState(buffer.getLong(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+    }
 }
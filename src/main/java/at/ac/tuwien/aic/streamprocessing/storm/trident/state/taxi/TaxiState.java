@@ -0,0 +1,65 @@
+package at.ac.tuwien.aic.streamprocessing.storm.trident.state.taxi;
+
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObject;
+
+/**
+ * Combined state of the speed, average speed and distance of a taxi, so all three are read and written with one state access.
+ */
+public class TaxiState implements StateObject {
+
+    private final long timestamp; // epoch millis of the last position
+    private final Double latitude;
+    private final Double longitude;
+    private final Double speed;
+    private final Integer observations;
+    private final Double speedSum;
+    private final Double distance;
+
+    public TaxiState(long timestamp, Double latitude, Double longitude, Double speed, Integer observations, Double speedSum, Double distance) {
+        this.timestamp = timestamp;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.speed = speed;
+        this.observations = observations;
+        this.speedSum = speedSum;
+        this.distance = distance;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public Double getSpeed() {
+        return speed;
+    }
+
+    public Integer getObservations() {
+        return observations;
+    }
+
+    public Double getSpeedSum() {
+        return speedSum;
+    }
+
+    public Double getAverageSpeed() {
+        return speedSum / observations;
+    }
+
+    public Double getDistance() {
+        return distance;
+    }
+
+    @Override
+    public String toString() {
+        return "TaxiState{" + "timestamp=" + timestamp + ", latitude=" + latitude + ", longitude=" + longitude + ", speed=" + speed + ", observations="
+                + observations + ", speedSum=" + speedSum + ", distance=" + distance + '}';
+    }
+}
@@ -0,0 +1,105 @@
+package at.ac.tuwien.aic.streamprocessing.storm.trident.state.taxi;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.storm.trident.tuple.TridentTuple;
+import org.apache.storm.tuple.Values;
+
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.BinaryEncoding;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObjectMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+
+public class TaxiStateMapper implements StateObjectMapper<TaxiState> {
+
+    // timestamp, latitude, longitude, speed, observations, speed sum and distance
+    private static final int BINARY_SIZE = 6 * 8 + 4;
+
+    private final TimestampMode timestampMode;
+
+    public TaxiStateMapper() {
+        this(TimestampMode.FORMATTED);
+    }
+
+    public TaxiStateMapper(TimestampMode timestampMode) {
+        this.timestampMode = timestampMode;
+    }
+
+    @Override
+    public Values toStateTuple(TaxiState state) {
+        // the previous timestamp never leaves the aggregator, keep it numeric in every mode
+        return new Values(state.getTimestamp(), state.getLatitude(), state.getLongitude(), state.getSpeed(), state.getObservations(), state.getSpeedSum(),
+                state.getDistance(), true);
+    }
+
+    @Override
+    public Values createInitialStateTuple() {
+        Long timestamp = 0L;
+        Double latitude = 0.0;
+        Double longitude = 0.0;
+        Double speed = 0.0;
+        Integer observations = 0;
+        Double speedSum = 0.0;
+        Double distance = 0.0;
+        boolean actual_state = false;
+
+        return new Values(timestamp, latitude, longitude, speed, observations, speedSum, distance, actual_state);
+    }
+
+    @Override
+    public TaxiState fromTuple(TridentTuple tuple) {
+        return new TaxiState(TimestampMode.toEpochMillis(tuple.getValueByField("timestamp")), tuple.getDoubleByField("latitude"),
+                tuple.getDoubleByField("longitude"), tuple.getDoubleByField("speed"), tuple.getIntegerByField("observations"),
+                tuple.getDoubleByField("speedSum"), tuple.getDoubleByField("distance"));
+    }
+
+    @Override
+    public Values toTuple(Integer id, TaxiState state) {
+        return new Values(id, timestampMode.toField(state.getTimestamp()), state.getLatitude(), state.getLongitude(), state.getSpeed(),
+                state.getAverageSpeed(), state.getObservations(), state.getSpeedSum(), state.getDistance());
+    }
+
+    @Override
+    public TaxiState parseState(TridentTuple tuple) {
+        return new TaxiState(TimestampMode.toEpochMillis(tuple.getValueByField("prev_timestamp")), tuple.getDoubleByField("prev_latitude"),
+                tuple.getDoubleByField("prev_longitude"), tuple.getDoubleByField("speed"), tuple.getIntegerByField("observations"),
+                tuple.getDoubleByField("speedSum"), tuple.getDoubleByField("distance"));
+    }
+
+    @Override
+    public String serializeToRedis(TaxiState state) {
+        return String.format("%s,%s,%s,%s,%s,%s,%s", timestampMode.toRedis(state.getTimestamp()), state.getLatitude(), state.getLongitude(),
+                state.getSpeed(), state.getObservations(), state.getSpeedSum(), state.getDistance());
+    }
+
+    @Override
+    public TaxiState deserializeFromRedis(String value) {
+        String parts[] = value.split(",");
+
+        long timestamp = TimestampMode.parseEpochMillis(parts[0]);
+        Double latitude = Double.parseDouble(parts[1]);
+        Double longitude = Double.parseDouble(parts[2]);
+        Double speed = Double.parseDouble(parts[3]);
+        Integer observations = Integer.parseInt(parts[4]);
+        Double speedSum = Double.parseDouble(parts[5]);
+        Double distance = Double.parseDouble(parts[6]);
+
+        return new TaxiState(timestamp, latitude, longitude, speed, observations, speedSum, distance);
+    }
+
+    @Override
+    public byte[] serializeToBytes(TaxiState state) {
+        return BinaryEncoding.allocate(BINARY_SIZE).putLong(state.getTimestamp()).putDouble(state.getLatitude()).putDouble(state.getLongitude())
+                .putDouble(state.getSpeed()).putInt(state.getObservations()).putDouble(state.getSpeedSum()).putDouble(state.getDistance()).array();
+    }
+
+    @Override
+    public TaxiState deserializeFromBytes(byte[] value) {
+        if (!BinaryEncoding.isBinary(value)) {
+            return deserializeFromRedis(new String(value, StandardCharsets.UTF_8));
+        }
+        ByteBuffer buffer = BinaryEncoding.read(value, BINARY_SIZE);
+        return new TaxiState(buffer.getLong(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getInt(), buffer.getDouble(),
+                buffer.getDouble());
+    }
+}
@@ -0,0 +1,10 @@
+package at.ac.tuwien.aic.streamprocessing.storm.trident.state.taxi;
+
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.KeyValueState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.StateQuery;
+
+public class TaxiStateQuery extends StateQuery<KeyValueState<TaxiState>, TaxiState> {
+    public TaxiStateQuery() {
+        super("taxi");
+    }
+}
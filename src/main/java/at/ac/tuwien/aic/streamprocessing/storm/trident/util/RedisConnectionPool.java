@@ -0,0 +1,100 @@
+package at.ac.tuwien.aic.streamprocessing.storm.trident.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.storm.Config;
+import org.apache.storm.metric.api.IMetric;
+import org.apache.storm.task.IMetricsContext;
+
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Protocol;
+
+/**
+ * The redis connections of a worker, shared by the redis state, StoreInformation and TupleSpeedMonitor instead of opening a connection per access.
+ *
+ * There is one JedisPool per redis server, created with the settings of the first topology configuration which asks for it. Connections are checked
+ * with a PING when borrowed and while idle, connections idle for longer than the eviction time are closed. A connection is returned by closing it.
+ */
+public class RedisConnectionPool {
+
+    public static final String SIZE_CONFIG_KEY = "aic.redis.pool.size";
+    public static final String IDLE_MILLIS_CONFIG_KEY = "aic.redis.pool.idle.millis";
+
+    public static final int DEFAULT_SIZE = 16;
+    public static final long DEFAULT_IDLE_MILLIS = 60000;
+
+    private static final long EVICTION_INTERVAL_MILLIS = 30000;
+
+    private static final Map<String, JedisPool> POOLS = new ConcurrentHashMap<>();
+    private static final Set<JedisPool> WITH_METRICS = ConcurrentHashMap.newKeySet();
+
+    private RedisConnectionPool() {
+
+    }
+
+    /**
+     * @param conf
+     *            the topology configuration with the pool size and idle time, may be null for the defaults
+     * @return the pool of this worker for the given server
+     */
+    public static JedisPool get(String redisHost, int redisPort, Map conf) {
+        return POOLS.computeIfAbsent(redisHost + ":" + redisPort, key -> new JedisPool(createConfig(conf), redisHost, redisPort, Protocol.DEFAULT_TIMEOUT));
+    }
+
+    static JedisPoolConfig createConfig(Map conf) {
+        Object size = conf == null ? null : conf.get(SIZE_CONFIG_KEY);
+        Object idleMillis = conf == null ? null : conf.get(IDLE_MILLIS_CONFIG_KEY);
+
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setMaxTotal(size == null ? DEFAULT_SIZE : Integer.parseInt(size.toString()));
+        config.setMaxIdle(config.getMaxTotal());
+        config.setMinIdle(0);
+        config.setTestOnBorrow(true);
+        config.setTestWhileIdle(true);
+        config.setMinEvictableIdleTimeMillis(idleMillis == null ? DEFAULT_IDLE_MILLIS : Long.parseLong(idleMillis.toString()));
+        config.setTimeBetweenEvictionRunsMillis(EVICTION_INTERVAL_MILLIS);
+        config.setNumTestsPerEvictionRun(-1);
+        return config;
+    }
+
+    /**
+     * Registers the metric redisPool with the number of active, idle and waiting connections and the mean and maximum wait time for a connection in
+     * milliseconds. The pool is shared by the worker, so the metric is registered once per pool, by the first task asking for it.
+     *
+     * @param conf
+     *            the topology configuration, the metric uses its bucket size of the builtin metrics
+     * @param context
+     *            the metrics context of a task, ignored if null
+     */
+    public static void registerMetrics(JedisPool pool, Map conf, IMetricsContext context) {
+        if (context == null || !WITH_METRICS.add(pool)) {
+            return;
+        }
+        Object bucketSize = conf == null ? null : conf.get(Config.TOPOLOGY_BUILTIN_METRICS_BUCKET_SIZE_SECS);
+        int timeBucketSizeInSecs = bucketSize == null ? 60 : Integer.parseInt(bucketSize.toString());
+        context.registerMetric("redisPool", (IMetric) () -> {
+            Map<String, Object> values = new HashMap<>();
+            values.put("active", pool.getNumActive());
+            values.put("idle", pool.getNumIdle());
+            values.put("waiters", pool.getNumWaiters());
+            values.put("meanWaitMillis", pool.getMeanBorrowWaitTimeMillis());
+            values.put("maxWaitMillis", pool.getMaxBorrowWaitTimeMillis());
+            return values;
+        }, timeBucketSizeInSecs);
+    }
+
+    /**
+     * Closes the pools of this worker, e.g. when a local cluster is shut down.
+     */
+    public static void closeAll() {
+        for (JedisPool pool : POOLS.values()) {
+            pool.close();
+        }
+        POOLS.clear();
+        WITH_METRICS.clear();
+    }
+}
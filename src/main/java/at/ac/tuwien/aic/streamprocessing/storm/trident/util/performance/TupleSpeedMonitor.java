@@ -10,7 +10,9 @@ import org.apache.storm.trident.tuple.TridentTuple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import at.ac.tuwien.aic.streamprocessing.storm.trident.util.RedisConnectionPool;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
 
 public class TupleSpeedMonitor implements Filter {
     private static final long UPDATE_INTERVAL = 100;
@@ -21,6 +23,7 @@ public class TupleSpeedMonitor implements Filter {
     private String redisHost;
     private int redisPort;
     private int partitionIndex;
+    private transient JedisPool pool;
 
     public TupleSpeedMonitor(String prefix, String redisHost, int redisPort) {
         dataMap.put(prefix, new MonitorData());
@@ -51,10 +54,10 @@ public class TupleSpeedMonitor implements Filter {
         Double tuplesPerSecond = counter / ((now - data.firstTupleEncountered) / 1000.0);
         String s = String.format("%.2f", tuplesPerSecond);
 
-        Jedis jedis = new Jedis(redisHost, redisPort);
-        jedis.set(prefix + "_total_tuples", counter.toString());
-        jedis.set(prefix + "_tuples_per_second", s);
-        jedis.close();
+        try (Jedis jedis = pool.getResource()) {
+            jedis.set(prefix + "_total_tuples", counter.toString());
+            jedis.set(prefix + "_tuples_per_second", s);
+        }
 
         logger.info(String.format("[P:%s]%s:%s tuples (%s tuples/s)", partitionIndex, prefix, counter, s));
 
@@ -63,6 +66,8 @@ public class TupleSpeedMonitor implements Filter {
     @Override
     public void prepare(Map conf, TridentOperationContext context) {
         partitionIndex = context.getPartitionIndex();
+        pool = RedisConnectionPool.get(redisHost, redisPort, conf);
+        RedisConnectionPool.registerMetrics(pool, conf, context);
     }
 
     @Override
@@ -24,6 +24,14 @@ public class TaxiFields {
             "has_state");
     public static Fields CALCULATE_DISTANCE_OUTPUT_FIELDS = new Fields("id", "latitude", "longitude", "distance");
 
+    // combined taxi state tuple fields
+    public static Fields TAXI_STATE_FIELDS = new Fields("prev_timestamp", "prev_latitude", "prev_longitude", "speed", "observations", "speedSum",
+            "distance", "has_state");
+    public static Fields CALCULATE_TAXI_STATE_INPUT_FIELDS = new Fields("id", "timestamp", "latitude", "longitude", "prev_timestamp", "prev_latitude",
+            "prev_longitude", "speed", "observations", "speedSum", "distance", "has_state");
+    public static Fields CALCULATE_TAXI_STATE_OUTPUT_FIELDS = new Fields("id", "timestamp", "latitude", "longitude", "speed", "avgSpeed", "observations",
+            "speedSum", "distance");
+
     // infomation tuple fields
     public static final Fields INFORMATION_INPUT_FIELDS = new Fields("id", "distance");
     public static Fields INFORMATION_OUTPUT_FIELDS = new Fields("information");
@@ -31,4 +39,7 @@ public class TaxiFields {
     // id only field
     public static final Fields ID_ONLY_FIELDS = new Fields("id");
 
+    // id and the transaction id of the batch, for an opaque state
+    public static final Fields ID_AND_TXID_FIELDS = new Fields("id", "txid");
+
 }
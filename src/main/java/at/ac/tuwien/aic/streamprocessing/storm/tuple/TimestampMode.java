@@ -0,0 +1,75 @@
+package at.ac.tuwien.aic.streamprocessing.storm.tuple;
+
+import java.util.Map;
+
+import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
+
+/**
+ * Representation of the timestamp field of tuples and redis state.
+ *
+ * FORMATTED keeps the "yyyy-MM-dd HH:mm:ss" strings, EPOCH_MILLIS carries the timestamps as long milliseconds since the epoch from the spout through state
+ * and redis, so operators never parse or format them. Operators read the mode from the topology configuration.
+ */
+public enum TimestampMode {
+    FORMATTED, EPOCH_MILLIS;
+
+    public static final String CONFIG_KEY = "aic.timestamp.mode";
+
+    public static TimestampMode fromConfig(Map conf) {
+        Object mode = conf == null ? null : conf.get(CONFIG_KEY);
+        return mode == null ? FORMATTED : valueOf(mode.toString());
+    }
+
+    /**
+     * Converts epoch milliseconds to the value of a tuple field in this mode.
+     *
+     * @param epochMillis
+     *            the milliseconds since the epoch
+     * @return a formatted String or a Long, depending on the mode
+     */
+    public Object toField(long epochMillis) {
+        if (this == EPOCH_MILLIS) {
+            return epochMillis;
+        }
+        return Timestamp.toString(Math.floorDiv(epochMillis, 1000L));
+    }
+
+    /**
+     * Converts epoch milliseconds to the textual redis representation in this mode.
+     *
+     * @param epochMillis
+     *            the milliseconds since the epoch
+     * @return the value to store
+     */
+    public String toRedis(long epochMillis) {
+        return toField(epochMillis).toString();
+    }
+
+    /**
+     * Reads a timestamp field in either representation.
+     *
+     * @param field
+     *            a formatted String or a Number of epoch milliseconds
+     * @return the milliseconds since the epoch
+     */
+    public static long toEpochMillis(Object field) {
+        if (field instanceof Number) {
+            return ((Number) field).longValue();
+        }
+        return parseEpochMillis(field.toString());
+    }
+
+    /**
+     * Parses a timestamp stored in either representation.
+     *
+     * @param value
+     *            a formatted timestamp or the decimal epoch milliseconds
+     * @return the milliseconds since the epoch
+     */
+    public static long parseEpochMillis(String value) {
+        if (value.indexOf('-', 1) > 0) {
+            return Timestamp.toEpochSecond(Timestamp.parse(value)) * 1000L;
+        }
+        return Long.parseLong(value);
+    }
+}
@@ -0,0 +1,46 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.producer;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class InstrumentedSenderTest {
+
+    @Test(timeout = 10000)
+    public void send_shouldBlock_whileMaxInFlight() throws Exception {
+        MockProducer<String, String> producer = new MockProducer<>(false, new StringSerializer(), new StringSerializer());
+        InstrumentedSender<String, String> sender = new InstrumentedSender<>(producer, 2);
+
+        sender.send(new ProducerRecord<>("topic", "a", "1"));
+        sender.send(new ProducerRecord<>("topic", "b", "2"));
+        assertThat(sender.getInFlight(), is(2));
+
+        CountDownLatch sent = new CountDownLatch(1);
+        Thread third = new Thread(() -> {
+            sender.send(new ProducerRecord<>("topic", "c", "3"));
+            sent.countDown();
+        });
+        third.start();
+
+        assertThat(sent.await(200, TimeUnit.MILLISECONDS), is(false));
+
+        producer.completeNext();
+        assertThat(sent.await(5, TimeUnit.SECONDS), is(true));
+
+        producer.errorNext(new RuntimeException("broker unavailable"));
+        producer.completeNext();
+
+        assertThat(sender.getInFlight(), is(0));
+        assertThat(sender.getMetrics().getRecords(), is(2L));
+        assertThat(sender.getMetrics().getErrors(), is(1L));
+
+        sender.close();
+    }
+}
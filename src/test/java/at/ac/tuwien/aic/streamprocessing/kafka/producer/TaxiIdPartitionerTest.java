@@ -0,0 +1,23 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.producer;
+
+import org.apache.storm.utils.TupleUtils;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class TaxiIdPartitionerTest {
+
+    @Test
+    public void partitionOf_shouldMatch_fieldsGrouping() {
+        for (int tasks = 1; tasks <= 16; tasks++) {
+            for (int taxiId = -1000; taxiId < 20000; taxiId += 7) {
+                // storm's fields grouping chooses the task by the floor modulo of the hash of the grouped values
+                int task = Math.floorMod(TupleUtils.listHashCode(Collections.singletonList(taxiId)), tasks);
+                assertThat(TaxiIdPartitioner.partitionOf(taxiId, tasks), is(task));
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.provider;
+
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class EntryBatcherTest {
+
+    @Test
+    public void nextBatch_shouldDrop_sameSecondDuplicatesPerTaxi() {
+        TaxiEntry first = entry(1, "2008-02-02 13:30:45", 1);
+        TaxiEntry duplicate = entry(1, "2008-02-02 13:30:45", 2);
+        TaxiEntry otherTaxi = entry(2, "2008-02-02 13:30:45", 3);
+        TaxiEntry nextSecond = entry(1, "2008-02-02 13:30:46", 4);
+        TaxiEntry nextSecondDuplicate = entry(1, "2008-02-02 13:30:46", 5);
+
+        EntryBatcher batcher = new EntryBatcher(Arrays.asList(first, duplicate, otherTaxi, nextSecond, nextSecondDuplicate).iterator());
+
+        assertThat(batcher.nextBatch(Timestamp.parse("2008-02-02 13:30:45")), contains(first, otherTaxi));
+        assertThat(batcher.peek(), is(nextSecond));
+
+        // the first entry of a batch takes part in the duplicate check
+        assertThat(batcher.nextBatch(Timestamp.parse("2008-02-02 13:30:46")), contains(nextSecond));
+        assertThat(batcher.peek(), is(nullValue()));
+        assertThat(batcher.hasNext(), is(false));
+    }
+
+    @Test
+    public void hasNext_shouldInclude_pendingEntry() {
+        TaxiEntry first = entry(1, "2008-02-02 13:30:45", 1);
+        TaxiEntry last = entry(1, "2008-02-02 13:30:50", 2);
+
+        EntryBatcher batcher = new EntryBatcher(Arrays.asList(first, last).iterator());
+
+        assertThat(batcher.nextBatch(Timestamp.parse("2008-02-02 13:30:45")), contains(first));
+        assertThat(batcher.hasNext(), is(true));
+        assertThat(batcher.nextBatch(Timestamp.parse("2008-02-02 13:30:50")), contains(last));
+    }
+
+    private static TaxiEntry entry(int taxiId, String timestamp, double latitude) {
+        return new TaxiEntry(taxiId, Timestamp.parse(timestamp), latitude, 116.0);
+    }
+}
@@ -0,0 +1,90 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.provider;
+
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class MappedCsvReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void entries_shouldMatch_parsedFields() throws Exception {
+        File file = write("1,2008-02-02 15:36:08,116.51172,39.92123\r\n", "\"2\",\"2008-02-29 23:59:59\",\"-0.5\",\"12\"\n", "\n",
+                "not,a,valid,line\n", "10357,2008-02-08 17:38:10,116.4253000000000001,39.8809");
+
+        try (MappedCsvReader reader = new MappedCsvReader(file.toPath())) {
+            assertThat(toList(reader), contains(entry(1, "2008-02-02 15:36:08", 39.92123, 116.51172), entry(2, "2008-02-29 23:59:59", 12, -0.5),
+                    entry(10357, "2008-02-08 17:38:10", 39.8809, Double.parseDouble("116.4253000000000001"))));
+        }
+    }
+
+    @Test
+    public void entries_shouldSkip_taxiIdsOutsideIntRange() throws Exception {
+        File file = write("4294967297,2008-02-02 15:36:08,116.51172,39.92123\n", "-2147483649,2008-02-02 15:36:08,116.51172,39.92123\n",
+                "2147483647,2008-02-02 15:36:09,116.5,39.9\n");
+
+        try (MappedCsvReader reader = new MappedCsvReader(file.toPath())) {
+            assertThat(toList(reader), contains(entry(Integer.MAX_VALUE, "2008-02-02 15:36:09", 39.9, 116.5)));
+        }
+    }
+
+    @Test
+    public void entries_shouldSkip_daysOutsideTheMonth() throws Exception {
+        File file = write("1,2008-02-30 15:36:08,116.5,39.9\n", "2,2007-02-29 15:36:08,116.5,39.9\n", "3,2008-04-31 15:36:08,116.5,39.9\n",
+                "4,2008-02-29 15:36:08,116.5,39.9\n");
+
+        try (MappedCsvReader reader = new MappedCsvReader(file.toPath())) {
+            assertThat(toList(reader), contains(entry(4, "2008-02-29 15:36:08", 39.9, 116.5)));
+        }
+    }
+
+    @Test
+    public void entries_shouldContinue_acrossRegions() throws Exception {
+        List<String> lines = new ArrayList<>();
+        List<TaxiEntry> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            double longitude = 116 + i / 997.0;
+            double latitude = 39 + i / 1009.0;
+            String timestamp = Timestamp.toString(1201959045L + i);
+            lines.add(i + "," + timestamp + "," + longitude + "," + latitude + "\n");
+            expected.add(entry(i, timestamp, latitude, longitude));
+        }
+        File file = write(lines.toArray(new String[lines.size()]));
+
+        // regions hold only a few lines, so most lines cross a region end
+        try (MappedCsvReader reader = new MappedCsvReader(file.toPath(), 128)) {
+            assertThat(toList(reader), is(expected));
+        }
+    }
+
+    private File write(String... lines) throws Exception {
+        File file = folder.newFile();
+        Files.write(file.toPath(), String.join("", Arrays.asList(lines)).getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<TaxiEntry> toList(MappedCsvReader reader) {
+        List<TaxiEntry> entries = new ArrayList<>();
+        reader.entries().forEachRemaining(entries::add);
+        return entries;
+    }
+
+    private static TaxiEntry entry(int taxiId, String timestamp, double latitude, double longitude) {
+        return new TaxiEntry(taxiId, Timestamp.parse(timestamp), latitude, longitude);
+    }
+}
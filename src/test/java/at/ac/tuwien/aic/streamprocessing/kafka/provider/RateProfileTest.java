@@ -0,0 +1,55 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.provider;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class RateProfileTest {
+
+    @Test
+    public void parse_shouldSupport_allForms() {
+        RateProfile constant = RateProfile.parse("2500");
+        assertThat(constant.rateAt(0), is(2500.0));
+        assertThat(constant.rateAt(seconds(1000)), is(2500.0));
+
+        RateProfile ramp = RateProfile.parse("ramp:1000:5000:10");
+        assertThat(ramp.rateAt(0), is(1000.0));
+        assertThat(ramp.rateAt(seconds(5)), closeTo(3000.0, 1e-6));
+        assertThat(ramp.rateAt(seconds(60)), is(5000.0));
+
+        RateProfile steps = RateProfile.parse("steps:30:100,200,400");
+        assertThat(steps.rateAt(seconds(29)), is(100.0));
+        assertThat(steps.rateAt(seconds(30)), is(200.0));
+        assertThat(steps.rateAt(seconds(600)), is(400.0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_shouldReject_malformedProfile() {
+        RateProfile.parse("ramp:1000:5000");
+    }
+
+    @Test
+    public void tokenBucket_shouldPace_toRate() {
+        TokenBucket bucket = new TokenBucket(10000, 0);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 2000; i++) {
+            bucket.acquire();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        // the last of 2000 tokens at 10000/s is due after 0.2s, the upper bound leaves room for slow machines
+        assertThat(elapsedSeconds, greaterThan(0.199));
+        assertThat(elapsedSeconds, lessThan(0.4));
+    }
+
+    private static long seconds(long seconds) {
+        return TimeUnit.SECONDS.toNanos(seconds);
+    }
+}
@@ -0,0 +1,103 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.provider;
+
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class ReplayFileTest {
+
+    private static final LocalDateTime START = Timestamp.parse("2008-02-02 13:30:45");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void entries_shouldReturnWrittenEntries() throws Exception {
+        List<TaxiEntry> entries = Arrays.asList(entry(1, 0), entry(2, 0), entry(1, 5), entry(3, 7));
+        Path path = folder.newFile().toPath();
+
+        assertThat(ReplayFile.write(entries.iterator(), path, 2), is(4L));
+        assertThat(ReplayFile.isReplayFile(path), is(true));
+        try (ReplayFile replay = ReplayFile.open(path)) {
+            assertThat(read(replay.entries(0, taxiId -> true)), is(entries));
+        }
+    }
+
+    @Test
+    public void seek_shouldFindFirstEntryOfSecond_acrossIndexBlocks() throws Exception {
+        // seconds 0, 0, 1, 1, 1, 1, 1, 2, 4, 4 with two records per index entry
+        List<TaxiEntry> entries = Arrays.asList(entry(1, 0), entry(2, 0), entry(1, 1), entry(2, 1), entry(3, 1), entry(4, 1), entry(5, 1), entry(1, 2),
+                entry(1, 4), entry(2, 4));
+        Path path = folder.newFile().toPath();
+        ReplayFile.write(entries.iterator(), path, 2);
+
+        try (ReplayFile replay = ReplayFile.open(path)) {
+            long start = Timestamp.toEpochSecond(START);
+            assertThat(replay.seek(start - 1), is(0L));
+            assertThat(replay.seek(start), is(0L));
+            assertThat(replay.seek(start + 1), is(2L));
+            assertThat(replay.seek(start + 2), is(7L));
+            assertThat(replay.seek(start + 3), is(8L));
+            assertThat(replay.seek(start + 4), is(8L));
+            assertThat(replay.seek(start + 5), is(10L));
+        }
+    }
+
+    @Test
+    public void seek_shouldFindFirstEntryOfSecond_sharedByManyIndexBlocks() throws Exception {
+        List<TaxiEntry> entries = new ArrayList<>();
+        entries.add(entry(1, 0));
+        for (int i = 0; i < 1000; i++) {
+            entries.add(entry(i, 1));
+        }
+        entries.add(entry(1, 2));
+        Path path = folder.newFile().toPath();
+        ReplayFile.write(entries.iterator(), path, 3);
+
+        try (ReplayFile replay = ReplayFile.open(path)) {
+            long start = Timestamp.toEpochSecond(START);
+            assertThat(replay.seek(start + 1), is(1L));
+            assertThat(replay.seek(start + 2), is(1001L));
+        }
+    }
+
+    @Test
+    public void entries_shouldSkipOtherTaxis() throws Exception {
+        List<TaxiEntry> entries = Arrays.asList(entry(1, 0), entry(2, 0), entry(1, 1), entry(3, 1), entry(2, 2), entry(205, 2));
+        Path path = folder.newFile().toPath();
+        ReplayFile.write(entries.iterator(), path, 4);
+
+        try (ReplayFile replay = ReplayFile.open(path)) {
+            long from = replay.seek(Timestamp.toEpochSecond(START) + 1);
+            assertThat(read(replay.entries(from, DataProvider.parseTaxis("2-2,205"))), contains(entry(2, 2), entry(205, 2)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void write_shouldRejectUnsortedEntries() throws Exception {
+        ReplayFile.write(Arrays.asList(entry(1, 1), entry(2, 0)).iterator(), folder.newFile().toPath(), 2);
+    }
+
+    private static List<TaxiEntry> read(Iterator<TaxiEntry> iterator) {
+        List<TaxiEntry> entries = new ArrayList<>();
+        iterator.forEachRemaining(entries::add);
+        return entries;
+    }
+
+    private static TaxiEntry entry(int taxiId, int second) {
+        return new TaxiEntry(taxiId, START.plusSeconds(second), 39.9 + taxiId / 1000.0, 116.4 + second / 1000.0);
+    }
+}
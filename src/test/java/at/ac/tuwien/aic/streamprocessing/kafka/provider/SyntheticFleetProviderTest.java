@@ -0,0 +1,72 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.provider;
+
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.util.Constants;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.util.Haversine;
+import org.junit.Test;
+
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class SyntheticFleetProviderTest {
+
+    @Test
+    public void getEntries_shouldReport_everyTaxiOncePerInterval() {
+        SyntheticFleetProvider provider = new SyntheticFleetProvider(7, 30).withReportInterval(3);
+        List<TaxiEntry> entries = provider.getEntries().collect(Collectors.toList());
+
+        // 10 reports and one stop token per taxi
+        assertThat(entries.size(), is(7 * 11));
+        for (int i = 1; i < entries.size(); i++) {
+            assertThat(entries.get(i).getTimestamp().isBefore(entries.get(i - 1).getTimestamp()), is(false));
+        }
+
+        Map<Integer, List<TaxiEntry>> byTaxi = entries.stream().collect(Collectors.groupingBy(TaxiEntry::getTaxiId));
+        assertThat(byTaxi.size(), is(7));
+        byTaxi.values().forEach(reports -> {
+            for (int i = 1; i < reports.size() - 1; i++) {
+                assertThat(ChronoUnit.SECONDS.between(reports.get(i - 1).getTimestamp(), reports.get(i).getTimestamp()), is(3L));
+            }
+            TaxiEntry stop = reports.get(reports.size() - 1);
+            assertThat(stop.getLatitude(), is(Constants.STOP_TOKEN_VALUE));
+            assertThat(stop.getLongitude(), is(Constants.STOP_TOKEN_VALUE));
+        });
+
+        // the same configuration yields the same entries
+        assertThat(provider.getEntries().collect(Collectors.toList()), is(entries));
+    }
+
+    @Test
+    public void getEntries_shouldSimulate_speedingAndLeavingTaxis() {
+        for (SyntheticFleetProvider.Movement movement : SyntheticFleetProvider.Movement.values()) {
+            List<TaxiEntry> entries = new SyntheticFleetProvider(20, 3600).withReportInterval(10).withSpeedingRatio(1).withViolationRatio(1)
+                    .withMovement(movement).withStopTokens(false).getEntries().collect(Collectors.toList());
+
+            Map<Integer, TaxiEntry> previous = new HashMap<>();
+            double maxDistanceFromCenter = 0;
+            for (TaxiEntry entry : entries) {
+                TaxiEntry last = previous.put(entry.getTaxiId(), entry);
+                if (last != null) {
+                    double hours = ChronoUnit.SECONDS.between(last.getTimestamp(), entry.getTimestamp()) / 3600.0;
+                    double distance = Haversine.calculateDistanceBetween(last.getLatitude(), last.getLongitude(), entry.getLatitude(), entry.getLongitude());
+                    // route-like taxis can stop short at their destination
+                    if (movement == SyntheticFleetProvider.Movement.RANDOM_WALK) {
+                        assertThat(distance / hours, greaterThan(Constants.SPEED_LIMIT));
+                    }
+                    assertThat(distance / hours, lessThan(Constants.SPEED_LIMIT + 51));
+                }
+                maxDistanceFromCenter = Math.max(maxDistanceFromCenter, Haversine.calculateDistanceBetween(Constants.ALLOWED_AREA_CENTER_LAT,
+                        Constants.ALLOWED_AREA_CENTER_LONG, entry.getLatitude(), entry.getLongitude()));
+            }
+            assertThat(maxDistanceFromCenter, greaterThan(Constants.PROHIBITED_DISTANCE));
+        }
+    }
+}
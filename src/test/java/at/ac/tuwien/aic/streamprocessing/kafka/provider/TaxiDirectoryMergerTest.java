@@ -0,0 +1,47 @@
+package at.ac.tuwien.aic.streamprocessing.kafka.provider;
+
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+public class TaxiDirectoryMergerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void merge_shouldSortByTimestamp_andAppendEndTokens() throws Exception {
+        write("1.txt", "1,2008-02-02 13:30:45,116.1,39.1\n1,2008-02-02 13:30:50,116.2,39.2\n");
+        // out of order within the file
+        write("2.txt", "2,2008-02-02 13:30:47,116.4,39.4\n2,2008-02-02 13:30:46,116.3,39.3\n");
+        write("3.txt", "");
+        write("ignored.csv", "4,2008-02-02 13:30:40,116.5,39.5\n");
+
+        List<TaxiEntry> entries = new ArrayList<>();
+        new TaxiDirectoryMerger(folder.getRoot().toPath(), 2).merge().forEachRemaining(entries::add);
+
+        assertThat(entries, contains(entry(1, "2008-02-02 13:30:45", 39.1, 116.1), entry(2, "2008-02-02 13:30:46", 39.3, 116.3),
+                entry(2, "2008-02-02 13:30:47", 39.4, 116.4), entry(2, "2008-02-02 13:30:48", 360, 360), entry(1, "2008-02-02 13:30:50", 39.2, 116.2),
+                entry(1, "2008-02-02 13:30:51", 360, 360)));
+    }
+
+    private void write(String name, String content) throws Exception {
+        File file = folder.newFile(name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static TaxiEntry entry(int taxiId, String timestamp, double latitude, double longitude) {
+        return new TaxiEntry(taxiId, Timestamp.parse(timestamp), latitude, longitude);
+    }
+}
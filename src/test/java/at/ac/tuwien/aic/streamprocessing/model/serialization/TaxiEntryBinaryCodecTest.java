@@ -0,0 +1,34 @@
+package at.ac.tuwien.aic.streamprocessing.model.serialization;
+
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class TaxiEntryBinaryCodecTest {
+
+    @Test
+    public void decode_shouldYield_encodedEntry() {
+        TaxiEntry entry = new TaxiEntry(4711, Timestamp.parse("2008-02-02 13:30:45"), 39.92123, 116.51172);
+
+        byte[] bytes = new TaxiEntryBinarySerializer().serialize("taxi", entry);
+
+        assertThat(bytes.length, is(TaxiEntryBinaryCodec.RECORD_SIZE));
+        assertThat(TaxiEntryBinaryDeserializer.deserialize(bytes), is(entry));
+    }
+
+    @Test
+    public void isBinary_shouldReject_javaSerializedEntries() {
+        TaxiEntry entry = new TaxiEntry(1, Timestamp.parse("2008-02-02 13:30:45"), 10.0, 10.0);
+
+        byte[] bytes = new TaxiEntrySerializer().serialize("taxi", entry);
+
+        assertThat(TaxiEntryBinaryCodec.isBinary(ByteBuffer.wrap(bytes)), is(false));
+        assertThat(TaxiEntryBinaryDeserializer.deserialize(bytes), is(nullValue()));
+    }
+}
@@ -0,0 +1,42 @@
+package at.ac.tuwien.aic.streamprocessing.model.serialization;
+
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class TaxiEntryPackCodecTest {
+
+    @Test
+    public void decode_shouldYield_packedEntriesInOrder() {
+        LocalDateTime now = Timestamp.parse("2008-02-02 13:30:45");
+        List<TaxiEntry> entries = Arrays.asList(
+                new TaxiEntry(1, now, 39.92123, 116.51172),
+                new TaxiEntry(8000, now, 39.9, 116.4),
+                new TaxiEntry(1, now.plusSeconds(300), 39.92201, 116.50963),
+                new TaxiEntry(8000, now.plusSeconds(301), 360.0, 360.0)
+        );
+
+        byte[] pack = new TaxiEntryPackSerializer().serialize("taxi", entries);
+
+        assertThat(TaxiEntryPackCodec.isPacked(ByteBuffer.wrap(pack)), is(true));
+        assertThat(TaxiEntryPackCodec.decode(ByteBuffer.wrap(pack)), is(entries));
+        assertThat(pack.length, lessThan(entries.size() * TaxiEntryBinaryCodec.RECORD_SIZE));
+    }
+
+    @Test
+    public void isPacked_shouldReject_singleRecords() {
+        TaxiEntry entry = new TaxiEntry(1, Timestamp.parse("2008-02-02 13:30:45"), 10.0, 10.0);
+
+        assertThat(TaxiEntryPackCodec.isPacked(ByteBuffer.wrap(TaxiEntryBinaryCodec.encode(entry))), is(false));
+        assertThat(TaxiEntryPackCodec.isPacked(ByteBuffer.wrap(new TaxiEntrySerializer().serialize("taxi", entry))), is(false));
+    }
+}
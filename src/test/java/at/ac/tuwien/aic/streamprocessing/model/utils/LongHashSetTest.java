@@ -0,0 +1,46 @@
+package at.ac.tuwien.aic.streamprocessing.model.utils;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class LongHashSetTest {
+
+    @Test
+    public void add_shouldBehaveLike_hashSet() {
+        Random random = new Random(42);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+
+        for (int i = 0; i < 100000; i++) {
+            // small range to produce collisions and repeated keys, including 0
+            long key = random.nextInt(50000) - 1000;
+            assertThat(set.add(key), is(expected.add(key)));
+        }
+
+        assertThat(set.size(), is(expected.size()));
+        for (long key = -2000; key < 51000; key++) {
+            assertThat(set.contains(key), is(expected.contains(key)));
+        }
+    }
+
+    @Test
+    public void clear_shouldRemove_allKeys() {
+        LongHashSet set = new LongHashSet();
+        for (long key = 0; key < 1000; key++) {
+            set.add(key << 32);
+        }
+
+        set.clear();
+
+        assertThat(set.isEmpty(), is(true));
+        assertThat(set.contains(0L), is(false));
+        assertThat(set.contains(5L << 32), is(false));
+        assertThat(set.add(5L << 32), is(true));
+    }
+}
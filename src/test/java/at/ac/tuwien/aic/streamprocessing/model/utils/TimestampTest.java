@@ -0,0 +1,38 @@
+package at.ac.tuwien.aic.streamprocessing.model.utils;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class TimestampTest {
+
+    @Test
+    public void toString_ofEpochSecond_shouldMatch_formatter() {
+        LocalDateTime start = Timestamp.parse("1999-12-25 00:00:00");
+        LocalDateTime end = Timestamp.parse("2012-03-05 00:00:00");
+
+        // step by a prime number of seconds to hit every time of day and all leap year boundaries
+        for (long second = Timestamp.toEpochSecond(start); second < Timestamp.toEpochSecond(end); second += 7919) {
+            assertThat(Timestamp.toString(second), is(Timestamp.toString(Timestamp.fromEpochSecond(second))));
+        }
+    }
+
+    @Test
+    public void toEpochSecond_ofFields_shouldMatch_localDateTime() {
+        LocalDateTime start = Timestamp.parse("1899-12-25 00:00:00");
+
+        for (LocalDateTime dt = start; dt.getYear() < 2101; dt = dt.plusSeconds(86400 * 3 + 7919)) {
+            long second = Timestamp.toEpochSecond(dt.getYear(), dt.getMonthValue(), dt.getDayOfMonth(), dt.getHour(), dt.getMinute(), dt.getSecond());
+            assertThat(second, is(Timestamp.toEpochSecond(dt)));
+        }
+    }
+
+    @Test
+    public void parse_shouldInvert_toString() {
+        assertThat(Timestamp.parse(Timestamp.toString(0L)), is(Timestamp.fromEpochSecond(0L)));
+        assertThat(Timestamp.toString(Timestamp.toEpochSecond(Timestamp.parse("2008-02-29 23:59:59"))), is("2008-02-29 23:59:59"));
+    }
+}
@@ -0,0 +1,107 @@
+package at.ac.tuwien.aic.streamprocessing.storm;
+
+import at.ac.tuwien.aic.streamprocessing.storm.TopologyConfiguration.Fusion;
+import at.ac.tuwien.aic.streamprocessing.storm.TopologyConfiguration.SpoutType;
+import at.ac.tuwien.aic.streamprocessing.storm.TopologyConfiguration.StateBackend;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+import org.apache.storm.generated.StormTopology;
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+public class TopologyConfigurationTest {
+
+    @Test
+    public void fromProperties_shouldOverrideThePreset() {
+        Properties properties = new Properties();
+        properties.setProperty("preset", "optimized");
+        properties.setProperty("input", "synthetic");
+        properties.setProperty("state", "memory");
+        properties.setProperty("fuse", "speed");
+        properties.setProperty("parallelism.speed", "8");
+        properties.setProperty("timestampMode", "epoch_millis");
+        properties.setProperty("fleetSize", "100");
+
+        TopologyConfiguration configuration = TopologyConfiguration.fromProperties(properties);
+
+        assertThat(configuration.getSpoutType(), is(SpoutType.BATCH));
+        assertThat(configuration.getStateBackend(), is(StateBackend.MEMORY));
+        assertThat(configuration.isFused(Fusion.SPEED), is(true));
+        assertThat(configuration.isFused(Fusion.LOCATION), is(false));
+        assertThat(configuration.getProcessingParallelism(), is(3));
+        assertThat(configuration.getSpeedParallelism(), is(8));
+        assertThat(configuration.isStoreInformation(), is(false));
+        assertThat(configuration.getTimestampMode(), is(TimestampMode.EPOCH_MILLIS));
+        assertThat(configuration.getSpoutOptions().getProperty("fleetSize"), is("100"));
+    }
+
+    @Test
+    public void fromProperties_shouldReadLongMillisecondSettings() {
+        Properties properties = new Properties();
+        properties.setProperty("redisPoolIdleMillis", "3000000000");
+
+        assertThat(TopologyConfiguration.fromProperties(properties).getRedisPoolIdleMillis(), is(3000000000L));
+    }
+
+    @Test
+    public void parseArguments_shouldMapFlags() throws Exception {
+        TopologyConfiguration configuration = ProcessingTopology.parseArguments(TopologyConfiguration.baseline(),
+                new String[] { "benchmark", "epoch", "aligned", "lateness=5" });
+
+        assertThat(configuration.isBenchmark(), is(true));
+        assertThat(configuration.getTimestampMode(), is(TimestampMode.EPOCH_MILLIS));
+        assertThat(configuration.isAlignedPartitions(), is(true));
+        assertThat(configuration.getAllowedLatenessMillis(), is(5000L));
+        assertThat(configuration.isFused(Fusion.LOCATION), is(false));
+    }
+
+    @Test
+    public void build_shouldRepartitionStagesWithTheirOwnParallelism() {
+        Properties properties = new Properties();
+        properties.setProperty("input", "synthetic");
+        StormTopology shared = new ProcessingTopology("taxi", "localhost", 6379, "http://127.0.0.1:3000",
+                TopologyConfiguration.fromProperties(properties)).build();
+
+        properties.setProperty("parallelism.speed", "8");
+        StormTopology separate = new ProcessingTopology("taxi", "localhost", 6379, "http://127.0.0.1:3000",
+                TopologyConfiguration.fromProperties(properties)).build();
+
+        assertThat(separate.get_bolts_size(), greaterThan(shared.get_bolts_size()));
+    }
+
+    @Test
+    public void build_shouldQueryAnOpaqueStateWithinTheSameBolts() {
+        Properties properties = new Properties();
+        properties.setProperty("input", "synthetic");
+        StormTopology plain = new ProcessingTopology("taxi", "localhost", 6379, "http://127.0.0.1:3000",
+                TopologyConfiguration.fromProperties(properties)).build();
+
+        properties.setProperty("opaqueState", "true");
+        StormTopology opaque = new ProcessingTopology("taxi", "localhost", 6379, "http://127.0.0.1:3000",
+                TopologyConfiguration.fromProperties(properties)).build();
+
+        assertThat(opaque.get_bolts_size(), is(plain.get_bolts_size()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromProperties_shouldRejectAnOpaqueStateWithCache() {
+        Properties properties = new Properties();
+        properties.setProperty("opaqueState", "true");
+        properties.setProperty("stateCacheSize", "1000");
+
+        TopologyConfiguration.fromProperties(properties);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromProperties_shouldRejectAnOpaqueMemoryState() {
+        Properties properties = new Properties();
+        properties.setProperty("opaqueState", "true");
+        properties.setProperty("state", "memory");
+
+        TopologyConfiguration.fromProperties(properties);
+    }
+}
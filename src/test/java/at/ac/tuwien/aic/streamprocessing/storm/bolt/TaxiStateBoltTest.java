@@ -0,0 +1,104 @@
+package at.ac.tuwien.aic.streamprocessing.storm.bolt;
+
+import at.ac.tuwien.aic.streamprocessing.storm.CoreProcessingTopology;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TaxiFields;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+import org.apache.storm.generated.StormTopology;
+import org.apache.storm.topology.BasicOutputCollector;
+import org.apache.storm.tuple.Tuple;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TaxiStateBoltTest {
+
+    private final List<List<Object>> emitted = new ArrayList<>();
+    private BasicOutputCollector collector;
+    private TaxiStateBolt bolt;
+
+    @Before
+    public void setUp() {
+        collector = mock(BasicOutputCollector.class);
+        doAnswer(invocation -> {
+            emitted.add(invocation.getArgumentAt(0, List.class));
+            return null;
+        }).when(collector).emit(anyListOf(Object.class));
+
+        bolt = new TaxiStateBolt();
+        bolt.prepare(Collections.singletonMap(TimestampMode.CONFIG_KEY, TimestampMode.EPOCH_MILLIS.name()), null);
+    }
+
+    @Test
+    public void execute_shouldCalculateSpeedAverageAndDistancePerTaxi() {
+        bolt.execute(fix(1, 0L, 39.90, 116.40), collector);
+        bolt.execute(fix(2, 0L, 39.95, 116.40), collector);
+        bolt.execute(fix(1, 3600000L, 39.90, 116.50), collector);
+
+        assertThat(emitted.size(), is(3));
+        List<Object> last = emitted.get(2);
+        double distance = (Double) last.get(TaxiFields.CALCULATE_TAXI_STATE_OUTPUT_FIELDS.fieldIndex("distance"));
+        assertThat(distance, closeTo(8.53, 0.01));
+        // one hour between the fixes
+        assertThat((Double) last.get(TaxiFields.CALCULATE_TAXI_STATE_OUTPUT_FIELDS.fieldIndex("speed")), closeTo(distance, 1e-9));
+        assertThat((Double) last.get(TaxiFields.CALCULATE_TAXI_STATE_OUTPUT_FIELDS.fieldIndex("avgSpeed")), closeTo(distance / 2, 1e-9));
+        assertThat(last.get(TaxiFields.CALCULATE_TAXI_STATE_OUTPUT_FIELDS.fieldIndex("observations")), is(2));
+    }
+
+    @Test
+    public void execute_shouldEmitTheLastOutputAgain_forReplayedFixes() {
+        bolt.execute(fix(1, 0L, 39.90, 116.40), collector);
+        bolt.execute(fix(1, 60000L, 39.91, 116.40), collector);
+        bolt.execute(fix(1, 60000L, 39.91, 116.40), collector);
+        bolt.execute(fix(1, 30000L, 39.91, 116.40), collector);
+
+        assertThat(emitted.size(), is(3));
+        assertThat(emitted.get(2), is(emitted.get(1)));
+        assertThat(emitted.get(2).get(TaxiFields.CALCULATE_TAXI_STATE_OUTPUT_FIELDS.fieldIndex("observations")), is(2));
+    }
+
+    @Test
+    public void execute_shouldEmitTheOutputAgain_forReplayedOlderFixes() {
+        bolt = new TaxiStateBolt(2);
+        bolt.prepare(Collections.singletonMap(TimestampMode.CONFIG_KEY, TimestampMode.EPOCH_MILLIS.name()), null);
+
+        bolt.execute(fix(1, 0L, 39.90, 116.40), collector);
+        bolt.execute(fix(1, 60000L, 39.91, 116.40), collector);
+        bolt.execute(fix(1, 120000L, 39.92, 116.40), collector);
+        // a packed record replayed by the spout, the first fix is no longer in the history
+        bolt.execute(fix(1, 0L, 39.90, 116.40), collector);
+        bolt.execute(fix(1, 60000L, 39.91, 116.40), collector);
+        bolt.execute(fix(1, 90000L, 39.91, 116.40), collector);
+
+        assertThat(emitted.size(), is(4));
+        assertThat(emitted.get(3), is(emitted.get(1)));
+    }
+
+    @Test
+    public void build_shouldGroupTheStatefulBoltsByTaxiId() {
+        StormTopology topology = new CoreProcessingTopology("taxi", "http://127.0.0.1:3000", 2).build();
+
+        assertThat(topology.get_bolts(), hasKey("taxi-state"));
+        assertThat(topology.get_bolts().get("taxi-state").get_common().get_inputs().values().iterator().next().is_set_fields(), is(true));
+    }
+
+    private static Tuple fix(int taxiId, long timestamp, double latitude, double longitude) {
+        Tuple tuple = mock(Tuple.class);
+        when(tuple.getIntegerByField("id")).thenReturn(taxiId);
+        when(tuple.getValueByField("timestamp")).thenReturn(timestamp);
+        when(tuple.getDoubleByField("latitude")).thenReturn(latitude);
+        when(tuple.getDoubleByField("longitude")).thenReturn(longitude);
+        return tuple;
+    }
+}
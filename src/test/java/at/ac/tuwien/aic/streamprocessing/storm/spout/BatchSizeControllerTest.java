@@ -0,0 +1,86 @@
+package at.ac.tuwien.aic.streamprocessing.storm.spout;
+
+import at.ac.tuwien.aic.streamprocessing.storm.spout.BatchSizeController.Goal;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class BatchSizeControllerTest {
+
+    private static final int FETCH_SIZE = 1024 * 1024;
+
+    @Test
+    public void latency_shouldShrinkTheFetchSizeAboveTheTarget() {
+        BatchSizeController controller = new BatchSizeController(Goal.LATENCY, 500, 1, FETCH_SIZE);
+
+        // 400 ms per cycle with one batch pending is estimated at 800 ms
+        assertThat(window(controller, 400, 1000), is(true));
+
+        assertThat(controller.getEstimatedLatencyMillis(), is(800L));
+        assertThat(controller.getFetchSizeBytes(), lessThan(FETCH_SIZE));
+        assertThat(controller.getDelayMillis(), is(0L));
+    }
+
+    @Test
+    public void latency_shouldGrowTheFetchSizeAndThenDelayBelowTheTarget() {
+        BatchSizeController controller = new BatchSizeController(Goal.LATENCY, 1000, 1, BatchSizeController.MAX_FETCH_SIZE_BYTES / 2);
+
+        window(controller, 10, 1000);
+        assertThat(controller.getFetchSizeBytes(), greaterThan(BatchSizeController.MAX_FETCH_SIZE_BYTES / 2));
+        assertThat(controller.getDelayMillis(), is(0L));
+
+        for (int i = 0; i < 10; i++) {
+            window(controller, 10, 1000);
+        }
+        assertThat(controller.getFetchSizeBytes(), is(BatchSizeController.MAX_FETCH_SIZE_BYTES));
+        assertThat(controller.getDelayMillis(), greaterThan(0L));
+
+        // the delay is removed first once the target is exceeded
+        long delay = controller.getDelayMillis();
+        window(controller, 800, 1000);
+        assertThat(controller.getDelayMillis(), lessThan(delay));
+        assertThat(controller.getFetchSizeBytes(), is(BatchSizeController.MAX_FETCH_SIZE_BYTES));
+    }
+
+    @Test
+    public void throughput_shouldReverseWhenTheThroughputDrops() {
+        BatchSizeController controller = new BatchSizeController(Goal.THROUGHPUT, 0, 1, FETCH_SIZE);
+
+        window(controller, 100, 1000);
+        int grown = controller.getFetchSizeBytes();
+        assertThat(grown, greaterThan(FETCH_SIZE));
+
+        // same throughput keeps growing
+        window(controller, 100, 1000);
+        assertThat(controller.getFetchSizeBytes(), greaterThan(grown));
+
+        // half the throughput turns around
+        int before = controller.getFetchSizeBytes();
+        window(controller, 200, 1000);
+        assertThat(controller.getFetchSizeBytes(), lessThan(before));
+        assertThat(controller.getDelayMillis(), is(0L));
+    }
+
+    @Test
+    public void onBatch_shouldWaitForAFullWindow() {
+        BatchSizeController controller = new BatchSizeController(Goal.LATENCY, 500, 1, FETCH_SIZE);
+
+        for (int i = 1; i < BatchSizeController.WINDOW; i++) {
+            assertThat(controller.onBatch(TimeUnit.MILLISECONDS.toNanos(400), 1000), is(false));
+        }
+        assertThat(controller.getFetchSizeBytes(), is(FETCH_SIZE));
+    }
+
+    private static boolean window(BatchSizeController controller, long cycleMillis, long tuples) {
+        boolean changed = false;
+        for (int i = 0; i < BatchSizeController.WINDOW; i++) {
+            changed = controller.onBatch(TimeUnit.MILLISECONDS.toNanos(cycleMillis), tuples);
+        }
+        return changed;
+    }
+}
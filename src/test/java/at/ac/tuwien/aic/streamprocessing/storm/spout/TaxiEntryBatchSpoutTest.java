@@ -0,0 +1,50 @@
+package at.ac.tuwien.aic.streamprocessing.storm.spout;
+
+import at.ac.tuwien.aic.streamprocessing.kafka.provider.SyntheticFleetProvider;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+import org.apache.storm.trident.operation.TridentCollector;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class TaxiEntryBatchSpoutTest {
+
+    @Test
+    public void emitBatch_shouldReplayUnacknowledgedBatches_andEmitEmptyBatchesAtTheEnd() {
+        // 10 taxis reporting every second for 2 seconds, followed by 10 stop tokens
+        SyntheticFleetProvider fleet = new SyntheticFleetProvider(10, 2).withReportInterval(1);
+        TaxiEntryBatchSpout spout = new TaxiEntryBatchSpout(fleet, 12);
+        spout.open(Collections.singletonMap(TimestampMode.CONFIG_KEY, TimestampMode.EPOCH_MILLIS.name()), null);
+
+        List<List<Object>> first = emit(spout, 1);
+        assertThat(first, hasSize(12));
+        assertThat(first.get(0).get(1), instanceOf(Long.class));
+        assertThat(emit(spout, 1), is(first));
+
+        spout.ack(1);
+        assertThat(emit(spout, 2), hasSize(12));
+        assertThat(emit(spout, 3), hasSize(6));
+        assertThat(emit(spout, 4), is(empty()));
+
+        spout.close();
+    }
+
+    private static List<List<Object>> emit(TaxiEntryBatchSpout spout, long batchId) {
+        List<List<Object>> tuples = new ArrayList<>();
+        TridentCollector collector = mock(TridentCollector.class);
+        doAnswer(invocation -> tuples.add(invocation.getArgumentAt(0, List.class))).when(collector).emit(anyListOf(Object.class));
+        spout.emitBatch(batchId, collector);
+        return tuples;
+    }
+}
@@ -0,0 +1,77 @@
+package at.ac.tuwien.aic.streamprocessing.storm.spout;
+
+import at.ac.tuwien.aic.streamprocessing.model.TaxiEntry;
+import at.ac.tuwien.aic.streamprocessing.model.serialization.TaxiEntryBinaryCodec;
+import at.ac.tuwien.aic.streamprocessing.model.serialization.TaxiEntryPackSerializer;
+import at.ac.tuwien.aic.streamprocessing.model.serialization.TaxiEntrySerializer;
+import at.ac.tuwien.aic.streamprocessing.model.utils.Timestamp;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+import org.apache.storm.tuple.Values;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+public class TaxiEntryPackSchemeTest {
+
+    private static final LocalDateTime NOW = Timestamp.parse("2008-02-02 13:30:45");
+    private static final long NOW_MILLIS = Timestamp.toEpochSecond(NOW) * 1000L;
+
+    private final List<TaxiEntry> entries = Arrays.asList(
+            new TaxiEntry(1, NOW, 39.92123, 116.51172),
+            new TaxiEntry(8000, NOW, 39.9, 116.4),
+            new TaxiEntry(1, NOW.plusSeconds(300), 39.92201, 116.50963)
+    );
+
+    @Test
+    public void deserialize_shouldFanOut_packedRecords() {
+        ByteBuffer pack = ByteBuffer.wrap(new TaxiEntryPackSerializer().serialize("taxi", entries));
+
+        assertThat(toList(new TaxiEntryPackScheme().deserialize(pack)), contains(
+                new Values(1, "2008-02-02 13:30:45", 39.92123, 116.51172),
+                new Values(8000, "2008-02-02 13:30:45", 39.9, 116.4),
+                new Values(1, "2008-02-02 13:35:45", 39.92201, 116.50963)));
+    }
+
+    @Test
+    public void deserialize_shouldFanOut_packedRecordsWithEpochMillis() {
+        ByteBuffer pack = ByteBuffer.wrap(new TaxiEntryPackSerializer().serialize("taxi", entries));
+
+        assertThat(toList(new TaxiEntryPackScheme(TimestampMode.EPOCH_MILLIS).deserialize(pack)), contains(
+                new Values(1, NOW_MILLIS, 39.92123, 116.51172),
+                new Values(8000, NOW_MILLIS, 39.9, 116.4),
+                new Values(1, NOW_MILLIS + 300000L, 39.92201, 116.50963)));
+    }
+
+    @Test
+    public void deserialize_shouldDecode_singleRecords() {
+        TaxiEntry entry = entries.get(0);
+        TaxiEntryPackScheme scheme = new TaxiEntryPackScheme();
+
+        Values expected = new Values(1, "2008-02-02 13:30:45", 39.92123, 116.51172);
+        assertThat(toList(scheme.deserialize(ByteBuffer.wrap(new TaxiEntrySerializer().serialize("taxi", entry)))), contains(expected));
+        assertThat(toList(scheme.deserialize(ByteBuffer.wrap(TaxiEntryBinaryCodec.encode(entry)))), contains(expected));
+    }
+
+    @Test
+    public void deserialize_shouldDecode_singleRecordsWithEpochMillis() {
+        TaxiEntry entry = entries.get(0);
+        TaxiEntryPackScheme scheme = new TaxiEntryPackScheme(TimestampMode.EPOCH_MILLIS);
+
+        Values expected = new Values(1, NOW_MILLIS, 39.92123, 116.51172);
+        assertThat(toList(scheme.deserialize(ByteBuffer.wrap(new TaxiEntrySerializer().serialize("taxi", entry)))), contains(expected));
+        assertThat(toList(scheme.deserialize(ByteBuffer.wrap(TaxiEntryBinaryCodec.encode(entry)))), contains(expected));
+    }
+
+    private static List<List<Object>> toList(Iterable<List<Object>> tuples) {
+        List<List<Object>> list = new ArrayList<>();
+        tuples.forEach(list::add);
+        return list;
+    }
+}
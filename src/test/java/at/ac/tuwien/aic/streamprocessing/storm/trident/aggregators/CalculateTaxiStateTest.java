@@ -0,0 +1,109 @@
+package at.ac.tuwien.aic.streamprocessing.storm.trident.aggregators;
+
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.averageSpeed.AverageSpeedStateMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.distance.DistanceStateMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects.StateObject;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed.SpeedStateMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.taxi.TaxiState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.taxi.TaxiStateMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TaxiFields;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+import org.apache.storm.trident.operation.TridentCollector;
+import org.apache.storm.trident.tuple.TridentTupleView;
+import org.apache.storm.tuple.Fields;
+import org.apache.storm.tuple.Values;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class CalculateTaxiStateTest {
+
+    private static final Map<String, String> CONF = Collections.singletonMap(TimestampMode.CONFIG_KEY, TimestampMode.EPOCH_MILLIS.name());
+
+    private static final List<Values> FIXES = new ArrayList<>();
+
+    static {
+        FIXES.add(new Values(1, 0L, 39.90, 116.40));
+        FIXES.add(new Values(1, 60000L, 39.91, 116.40));
+        FIXES.add(new Values(1, 180000L, 39.91, 116.42));
+        FIXES.add(new Values(1, 240000L, 39.91, 116.42));
+    }
+
+    private final List<List<Object>> emitted = new ArrayList<>();
+    private TridentCollector collector;
+
+    @Before
+    public void setUp() {
+        collector = mock(TridentCollector.class);
+        doAnswer(invocation -> emitted.add(invocation.getArgumentAt(0, List.class))).when(collector).emit(anyListOf(Object.class));
+    }
+
+    @Test
+    public void aggregate_shouldMatchTheSeparateAggregators() {
+        List<List<Object>> speeds = batch(new CalculateSpeed(), TaxiFields.CALCULATE_SPEED_INPUT_FIELDS, FIXES,
+                new SpeedStateMapper().createInitialStateTuple());
+
+        List<Values> idAndSpeeds = new ArrayList<>();
+        for (List<Object> speed : speeds) {
+            idAndSpeeds.add(new Values(speed.get(0), speed.get(1), speed.get(4)));
+        }
+        List<List<Object>> averageSpeeds = batch(new CalculateAverageSpeed(), TaxiFields.AVG_SPEED_INPUT_FIELDS, idAndSpeeds,
+                new AverageSpeedStateMapper().createInitialStateTuple());
+        List<List<Object>> distances = batch(new CalculateDistance(), TaxiFields.CALCULATE_DISTANCE_INPUT_FIELDS, FIXES,
+                new DistanceStateMapper().createInitialStateTuple());
+
+        List<List<Object>> combined = batch(new CalculateTaxiState(), TaxiFields.CALCULATE_TAXI_STATE_INPUT_FIELDS, FIXES,
+                new TaxiStateMapper().createInitialStateTuple());
+
+        for (int i = 0; i < FIXES.size(); i++) {
+            Fields output = TaxiFields.CALCULATE_TAXI_STATE_OUTPUT_FIELDS;
+            List<Object> tuple = combined.get(i);
+            assertThat(tuple.get(output.fieldIndex("timestamp")), is(speeds.get(i).get(1)));
+            assertThat((Double) tuple.get(output.fieldIndex("speed")), closeTo((Double) speeds.get(i).get(4), 1e-9));
+            assertThat((Double) tuple.get(output.fieldIndex("avgSpeed")), closeTo((Double) averageSpeeds.get(i).get(1), 1e-9));
+            assertThat(tuple.get(output.fieldIndex("observations")), is(averageSpeeds.get(i).get(2)));
+            assertThat((Double) tuple.get(output.fieldIndex("distance")), closeTo((Double) distances.get(i).get(3), 1e-9));
+        }
+    }
+
+    @Test
+    public void aggregate_shouldContinueFromTheStoredState() {
+        TaxiStateMapper mapper = new TaxiStateMapper(TimestampMode.EPOCH_MILLIS);
+        List<List<Object>> first = batch(new CalculateTaxiState(), TaxiFields.CALCULATE_TAXI_STATE_INPUT_FIELDS, FIXES.subList(0, 2),
+                mapper.createInitialStateTuple());
+        TaxiState stored = mapper.deserializeFromRedis(mapper.serializeToRedis(mapper.fromTuple(
+                TridentTupleView.createFreshTuple(TaxiFields.CALCULATE_TAXI_STATE_OUTPUT_FIELDS, first.get(1)))));
+
+        List<List<Object>> second = batch(new CalculateTaxiState(), TaxiFields.CALCULATE_TAXI_STATE_INPUT_FIELDS, FIXES.subList(2, 4),
+                mapper.toStateTuple(stored));
+        List<List<Object>> all = batch(new CalculateTaxiState(), TaxiFields.CALCULATE_TAXI_STATE_INPUT_FIELDS, FIXES,
+                mapper.createInitialStateTuple());
+
+        assertThat(second.get(1), is(all.get(3)));
+    }
+
+    private <T extends StateObject> List<List<Object>> batch(Aggregator<T> aggregator, Fields inputFields, List<Values> fixes, Values state) {
+        aggregator.prepare(CONF, null);
+        emitted.clear();
+
+        Map<Integer, T> batchState = aggregator.init(1L, collector);
+        for (Values fix : fixes) {
+            List<Object> input = new ArrayList<>(fix);
+            input.addAll(state);
+            aggregator.aggregate(batchState, TridentTupleView.createFreshTuple(inputFields, input), collector);
+        }
+
+        return new ArrayList<>(emitted);
+    }
+}
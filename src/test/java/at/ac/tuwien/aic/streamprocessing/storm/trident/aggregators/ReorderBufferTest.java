@@ -0,0 +1,153 @@
+package at.ac.tuwien.aic.streamprocessing.storm.trident.aggregators;
+
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TaxiFields;
+import org.apache.storm.Config;
+import org.apache.storm.trident.operation.TridentCollector;
+import org.apache.storm.trident.topology.TransactionAttempt;
+import org.apache.storm.trident.tuple.TridentTupleView;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class ReorderBufferTest {
+
+    private final List<List<Object>> emitted = new ArrayList<>();
+    private TridentCollector collector;
+
+    @Before
+    public void setUp() {
+        collector = mock(TridentCollector.class);
+        doAnswer(invocation -> emitted.add(invocation.getArgumentAt(0, List.class))).when(collector).emit(anyListOf(Object.class));
+    }
+
+    @Test
+    public void complete_shouldEmitFixesInOrder_onceTheWatermarkPassesThem() {
+        ReorderBuffer buffer = prepare(new ReorderBuffer(2000));
+
+        batch(buffer, fix(1, 3000), fix(1, 1000), fix(2, 2000), fix(1, 2000));
+        // watermark at 1000
+        assertThat(timestamps(1), contains(1000L));
+        assertThat(timestamps(2), is(empty()));
+
+        emitted.clear();
+        batch(buffer, fix(2, 1000), fix(1, 6000));
+        // watermark at 4000
+        assertThat(timestamps(1), contains(2000L, 3000L));
+        assertThat(timestamps(2), contains(1000L, 2000L));
+    }
+
+    @Test
+    public void aggregate_shouldDropLateAndDuplicateFixes() {
+        ReorderBuffer buffer = prepare(new ReorderBuffer(0));
+
+        batch(buffer, fix(1, 2000));
+        batch(buffer, fix(1, 1000), fix(1, 2000), fix(1, 3000), fix(1, 3000));
+
+        assertThat(timestamps(1), contains(2000L, 3000L));
+        assertThat(buffer.getDropped(), is(3L));
+    }
+
+    @Test
+    public void init_shouldEmitTheOutputAgain_whenABatchIsReplayed() {
+        ReorderBuffer buffer = prepare(new ReorderBuffer(1000, 2, ReorderBuffer.DEFAULT_IDLE_FLUSH_MILLIS));
+
+        batch(buffer, new TransactionAttempt(1L, 0), fix(1, 1000), fix(1, 4000), fix(1, 2000), fix(1, 3000));
+        assertThat(timestamps(1), contains(1000L, 2000L, 3000L));
+
+        // the batch failed downstream and is replayed with the same fixes
+        emitted.clear();
+        batch(buffer, new TransactionAttempt(1L, 1), fix(1, 1000), fix(1, 4000), fix(1, 2000), fix(1, 3000));
+        assertThat(timestamps(1), contains(1000L, 2000L, 3000L));
+        assertThat(buffer.getDropped(), is(0L));
+
+        emitted.clear();
+        batch(buffer, new TransactionAttempt(2L, 0), fix(1, 6000));
+        assertThat(timestamps(1), contains(4000L));
+    }
+
+    @Test
+    public void init_shouldEmitTheOutputAgain_whenAnInterleavedBatchIsReplayed() {
+        ReorderBuffer buffer = new ReorderBuffer(0);
+        buffer.prepare(Collections.singletonMap(Config.TOPOLOGY_MAX_SPOUT_PENDING, 2), null);
+
+        ReorderBuffer.Batch first = buffer.init(new TransactionAttempt(1L, 0), collector);
+        ReorderBuffer.Batch second = buffer.init(new TransactionAttempt(2L, 0), collector);
+        buffer.aggregate(first, TridentTupleView.createFreshTuple(TaxiFields.BASE_FIELDS, fix(1, 1000)), collector);
+        buffer.aggregate(second, TridentTupleView.createFreshTuple(TaxiFields.BASE_FIELDS, fix(1, 2000)), collector);
+        buffer.complete(first, collector);
+        buffer.complete(second, collector);
+        assertThat(timestamps(1), contains(1000L, 2000L));
+
+        // the first batch failed downstream, both are replayed
+        emitted.clear();
+        batch(buffer, new TransactionAttempt(1L, 1), fix(1, 1000));
+        batch(buffer, new TransactionAttempt(2L, 1), fix(1, 2000));
+        assertThat(timestamps(1), contains(1000L, 2000L));
+        assertThat(buffer.getDropped(), is(0L));
+    }
+
+    @Test
+    public void aggregate_shouldEmitOldestFix_whenCapacityIsExceeded() {
+        ReorderBuffer buffer = prepare(new ReorderBuffer(60000, 2, ReorderBuffer.DEFAULT_IDLE_FLUSH_MILLIS));
+
+        batch(buffer, fix(1, 3000), fix(1, 1000), fix(1, 2000));
+
+        assertThat(timestamps(1), contains(1000L));
+    }
+
+    @Test
+    public void complete_shouldFlushAll_whenIdle() {
+        ReorderBuffer buffer = prepare(new ReorderBuffer(60000, ReorderBuffer.DEFAULT_CAPACITY, 0));
+
+        batch(buffer, fix(1, 2000), fix(1, 1000));
+
+        assertThat(timestamps(1), contains(1000L, 2000L));
+    }
+
+    private static ReorderBuffer prepare(ReorderBuffer buffer) {
+        buffer.prepare(Collections.emptyMap(), null);
+        return buffer;
+    }
+
+    private void batch(ReorderBuffer buffer, List<Object>... fixes) {
+        batch(buffer, 1L, fixes);
+    }
+
+    private void batch(ReorderBuffer buffer, Object batchId, List<Object>... fixes) {
+        ReorderBuffer.Batch state = buffer.init(batchId, collector);
+        for (List<Object> fix : fixes) {
+            buffer.aggregate(state, TridentTupleView.createFreshTuple(TaxiFields.BASE_FIELDS, fix), collector);
+        }
+        buffer.complete(state, collector);
+    }
+
+    private List<Long> timestamps(int taxiId) {
+        List<Long> timestamps = new ArrayList<>();
+        for (List<Object> tuple : emitted) {
+            if (tuple.get(0).equals(taxiId)) {
+                timestamps.add((Long) tuple.get(1));
+            }
+        }
+        return timestamps;
+    }
+
+    private static List<Object> fix(int taxiId, long timestamp) {
+        List<Object> fix = new ArrayList<>();
+        fix.add(taxiId);
+        fix.add(timestamp);
+        fix.add(39.9);
+        fix.add(116.4);
+        return fix;
+    }
+}
@@ -0,0 +1,153 @@
+package at.ac.tuwien.aic.streamprocessing.storm.trident.dashboard;
+
+import at.ac.tuwien.aic.streamprocessing.storm.trident.dashboard.DashboardDispatcher.Policy;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class DashboardDispatcherTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> received = Collections.synchronizedList(new ArrayList<>());
+
+    private DashboardDispatcher dispatcher;
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        dispatcher.close();
+    }
+
+    /**
+     * Blocks on the first notification until released, like an unresponsive dashboard.
+     */
+    private void send(String uri, String json) throws InterruptedException {
+        started.countDown();
+        release.await();
+        received.add(uri + " " + json);
+    }
+
+    @Test
+    public void dispatch_shouldNotBlockAndDropWhenFull() throws Exception {
+        dispatcher = new DashboardDispatcher(2, Policy.DROP, (uri, json) -> {
+            try {
+                send(uri, json);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(dispatcher.dispatch("/add", location(1, 1.0)), is(true));
+        assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+
+        assertThat(dispatcher.dispatch("/add", location(1, 2.0)), is(true));
+        assertThat(dispatcher.dispatch("/add", location(1, 3.0)), is(true));
+        assertThat(dispatcher.dispatch("/add", location(1, 4.0)), is(false));
+        assertThat(dispatcher.getDropped(), is(1L));
+
+        release.countDown();
+        awaitSent(3);
+        assertThat(received, contains("/add {\"taxiId\":\"1\",\"latitude\":\"1.0\"}", "/add {\"taxiId\":\"1\",\"latitude\":\"2.0\"}",
+                "/add {\"taxiId\":\"1\",\"latitude\":\"3.0\"}"));
+    }
+
+    @Test
+    public void dispatch_shouldCoalesceWaitingNotificationsOfATaxi() throws Exception {
+        dispatcher = new DashboardDispatcher(2, Policy.COALESCE, (uri, json) -> {
+            try {
+                send(uri, json);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        dispatcher.dispatch("/add", location(1, 1.0));
+        assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+
+        dispatcher.dispatch("/add", location(1, 2.0));
+        dispatcher.dispatch("/add", location(2, 2.0));
+        assertThat(dispatcher.dispatch("/add", location(1, 3.0)), is(true));
+        assertThat(dispatcher.getCoalesced(), is(1L));
+        assertThat(dispatcher.getPending(), is(2));
+
+        release.countDown();
+        awaitSent(3);
+        assertThat(received, contains("/add {\"taxiId\":\"1\",\"latitude\":\"1.0\"}", "/add {\"taxiId\":\"2\",\"latitude\":\"2.0\"}",
+                "/add {\"taxiId\":\"1\",\"latitude\":\"3.0\"}"));
+    }
+
+    @Test
+    public void dispatch_shouldCountFailedNotifications() throws Exception {
+        dispatcher = new DashboardDispatcher(10, Policy.DROP, (uri, json) -> {
+            throw new IOException("connection refused");
+        });
+
+        dispatcher.dispatch("/stop", Collections.singletonMap("taxiId", "1"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dispatcher.getFailed() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(dispatcher.getFailed(), is(1L));
+        assertThat(dispatcher.getSent(), is(0L));
+    }
+
+    @Test
+    public void close_shouldCloseTheSender() throws Exception {
+        CountDownLatch closed = new CountDownLatch(1);
+        dispatcher = new DashboardDispatcher(10, Policy.DROP, new DashboardDispatcher.Sender() {
+            @Override
+            public void send(String uri, String json) {
+                received.add(uri + " " + json);
+            }
+
+            @Override
+            public void close() {
+                closed.countDown();
+            }
+        });
+
+        dispatcher.close();
+        assertThat(closed.await(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void closeInstance_shouldLetGetCreateANewDispatcher() {
+        DashboardDispatcher closed = DashboardDispatcher.get(null);
+        DashboardDispatcher.closeInstance();
+
+        dispatcher = DashboardDispatcher.get(null);
+        assertThat(dispatcher, not(sameInstance(closed)));
+        assertThat(closed.dispatch("/add", location(1, 1.0)), is(false));
+        DashboardDispatcher.closeInstance();
+    }
+
+    private void awaitSent(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dispatcher.getSent() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(dispatcher.getSent(), is(count));
+    }
+
+    private static Map<String, String> location(int taxiId, double latitude) {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("taxiId", Integer.toString(taxiId));
+        parameters.put("latitude", Double.toString(latitude));
+        return parameters;
+    }
+}
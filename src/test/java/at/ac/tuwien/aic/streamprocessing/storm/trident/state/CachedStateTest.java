@@ -0,0 +1,90 @@
+package at.ac.tuwien.aic.streamprocessing.storm.trident.state;
+
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.averageSpeed.AverageSpeedState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.averageSpeed.AverageSpeedStateMapper;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+public class CachedStateTest {
+
+    @After
+    public void clearStates() {
+        CachedState.clearAll();
+        MemoryState.clearAll();
+    }
+
+    private static MemoryState<AverageSpeedState> backing(String name) {
+        return spy(new MemoryState<>(name, 0, new AverageSpeedStateMapper()));
+    }
+
+    private static AverageSpeedState state(int observations) {
+        return new AverageSpeedState(observations, 10.0 * observations);
+    }
+
+    @Test
+    public void getAll_shouldReadOnlyMissingTaxisFromTheBackingState() {
+        MemoryState<AverageSpeedState> backing = backing("misses");
+        backing.setAll(Arrays.asList(1, 2), Arrays.asList(state(1), state(2)));
+        CachedState<AverageSpeedState> state = new CachedState<>("misses", 0, backing, 10);
+
+        state.getAll(Arrays.asList(1, 2));
+        List<AverageSpeedState> states = state.getAll(Arrays.asList(2, 3, 1, 2));
+
+        verify(backing).getAll(Arrays.asList(1, 2));
+        verify(backing).getAll(Collections.singletonList(3));
+        assertThat(states.get(0).getObservations(), is(2));
+        assertThat(states.get(1), is(nullValue()));
+        assertThat(states.get(2).getObservations(), is(1));
+        assertThat(states.get(3).getObservations(), is(2));
+    }
+
+    @Test
+    public void commit_shouldWriteBackDirtyStatesOnce() {
+        MemoryState<AverageSpeedState> backing = backing("writeBack");
+        CachedState<AverageSpeedState> query = new CachedState<>("writeBack", 0, backing, 10);
+        CachedState<AverageSpeedState> persist = new CachedState<>("writeBack", 0, backing, 10);
+
+        persist.setAll(Arrays.asList(1, 2, 1), Arrays.asList(state(1), state(2), state(3)));
+        verify(backing, never()).setAll(anyListOf(Integer.class), anyListOf(AverageSpeedState.class));
+        // the query shares the cache of its partition
+        assertThat(query.getAll(Collections.singletonList(1)).get(0).getObservations(), is(3));
+
+        persist.commit(1L);
+        persist.commit(2L);
+
+        verify(backing).setAll(eq(Arrays.asList(1, 2)), anyListOf(AverageSpeedState.class));
+        List<AverageSpeedState> written = backing.getAll(Arrays.asList(1, 2));
+        assertThat(written.get(0).getObservations(), is(3));
+        assertThat(written.get(1).getObservations(), is(2));
+    }
+
+    @Test
+    public void commit_shouldEvictTheLeastRecentlyUsedStates() {
+        MemoryState<AverageSpeedState> backing = backing("eviction");
+        CachedState<AverageSpeedState> state = new CachedState<>("eviction", 0, backing, 2);
+
+        state.setAll(Arrays.asList(1, 2), Arrays.asList(state(1), state(2)));
+        state.commit(1L);
+        state.getAll(Collections.singletonList(1));
+        state.setAll(Collections.singletonList(3), Collections.singletonList(state(3)));
+        state.commit(2L);
+        state.getAll(Arrays.asList(1, 3));
+
+        verify(backing, never()).getAll(anyListOf(Integer.class));
+        state.getAll(Collections.singletonList(2));
+        verify(backing).getAll(Collections.singletonList(2));
+    }
+}
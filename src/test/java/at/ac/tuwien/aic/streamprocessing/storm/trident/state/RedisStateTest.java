@@ -0,0 +1,186 @@
+package at.ac.tuwien.aic.streamprocessing.storm.trident.state;
+
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed.SpeedState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed.SpeedStateMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.util.RedisConnectionPool;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import redis.clients.jedis.Jedis;
+import redis.embedded.RedisServer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class RedisStateTest {
+
+    private static final int PORT = 6392;
+
+    private static RedisServer server;
+
+    @BeforeClass
+    public static void startRedis() throws Exception {
+        server = new RedisServer(PORT);
+        server.start();
+    }
+
+    @AfterClass
+    public static void stopRedis() throws Exception {
+        RedisConnectionPool.closeAll();
+        server.stop();
+    }
+
+    private static RedisState<SpeedState> createState(String name, int chunkSize) {
+        return new RedisState<>(name, "localhost", PORT, new SpeedStateMapper(TimestampMode.EPOCH_MILLIS), chunkSize);
+    }
+
+    private static RedisState<SpeedState> createHashedState(String name, int chunkSize) {
+        return createState(name, chunkSize, RedisLayout.HASH, RedisEncoding.STRING);
+    }
+
+    private static RedisState<SpeedState> createState(String name, int chunkSize, RedisLayout layout, RedisEncoding encoding) {
+        return new RedisState<>(name, RedisConnectionPool.get("localhost", PORT, null), new SpeedStateMapper(TimestampMode.EPOCH_MILLIS), chunkSize,
+                layout, encoding);
+    }
+
+    private static RedisState<SpeedState> createOpaqueState(String name) {
+        return new RedisState<>(name, RedisConnectionPool.get("localhost", PORT, null), new SpeedStateMapper(TimestampMode.EPOCH_MILLIS), 2,
+                RedisLayout.STRING, RedisEncoding.BINARY, true);
+    }
+
+    private static void commit(RedisState<SpeedState> state, long txid, List<Integer> ids, List<SpeedState> states) {
+        state.beginCommit(txid);
+        state.setAll(ids, states);
+        state.commit(txid);
+    }
+
+    private static SpeedState state(long timestamp) {
+        return new SpeedState(timestamp, 39.9, 116.4, 12.5);
+    }
+
+    @Test
+    public void getAll_shouldReadAcrossChunksInTheOrderOfTheIds() {
+        RedisState<SpeedState> state = createState("chunks", 2);
+        state.setAll(Arrays.asList(1, 2, 3, 4, 5), Arrays.asList(state(1000), state(2000), state(3000), state(4000), state(5000)));
+
+        List<SpeedState> states = state.getAll(Arrays.asList(5, 9, 1, 3, 2));
+
+        assertThat(states, hasSize(5));
+        assertThat(states.get(0).getTimestamp(), is(5000L));
+        assertThat(states.get(1), is(nullValue()));
+        assertThat(states.get(2).getTimestamp(), is(1000L));
+        assertThat(states.get(3).getTimestamp(), is(3000L));
+        assertThat(states.get(4).getTimestamp(), is(2000L));
+    }
+
+    @Test
+    public void setAll_shouldKeepTheLaterStateOfATaxi() {
+        RedisState<SpeedState> state = createState("duplicates", 1000);
+        state.setAll(Arrays.asList(7, 8, 7), Arrays.asList(state(1000), state(2000), state(3000)));
+
+        assertThat(state.getAll(Collections.singletonList(7)).get(0).getTimestamp(), is(3000L));
+    }
+
+    @Test
+    public void getAll_shouldReadAcrossChunksAndHashesInTheOrderOfTheIds() {
+        RedisState<SpeedState> state = createHashedState("hashedChunks", 3);
+        state.setAll(Arrays.asList(1, 17, 40, 2, 17), Arrays.asList(state(1000), state(2000), state(3000), state(4000), state(5000)));
+
+        List<SpeedState> states = state.getAll(Arrays.asList(40, 9, 1, 17, 2, 100));
+
+        assertThat(states, hasSize(6));
+        assertThat(states.get(0).getTimestamp(), is(3000L));
+        assertThat(states.get(1), is(nullValue()));
+        assertThat(states.get(2).getTimestamp(), is(1000L));
+        assertThat(states.get(3).getTimestamp(), is(5000L));
+        assertThat(states.get(4).getTimestamp(), is(4000L));
+        assertThat(states.get(5), is(nullValue()));
+    }
+
+    @Test
+    public void setAll_shouldPutTheStatesOfATaxiIntoOneHash() {
+        createHashedState("first", 1000).setAll(Collections.singletonList(330), Collections.singletonList(state(1000)));
+        createHashedState("second", 1000).setAll(Collections.singletonList(330), Collections.singletonList(state(2000)));
+
+        try (Jedis jedis = new Jedis("localhost", PORT)) {
+            assertThat(jedis.hkeys(RedisLayout.hashKey(330)), containsInAnyOrder("first:330", "second:330"));
+        }
+    }
+
+    @Test
+    public void getAll_shouldReadBinaryAndStringValuesInBothLayouts() {
+        for (RedisLayout layout : RedisLayout.values()) {
+            String name = "binary" + layout;
+            createState(name, 2, layout, RedisEncoding.STRING).setAll(Arrays.asList(1, 2), Arrays.asList(state(1000), state(2000)));
+            RedisState<SpeedState> state = createState(name, 2, layout, RedisEncoding.BINARY);
+            state.setAll(Arrays.asList(2, 3), Arrays.asList(state(3000), state(4000)));
+
+            List<SpeedState> states = state.getAll(Arrays.asList(1, 2, 3, 4));
+
+            assertThat(states.get(0).getTimestamp(), is(1000L));
+            assertThat(states.get(1).getTimestamp(), is(3000L));
+            assertThat(states.get(2).getTimestamp(), is(4000L));
+            assertThat(states.get(3), is(nullValue()));
+        }
+    }
+
+    @Test
+    public void getAll_shouldReadTheStateBeforeABatchWhenItIsReplayed() {
+        RedisState<SpeedState> state = createOpaqueState("opaque");
+        commit(state, 1, Arrays.asList(1, 2), Arrays.asList(state(1000), state(2000)));
+        commit(state, 2, Arrays.asList(1, 3), Arrays.asList(state(1500), state(3000)));
+
+        List<SpeedState> replayed = state.getAll(Arrays.asList(1, 2, 3, 4), 2L);
+        assertThat(replayed.get(0).getTimestamp(), is(1000L));
+        assertThat(replayed.get(1).getTimestamp(), is(2000L));
+        assertThat(replayed.get(2), is(nullValue()));
+        assertThat(replayed.get(3), is(nullValue()));
+
+        try (Jedis jedis = new Jedis("localhost", PORT)) {
+            // reloads the scripts
+            jedis.scriptFlush();
+        }
+        List<SpeedState> next = state.getAll(Arrays.asList(1, 2, 3), 3L);
+        assertThat(next.get(0).getTimestamp(), is(1500L));
+        assertThat(next.get(1).getTimestamp(), is(2000L));
+        assertThat(next.get(2).getTimestamp(), is(3000L));
+        assertThat(state.getAll(Collections.singletonList(1)).get(0).getTimestamp(), is(1500L));
+    }
+
+    @Test
+    public void commit_shouldKeepThePreviousStateWhenABatchIsReplayed() {
+        RedisState<SpeedState> state = createOpaqueState("opaqueReplay");
+        commit(state, 1, Collections.singletonList(7), Collections.singletonList(state(1000)));
+
+        state.beginCommit(2L);
+        state.setAll(Arrays.asList(7, 7), Arrays.asList(state(2000), state(2500)));
+        assertThat(state.getAll(Collections.singletonList(7), 3L).get(0).getTimestamp(), is(1000L));
+        state.commit(2L);
+        commit(state, 2, Collections.singletonList(7), Collections.singletonList(state(3000)));
+
+        assertThat(state.getAll(Collections.singletonList(7), 2L).get(0).getTimestamp(), is(1000L));
+        assertThat(state.getAll(Collections.singletonList(7), 3L).get(0).getTimestamp(), is(3000L));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void setAll_shouldRequireACommitForAnOpaqueState() {
+        createOpaqueState("opaqueOutside").setAll(Collections.singletonList(1), Collections.singletonList(state(1000)));
+    }
+
+    @Test
+    public void getAll_shouldHandleEmptyBatches() {
+        RedisState<SpeedState> state = createState("empty", 1000);
+        state.setAll(Collections.emptyList(), Collections.emptyList());
+
+        assertThat(state.getAll(Collections.emptyList()), is(empty()));
+    }
+}
@@ -0,0 +1,64 @@
+package at.ac.tuwien.aic.streamprocessing.storm.trident.state.objects;
+
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.averageSpeed.AverageSpeedState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.averageSpeed.AverageSpeedStateMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed.SpeedState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed.SpeedStateMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.taxi.TaxiState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.taxi.TaxiStateMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class BinaryEncodingTest {
+
+    @Test
+    public void taxiStateMapper_shouldRoundTrip_binaryValue() {
+        TaxiStateMapper mapper = new TaxiStateMapper(TimestampMode.EPOCH_MILLIS);
+        TaxiState state = new TaxiState(1201959045000L, 39.9, -116.4, 42.5, 7, 297.5, 1.25);
+
+        byte[] value = mapper.serializeToBytes(state);
+        TaxiState read = mapper.deserializeFromBytes(value);
+
+        assertThat(value.length, is(53));
+        assertThat(value[0], is(BinaryEncoding.VERSION));
+        assertThat(read.getTimestamp(), is(state.getTimestamp()));
+        assertThat(read.getLatitude(), is(state.getLatitude()));
+        assertThat(read.getLongitude(), is(state.getLongitude()));
+        assertThat(read.getSpeed(), is(state.getSpeed()));
+        assertThat(read.getObservations(), is(state.getObservations()));
+        assertThat(read.getSpeedSum(), is(state.getSpeedSum()));
+        assertThat(read.getDistance(), is(state.getDistance()));
+    }
+
+    @Test
+    public void serializeToBytes_shouldWrite_littleEndianFields() {
+        byte[] value = new AverageSpeedStateMapper().serializeToBytes(new AverageSpeedState(1, 0.0));
+
+        assertThat(value, is(new byte[] { BinaryEncoding.VERSION, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 }));
+    }
+
+    @Test
+    public void deserializeFromBytes_shouldRead_stringValues() {
+        for (TimestampMode mode : TimestampMode.values()) {
+            SpeedStateMapper mapper = new SpeedStateMapper(mode);
+            SpeedState state = new SpeedState(1201959045000L, 39.9, 116.4, 42.0);
+
+            SpeedState read = mapper.deserializeFromBytes(mapper.serializeToRedis(state).getBytes(StandardCharsets.UTF_8));
+            assertThat(read.getTimestamp(), is(state.getTimestamp()));
+            assertThat(read.getSpeed(), is(state.getSpeed()));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void deserializeFromBytes_shouldReject_unknownVersions() {
+        byte[] value = new AverageSpeedStateMapper().serializeToBytes(new AverageSpeedState(1, 42.0));
+        value[0] = BinaryEncoding.VERSION + 1;
+
+        new AverageSpeedStateMapper().deserializeFromBytes(value);
+    }
+}
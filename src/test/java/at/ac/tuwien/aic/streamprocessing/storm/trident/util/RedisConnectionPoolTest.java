@@ -0,0 +1,74 @@
+package at.ac.tuwien.aic.streamprocessing.storm.trident.util;
+
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.RedisState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed.SpeedState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed.SpeedStateMapper;
+import at.ac.tuwien.aic.streamprocessing.storm.tuple.TimestampMode;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.embedded.RedisServer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class RedisConnectionPoolTest {
+
+    private static final int PORT = 6393;
+
+    private static RedisServer server;
+
+    @BeforeClass
+    public static void startRedis() throws Exception {
+        server = new RedisServer(PORT);
+        server.start();
+    }
+
+    @AfterClass
+    public static void stopRedis() throws Exception {
+        RedisConnectionPool.closeAll();
+        server.stop();
+    }
+
+    @Test
+    public void createConfig_shouldReadTheTopologyConfiguration() {
+        Map<String, Object> conf = new HashMap<>();
+        conf.put(RedisConnectionPool.SIZE_CONFIG_KEY, 4);
+        conf.put(RedisConnectionPool.IDLE_MILLIS_CONFIG_KEY, 5000L);
+
+        JedisPoolConfig config = RedisConnectionPool.createConfig(conf);
+
+        assertThat(config.getMaxTotal(), is(4));
+        assertThat(config.getMinEvictableIdleTimeMillis(), is(5000L));
+        assertThat(config.getTestOnBorrow(), is(true));
+        assertThat(RedisConnectionPool.createConfig(null).getMaxTotal(), is(RedisConnectionPool.DEFAULT_SIZE));
+    }
+
+    @Test
+    public void get_shouldShareOneConnectionBetweenStates() {
+        JedisPool pool = RedisConnectionPool.get("localhost", PORT, null);
+        assertThat(RedisConnectionPool.get("localhost", PORT, null), is(sameInstance(pool)));
+
+        RedisState<SpeedState> speed = new RedisState<>("speed", "localhost", PORT, new SpeedStateMapper(TimestampMode.EPOCH_MILLIS));
+        RedisState<SpeedState> other = new RedisState<>("other", "localhost", PORT, new SpeedStateMapper(TimestampMode.EPOCH_MILLIS));
+        for (int i = 0; i < 10; i++) {
+            speed.setAll(Arrays.asList(1, 2), Arrays.asList(new SpeedState(i, 1.0, 2.0, 3.0), new SpeedState(i, 1.0, 2.0, 3.0)));
+            other.getAll(Arrays.asList(1, 2));
+        }
+
+        assertThat(pool.getNumActive(), is(0));
+        assertThat(pool.getNumIdle(), is(1));
+        try (Jedis jedis = pool.getResource()) {
+            assertThat(jedis.info("stats"), containsString("total_connections_received:1\r\n"));
+        }
+    }
+}
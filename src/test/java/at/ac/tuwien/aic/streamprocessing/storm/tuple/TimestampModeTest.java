@@ -0,0 +1,39 @@
+package at.ac.tuwien.aic.streamprocessing.storm.tuple;
+
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed.SpeedState;
+import at.ac.tuwien.aic.streamprocessing.storm.trident.state.speed.SpeedStateMapper;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class TimestampModeTest {
+
+    @Test
+    public void toEpochMillis_shouldRead_bothRepresentations() {
+        assertThat(TimestampMode.toEpochMillis(TimestampMode.FORMATTED.toField(1201959045000L)), is(1201959045000L));
+        assertThat(TimestampMode.toEpochMillis(TimestampMode.EPOCH_MILLIS.toField(1201959045000L)), is(1201959045000L));
+        assertThat(TimestampMode.parseEpochMillis("2008-02-02 13:30:45"), is(1201959045000L));
+        assertThat(TimestampMode.parseEpochMillis("1201959045000"), is(1201959045000L));
+    }
+
+    @Test
+    public void fromConfig_shouldDefaultTo_formatted() {
+        assertThat(TimestampMode.fromConfig(null), is(TimestampMode.FORMATTED));
+        assertThat(TimestampMode.fromConfig(Collections.singletonMap(TimestampMode.CONFIG_KEY, "EPOCH_MILLIS")), is(TimestampMode.EPOCH_MILLIS));
+    }
+
+    @Test
+    public void speedStateMapper_shouldRoundTrip_redisValue() {
+        for (TimestampMode mode : TimestampMode.values()) {
+            SpeedStateMapper mapper = new SpeedStateMapper(mode);
+            SpeedState state = new SpeedState(1201959045000L, 39.9, 116.4, 42.0);
+
+            SpeedState read = mapper.deserializeFromRedis(mapper.serializeToRedis(state));
+            assertThat(read.getTimestamp(), is(state.getTimestamp()));
+            assertThat(read.getSpeed(), is(state.getSpeed()));
+        }
+    }
+}